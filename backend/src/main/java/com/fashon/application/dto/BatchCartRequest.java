@@ -0,0 +1,22 @@
+package com.fashon.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCartRequest {
+
+    @NotEmpty(message = "Operations are required")
+    @Size(max = 100, message = "At most 100 operations per request")
+    private List<@Valid CartOperationRequest> operations;
+}
@@ -0,0 +1,32 @@
+package com.fashon.application.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationRequest {
+
+    public enum Type {
+        ADD,     // Cộng thêm quantity vào variant
+        UPDATE,  // Đặt lại quantity của dòng
+        REMOVE   // Xóa dòng khỏi giỏ
+    }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    // ADD cần variantId; UPDATE/REMOVE dùng cartItemId hoặc variantId
+    private Long variantId;
+
+    private Long cartItemId;
+
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+}
@@ -0,0 +1,22 @@
+package com.fashon.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một trang theo cursor (keyset): không đếm tổng số dòng, trang sau lấy bằng nextCursor.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor; // null khi đã hết dữ liệu
+    private boolean hasNext;
+    private int size;
+}
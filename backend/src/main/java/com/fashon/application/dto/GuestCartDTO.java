@@ -0,0 +1,22 @@
+package com.fashon.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartDTO {
+    private String token;
+    @Builder.Default
+    private List<CartItemDTO> items = new ArrayList<>();
+    private Integer totalItems;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,25 @@
+package com.fashon.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartRequest {
+
+    // Token hiện tại do client giữ (null nếu giỏ mới)
+    private String token;
+
+    @Builder.Default
+    @Size(max = 100, message = "At most 100 operations per request")
+    private List<@Valid CartOperationRequest> operations = new ArrayList<>();
+}
@@ -15,4 +15,7 @@ public class LoginRequest {
 
     @NotBlank(message = "Password is required")
     private String password;
+
+    // Token guest cart (nếu có) sẽ được gộp vào giỏ hàng sau khi đăng nhập
+    private String guestCartToken;
 }
@@ -0,0 +1,43 @@
+package com.fashon.application.dto;
+
+import com.fashon.domain.enums.NotificationBatchStatus;
+import com.fashon.domain.enums.PaymentNotificationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentNotificationBatchDTO {
+    private Long id;
+    private NotificationBatchStatus status;
+    private Integer totalItems;
+    private Integer appliedItems;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private List<Item> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long id;
+        private String orderCode;
+        private String transactionCode;
+        private BigDecimal amount;
+        private PaymentNotificationStatus status;
+        private String message;
+        private Long paymentId;
+        private LocalDateTime processedAt;
+    }
+}
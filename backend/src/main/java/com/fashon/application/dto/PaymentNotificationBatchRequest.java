@@ -0,0 +1,22 @@
+package com.fashon.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentNotificationBatchRequest {
+
+    @NotEmpty(message = "Notifications are required")
+    @Size(max = 500, message = "A batch cannot contain more than 500 notifications")
+    private List<@Valid PaymentNotificationRequest> notifications;
+}
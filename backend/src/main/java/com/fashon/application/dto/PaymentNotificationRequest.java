@@ -0,0 +1,33 @@
+package com.fashon.application.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentNotificationRequest {
+
+    @NotBlank(message = "Order code is required")
+    @Size(max = 50, message = "Order code must not exceed 50 characters")
+    private String orderCode;
+
+    @NotBlank(message = "Transaction code is required")
+    @Size(max = 100, message = "Transaction code must not exceed 100 characters")
+    private String transactionCode;
+
+    // Không bắt buộc; nếu có phải khớp số tiền của payment
+    @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
+    private BigDecimal amount;
+
+    @Size(max = 500, message = "Notes must not exceed 500 characters")
+    private String notes;
+}
@@ -0,0 +1,28 @@
+package com.fashon.application.dto;
+
+import com.fashon.domain.enums.PaymentMethod;
+import com.fashon.domain.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Bộ lọc danh sách payment cho admin, mọi trường đều không bắt buộc.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSearchFilter {
+    private PaymentStatus status;
+    private PaymentMethod method;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private LocalDateTime createdFrom; // bao gồm
+    private LocalDateTime createdTo; // không bao gồm
+    private String orderCodePrefix;
+}
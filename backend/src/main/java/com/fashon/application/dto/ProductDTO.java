@@ -32,4 +32,7 @@ public class ProductDTO {
     // Rating fields
     private Double averageRating;
     private Long reviewCount;
+
+    // Chỉ có khi user đã đăng nhập: sản phẩm có trong wishlist của user
+    private Boolean inWishlist;
 }
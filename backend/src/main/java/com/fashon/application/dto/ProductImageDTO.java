@@ -15,4 +15,7 @@ public class ProductImageDTO {
     private String altText;
     private Integer sortOrder;
     private Boolean isPrimary;
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String detailUrl;
 }
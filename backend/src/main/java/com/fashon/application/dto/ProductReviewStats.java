@@ -6,15 +6,19 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductReviewStats {
-    private List<ReviewDTO> reviews;
+    private List<ReviewDTO> reviews; // Trang đầu, trang sau lấy qua /reviews/feed với nextCursor
+    private String nextCursor;
+    private boolean hasNext;
     private Double averageRating;
     private Long totalReviews;
+    private Map<Integer, Long> ratingHistogram; // Số review theo mức sao 1..5
     private boolean hasUserReviewed;
     private ReviewDTO userReview;
     private boolean canReview; // true nếu user đã đăng nhập và đã mua sản phẩm
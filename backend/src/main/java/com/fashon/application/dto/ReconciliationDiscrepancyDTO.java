@@ -0,0 +1,26 @@
+package com.fashon.application.dto;
+
+import com.fashon.domain.enums.DiscrepancyType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiscrepancyDTO {
+    private Long id;
+    private DiscrepancyType type;
+    private Long orderId;
+    private String orderCode;
+    private Long paymentId;
+    private BigDecimal expectedAmount;
+    private BigDecimal actualAmount;
+    private String details;
+    private LocalDateTime createdAt;
+}
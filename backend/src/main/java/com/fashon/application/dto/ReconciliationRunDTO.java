@@ -0,0 +1,26 @@
+package com.fashon.application.dto;
+
+import com.fashon.domain.enums.ReconciliationRunStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunDTO {
+    private Long id;
+    private ReconciliationRunStatus status;
+    private Long lastOrderId;
+    private Long ordersChecked;
+    private Long paymentsChecked;
+    private Long discrepancies;
+    private String lastError;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
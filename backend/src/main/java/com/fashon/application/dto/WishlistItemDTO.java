@@ -0,0 +1,32 @@
+package com.fashon.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Card sản phẩm trong wishlist: chỉ dữ liệu cần hiển thị, không kèm variants / images đầy đủ.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WishlistItemDTO {
+    private Long id;
+    private Long productId;
+    private String name;
+    private String slug;
+    private String imageUrl;
+    private String cardUrl; // Bản thu nhỏ cho card, null nếu chưa sinh xong
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private boolean inStock;
+    private boolean available; // false nếu sản phẩm đã bị ẩn
+    private Double averageRating;
+    private Long reviewCount;
+    private LocalDateTime addedAt;
+}
@@ -5,6 +5,8 @@ import com.fashon.application.dto.UserDTO;
 import com.fashon.domain.entity.User;
 import com.fashon.domain.enums.Role;
 import com.fashon.infrastructure.repository.UserRepository;
+import com.fashon.infrastructure.security.TokenRevocationList;
+import com.fashon.infrastructure.security.UserIdentityCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +20,8 @@ import java.time.LocalDateTime;
 public class AdminUserService {
 
     private final UserRepository userRepository;
+    private final UserIdentityCache identityCache;
+    private final TokenRevocationList revocationList;
 
     // Lay danh sach user
     @Transactional(readOnly = true)
@@ -56,11 +60,17 @@ public class AdminUserService {
         User user = userRepository.findByIdAndDeletedAtIsNull(id)
                 .orElseThrow(() -> new RuntimeException("Khong tim thay user"));
 
+        boolean roleChanged = user.getRole() != request.getRole();
         user.setFullName(request.getFullName());
         user.setPhone(request.getPhone());
         user.setRole(request.getRole());
 
         User updatedUser = userRepository.save(user);
+        identityCache.evict(id);
+        if (roleChanged) {
+            // Token cũ mang role cũ, buộc đăng nhập lại
+            revocationList.revoke(id, "ROLE_CHANGED");
+        }
         return UserDTO.fromEntity(updatedUser);
     }
 
@@ -72,5 +82,7 @@ public class AdminUserService {
 
         user.setDeletedAt(LocalDateTime.now());
         userRepository.save(user);
+        identityCache.evict(id);
+        revocationList.revoke(id, "ACCOUNT_DELETED");
     }
 }
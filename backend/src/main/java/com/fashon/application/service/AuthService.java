@@ -5,22 +5,29 @@ import com.fashon.application.dto.LoginRequest;
 import com.fashon.application.dto.RegisterRequest;
 import com.fashon.domain.entity.User;
 import com.fashon.domain.enums.Role;
+import com.fashon.infrastructure.repository.UserPasswordJdbcRepository;
 import com.fashon.infrastructure.repository.UserRepository;
 import com.fashon.infrastructure.security.JwtUtil;
+import com.fashon.infrastructure.security.PasswordHasher;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserPasswordJdbcRepository userPasswordRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
+    private final CartService cartService;
 
-    @Transactional
+    // Không mở transaction ở đây để không giữ connection DB trong lúc chờ BCrypt;
+    // email trùng do race vẫn bị unique constraint chặn (409)
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
@@ -28,14 +35,14 @@ public class AuthService {
 
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(passwordHasher.encode(request.getPassword()));
         user.setFullName(request.getFullName());
         user.setPhone(request.getPhone());
         user.setRole(Role.CUSTOMER);
 
         userRepository.save(user);
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name());
 
         return new AuthResponse(token, user.getEmail(), user.getFullName(), user.getRole());
     }
@@ -44,11 +51,32 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Invalid email or password"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
             throw new RuntimeException("Invalid email or password");
         }
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+        // Hash cũ có work factor thấp hơn cấu hình thì hash lại ở nền, user không phải chờ
+        if (passwordHasher.needsUpgrade(user.getPasswordHash())) {
+            Long userId = user.getId();
+            String oldHash = user.getPasswordHash();
+            passwordHasher.upgradeInBackground(request.getPassword(), newHash -> {
+                // Chỉ bỏ entry của user này khỏi second-level cache, không xóa cả region
+                if (userPasswordRepository.updatePasswordHash(userId, oldHash, newHash) > 0) {
+                    entityManagerFactory.getCache().evict(User.class, userId);
+                }
+            });
+        }
+
+        if (request.getGuestCartToken() != null && !request.getGuestCartToken().isEmpty()) {
+            // Lỗi khi gộp giỏ không được làm hỏng việc đăng nhập
+            try {
+                cartService.mergeGuestCart(user.getId(), request.getGuestCartToken());
+            } catch (RuntimeException e) {
+                log.warn("Failed to merge guest cart for user {}: {}", user.getId(), e.getMessage());
+            }
+        }
+
+        String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRole().name());
 
         return new AuthResponse(token, user.getEmail(), user.getFullName(), user.getRole());
     }
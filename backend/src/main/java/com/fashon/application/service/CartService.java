@@ -1,43 +1,43 @@
 package com.fashon.application.service;
 
 import com.fashon.application.dto.*;
-import com.fashon.domain.entity.Cart;
-import com.fashon.domain.entity.CartItem;
 import com.fashon.domain.entity.ProductImage;
 import com.fashon.domain.entity.ProductVariant;
-import com.fashon.domain.entity.User;
-import com.fashon.infrastructure.repository.CartItemRepository;
-import com.fashon.infrastructure.repository.CartRepository;
+import com.fashon.infrastructure.cart.CartLine;
+import com.fashon.infrastructure.cart.CartSnapshot;
+import com.fashon.infrastructure.cart.CartStore;
+import com.fashon.infrastructure.cart.GuestCartCodec;
 import com.fashon.infrastructure.repository.ProductVariantRepository;
-import com.fashon.infrastructure.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CartService {
 
-    private final CartRepository cartRepository;
-    private final CartItemRepository cartItemRepository;
+    private final CartStore cartStore;
+    private final GuestCartCodec guestCartCodec;
     private final ProductVariantRepository productVariantRepository;
-    private final UserRepository userRepository;
 
     @Transactional(readOnly = true)
-    public CartDTO getCart(String userEmail) {
-        User user = getUserByEmail(userEmail);
-        Cart cart = cartRepository.findByUserIdWithItems(user.getId())
-                .orElseGet(() -> createNewCart(user));
-        return mapToCartDTO(cart);
+    public CartDTO getCart(Long userId) {
+        return mapToCartDTO(cartStore.load(userId));
     }
 
     @Transactional
-    public CartDTO addToCart(String userEmail, AddToCartRequest request) {
-        User user = getUserByEmail(userEmail);
+    public CartDTO addToCart(Long userId, AddToCartRequest request) {
         ProductVariant variant = productVariantRepository.findById(request.getVariantId())
                 .orElseThrow(() -> new RuntimeException("Product variant not found"));
 
@@ -46,104 +46,231 @@ public class CartService {
             throw new RuntimeException("Insufficient stock. Available: " + variant.getStockQuantity());
         }
 
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElseGet(() -> createNewCart(user));
+        CartSnapshot cart = cartStore.load(userId);
 
         // Check if item already exists in cart
-        CartItem existingItem = cartItemRepository.findByCartIdAndVariantId(cart.getId(), variant.getId())
-                .orElse(null);
-
-        if (existingItem != null) {
-            // Update quantity
-            int newQuantity = existingItem.getQuantity() + request.getQuantity();
-            if (variant.getStockQuantity() < newQuantity) {
-                throw new RuntimeException("Insufficient stock. Available: " + variant.getStockQuantity());
-            }
-            existingItem.setQuantity(newQuantity);
-            cartItemRepository.save(existingItem);
-        } else {
-            // Add new item
-            CartItem newItem = new CartItem(cart, variant, request.getQuantity());
-            cart.addItem(newItem);
-            cartItemRepository.save(newItem);
+        int newQuantity = cart.findByVariantId(variant.getId())
+                .map(line -> line.getQuantity() + request.getQuantity())
+                .orElse(request.getQuantity());
+        if (variant.getStockQuantity() < newQuantity) {
+            throw new RuntimeException("Insufficient stock. Available: " + variant.getStockQuantity());
         }
+        cart.setQuantity(variant.getId(), newQuantity);
 
-        return getCart(userEmail);
+        return mapToCartDTO(cartStore.save(cart));
     }
 
     @Transactional
-    public CartDTO updateCartItem(String userEmail, Long cartItemId, UpdateCartItemRequest request) {
-        User user = getUserByEmail(userEmail);
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
+    public CartDTO updateCartItem(Long userId, Long cartItemId, UpdateCartItemRequest request) {
+        CartSnapshot cart = cartStore.load(userId);
 
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
+        // Chỉ tìm trong giỏ của chính user nên item của người khác sẽ không thấy
+        CartLine line = cart.findLine(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
 
-        // Verify cart item belongs to user's cart
-        if (!cartItem.getCart().getId().equals(cart.getId())) {
-            throw new RuntimeException("Cart item does not belong to your cart");
-        }
-
         // Check stock availability
-        ProductVariant variant = cartItem.getVariant();
+        ProductVariant variant = productVariantRepository.findById(line.getVariantId())
+                .orElseThrow(() -> new RuntimeException("Product variant not found"));
         if (variant.getStockQuantity() < request.getQuantity()) {
             throw new RuntimeException("Insufficient stock. Available: " + variant.getStockQuantity());
         }
 
-        cartItem.setQuantity(request.getQuantity());
-        cartItemRepository.save(cartItem);
+        cart.setQuantity(line.getVariantId(), request.getQuantity());
 
-        return getCart(userEmail);
+        return mapToCartDTO(cartStore.save(cart));
     }
 
     @Transactional
-    public CartDTO removeCartItem(String userEmail, Long cartItemId) {
-        User user = getUserByEmail(userEmail);
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
+    public CartDTO removeCartItem(Long userId, Long cartItemId) {
+        CartSnapshot cart = cartStore.load(userId);
 
-        CartItem cartItem = cartItemRepository.findById(cartItemId)
+        CartLine line = cart.findLine(cartItemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
 
-        // Verify cart item belongs to user's cart
-        if (!cartItem.getCart().getId().equals(cart.getId())) {
-            throw new RuntimeException("Cart item does not belong to your cart");
+        cart.removeLine(line.getVariantId());
+
+        return mapToCartDTO(cartStore.save(cart));
+    }
+
+    @Transactional
+    public void clearCart(Long userId) {
+        CartSnapshot cart = cartStore.load(userId);
+
+        if (!cart.isEmpty()) {
+            cart.clear();
+            cartStore.save(cart);
         }
+    }
 
-        cart.removeItem(cartItem);
-        cartItemRepository.delete(cartItem);
+    /**
+     * Áp dụng nhiều thao tác ADD/UPDATE/REMOVE trong 1 lần gọi.
+     * Tất cả thao tác được kiểm tra trước, chỉ cần 1 thao tác lỗi thì giỏ hàng giữ nguyên.
+     */
+    @Transactional
+    public CartDTO applyBatch(Long userId, BatchCartRequest request) {
+        CartSnapshot cart = cartStore.load(userId);
+
+        Map<Long, ProductVariant> variants = applyOperations(cart, request.getOperations());
 
-        return getCart(userEmail);
+        return mapToCartDTO(cartStore.save(cart), variants);
     }
 
+    // Giỏ hàng của khách chưa đăng nhập: chỉ tồn tại trong token, không ghi DB
+    @Transactional(readOnly = true)
+    public GuestCartDTO getGuestCart(String token) {
+        CartSnapshot cart = guestSnapshot(token);
+        return mapToGuestCartDTO(cart, loadVariants(cart.getLines().keySet()));
+    }
+
+    @Transactional(readOnly = true)
+    public GuestCartDTO applyGuestOperations(GuestCartRequest request) {
+        CartSnapshot cart = guestSnapshot(request.getToken());
+        Map<Long, ProductVariant> variants = applyOperations(cart, request.getOperations());
+        return mapToGuestCartDTO(cart, variants);
+    }
+
+    /**
+     * Gộp guest cart vào giỏ của user khi đăng nhập: 1 lần load giỏ, 1 query variant, 1 lần save.
+     * Số lượng vượt tồn kho được cắt bớt thay vì báo lỗi, variant không còn tồn tại bị bỏ qua.
+     */
     @Transactional
-    public void clearCart(String userEmail) {
-        User user = getUserByEmail(userEmail);
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElse(null);
+    public void mergeGuestCart(Long userId, String guestCartToken) {
+        Map<Long, Integer> guestLines = guestCartCodec.decode(guestCartToken);
+        if (guestLines.isEmpty()) {
+            return;
+        }
+
+        CartSnapshot cart = cartStore.load(userId);
+        Map<Long, ProductVariant> variants = loadVariants(guestLines.keySet());
 
-        if (cart != null) {
-            List<CartItem> items = cart.getItems();
-            cartItemRepository.deleteAll(items);
-            cart.clearItems();
-            cartRepository.save(cart);
+        boolean changed = false;
+        for (Map.Entry<Long, Integer> guestLine : guestLines.entrySet()) {
+            ProductVariant variant = variants.get(guestLine.getKey());
+            if (variant == null) {
+                continue;
+            }
+            int current = cart.findByVariantId(variant.getId()).map(CartLine::getQuantity).orElse(0);
+            int merged = Math.min(current + guestLine.getValue(), variant.getStockQuantity());
+            if (merged > current) {
+                cart.setQuantity(variant.getId(), merged);
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            cartStore.save(cart);
         }
     }
 
-    private User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Áp dụng nhiều thao tác ADD/UPDATE/REMOVE lên giỏ.
+     * Tất cả thao tác được kiểm tra trước, chỉ cần 1 thao tác lỗi thì không có gì được lưu.
+     *
+     * @return các variant đã load (gồm cả variant đang có trong giỏ) để dùng lại khi map DTO
+     */
+    private Map<Long, ProductVariant> applyOperations(CartSnapshot cart, List<CartOperationRequest> operations) {
+        // Xác định variant của từng thao tác dựa trên giỏ hiện tại, không cần query thêm
+        List<Long> operationVariantIds = new ArrayList<>(operations.size());
+        for (CartOperationRequest operation : operations) {
+            operationVariantIds.add(resolveVariantId(cart, operation));
+        }
+
+        // 1 query cho mọi variant liên quan, dùng lại cho cả kiểm tra tồn kho và map DTO
+        Set<Long> variantIds = new HashSet<>(operationVariantIds);
+        variantIds.addAll(cart.getLines().keySet());
+        Map<Long, ProductVariant> variants = loadVariants(variantIds);
+
+        Set<Long> touched = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            CartOperationRequest operation = operations.get(i);
+            Long variantId = operationVariantIds.get(i);
+
+            switch (operation.getType()) {
+                case ADD -> {
+                    requireVariant(variants, variantId);
+                    int current = cart.findByVariantId(variantId).map(CartLine::getQuantity).orElse(0);
+                    cart.setQuantity(variantId, current + operation.getQuantity());
+                    touched.add(variantId);
+                }
+                case UPDATE -> {
+                    requireVariant(variants, variantId);
+                    if (cart.findByVariantId(variantId).isEmpty()) {
+                        throw new RuntimeException("Cart item not found");
+                    }
+                    cart.setQuantity(variantId, operation.getQuantity());
+                    touched.add(variantId);
+                }
+                case REMOVE -> {
+                    if (cart.findByVariantId(variantId).isEmpty()) {
+                        throw new RuntimeException("Cart item not found");
+                    }
+                    cart.removeLine(variantId);
+                    touched.remove(variantId);
+                }
+            }
+        }
+
+        // Kiểm tra tồn kho trên kết quả cuối cùng, không theo từng bước
+        for (Long variantId : touched) {
+            ProductVariant variant = variants.get(variantId);
+            int quantity = cart.findByVariantId(variantId).map(CartLine::getQuantity).orElse(0);
+            if (variant.getStockQuantity() < quantity) {
+                throw new RuntimeException("Insufficient stock for: " + variant.getSku() +
+                        ". Available: " + variant.getStockQuantity());
+            }
+        }
+
+        return variants;
+    }
+
+    private CartSnapshot guestSnapshot(String token) {
+        CartSnapshot cart = CartSnapshot.empty(null);
+        guestCartCodec.decode(token).forEach(cart::setQuantity);
+        return cart;
+    }
+
+    private Long resolveVariantId(CartSnapshot cart, CartOperationRequest operation) {
+        if (operation.getType() != CartOperationRequest.Type.REMOVE && operation.getQuantity() == null) {
+            throw new RuntimeException("Quantity is required for " + operation.getType());
+        }
+        if (operation.getType() != CartOperationRequest.Type.ADD && operation.getCartItemId() != null) {
+            return cart.findLine(operation.getCartItemId())
+                    .map(CartLine::getVariantId)
+                    .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        }
+        if (operation.getVariantId() == null) {
+            throw new RuntimeException("Variant ID is required for " + operation.getType());
+        }
+        return operation.getVariantId();
     }
 
-    private Cart createNewCart(User user) {
-        Cart cart = new Cart(user);
-        return cartRepository.save(cart);
+    private void requireVariant(Map<Long, ProductVariant> variants, Long variantId) {
+        if (!variants.containsKey(variantId)) {
+            throw new RuntimeException("Product variant not found");
+        }
+    }
+
+    private Map<Long, ProductVariant> loadVariants(Collection<Long> variantIds) {
+        if (variantIds.isEmpty()) {
+            return Map.of();
+        }
+        return productVariantRepository.findAllWithProductByIdIn(variantIds).stream()
+                .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+    }
+
+
+    private CartDTO mapToCartDTO(CartSnapshot cart) {
+        // Lấy tất cả variant (kèm product + images) trong 1 query
+        return mapToCartDTO(cart, loadVariants(cart.getLines().keySet()));
     }
 
-    private CartDTO mapToCartDTO(Cart cart) {
-        List<CartItemDTO> itemDTOs = cart.getItems().stream()
-                .map(this::mapToCartItemDTO)
+    private CartDTO mapToCartDTO(CartSnapshot cart, Map<Long, ProductVariant> variants) {
+        List<CartLine> lines = cart.getLineList();
+
+        // Variant đã bị xóa mềm thì không hiển thị
+        List<CartItemDTO> itemDTOs = lines.stream()
+                .filter(line -> variants.containsKey(line.getVariantId()))
+                .map(line -> mapToCartItemDTO(line, variants.get(line.getVariantId())))
                 .collect(Collectors.toList());
 
         BigDecimal totalAmount = itemDTOs.stream()
@@ -155,8 +282,8 @@ public class CartService {
                 .sum();
 
         return CartDTO.builder()
-                .id(cart.getId())
-                .userId(cart.getUser().getId())
+                .id(cart.getCartId())
+                .userId(cart.getUserId())
                 .items(itemDTOs)
                 .totalItems(totalItems)
                 .totalAmount(totalAmount)
@@ -165,8 +292,22 @@ public class CartService {
                 .build();
     }
 
-    private CartItemDTO mapToCartItemDTO(CartItem item) {
-        ProductVariant variant = item.getVariant();
+    private GuestCartDTO mapToGuestCartDTO(CartSnapshot cart, Map<Long, ProductVariant> variants) {
+        CartDTO priced = mapToCartDTO(cart, variants);
+
+        // Token mới chỉ chứa các variant còn tồn tại
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        priced.getItems().forEach(item -> lines.put(item.getVariantId(), item.getQuantity()));
+
+        return GuestCartDTO.builder()
+                .token(guestCartCodec.encode(lines))
+                .items(priced.getItems())
+                .totalItems(priced.getTotalItems())
+                .totalAmount(priced.getTotalAmount())
+                .build();
+    }
+
+    private CartItemDTO mapToCartItemDTO(CartLine line, ProductVariant variant) {
         String imageUrl = null;
         
         if (variant.getProduct() != null && !variant.getProduct().getImages().isEmpty()) {
@@ -181,21 +322,21 @@ public class CartService {
                 ? variant.getProduct().getBasePrice().add(variant.getPriceAdjustment()) 
                 : BigDecimal.ZERO;
 
-        BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+        BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(line.getQuantity()));
 
         return CartItemDTO.builder()
-                .id(item.getId())
+                .id(line.getLineId())
                 .variantId(variant.getId())
                 .productName(variant.getProduct() != null ? variant.getProduct().getName() : "Unknown")
                 .color(variant.getColor())
                 .size(variant.getSize())
                 .sku(variant.getSku())
-                .quantity(item.getQuantity())
+                .quantity(line.getQuantity())
                 .unitPrice(unitPrice)
                 .subtotal(subtotal)
                 .imageUrl(imageUrl)
-                .createdAt(item.getCreatedAt())
-                .updatedAt(item.getUpdatedAt())
+                .createdAt(line.getCreatedAt())
+                .updatedAt(line.getUpdatedAt())
                 .build();
     }
 }
@@ -14,8 +14,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Slf4j
@@ -23,6 +28,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class FileStorageService {
 
+    private final ImageDerivativeService imageDerivativeService;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
@@ -42,12 +49,15 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Lưu file với tên là hash nội dung (32 ký tự hex đầu của SHA-256): cùng tên thì cùng nội dung,
+     * nên /uploads trả về với Cache-Control immutable. Upload trùng nội dung dùng lại file sẵn có.
+     */
     public String storeFile(MultipartFile file) {
         validateFile(file);
 
         String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String fileExtension = getFileExtension(originalFilename);
-        String newFilename = UUID.randomUUID().toString() + "." + fileExtension;
+        String fileExtension = getFileExtension(originalFilename).toLowerCase(Locale.ROOT);
 
         try {
             if (file.isEmpty()) {
@@ -58,18 +68,33 @@ public class FileStorageService {
                 throw new RuntimeException("Cannot store file with relative path outside current directory " + originalFilename);
             }
 
-            Path uploadPath = Paths.get(uploadDir);
-            Path destinationFile = uploadPath.resolve(Paths.get(newFilename)).normalize().toAbsolutePath();
+            Path uploadPath = Paths.get(uploadDir).toAbsolutePath();
+            Path tempFile = uploadPath.resolve(".upload-" + UUID.randomUUID() + ".tmp");
+            MessageDigest digest = newDigest();
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(inputStream, tempFile);
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
 
-            if (!destinationFile.getParent().equals(uploadPath.toAbsolutePath())) {
+            String newFilename = HexFormat.of().formatHex(digest.digest(), 0, 16) + "." + fileExtension;
+            Path destinationFile = uploadPath.resolve(Paths.get(newFilename)).normalize();
+
+            if (!destinationFile.getParent().equals(uploadPath)) {
+                Files.deleteIfExists(tempFile);
                 throw new RuntimeException("Cannot store file outside current directory");
             }
 
-            try (InputStream inputStream = file.getInputStream()) {
-                Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            if (Files.exists(destinationFile)) {
+                Files.delete(tempFile);
+                log.info("File already stored: {}", newFilename);
+            } else {
+                // Hai upload cùng nội dung chạy song song thì ghi đè bằng chính nội dung đó
+                Files.move(tempFile, destinationFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                log.info("Stored file: {}", newFilename);
             }
-
-            log.info("Stored file: {}", newFilename);
+            imageDerivativeService.submit(newFilename);
             return newFilename;
 
         } catch (IOException e) {
@@ -77,6 +102,7 @@ public class FileStorageService {
         }
     }
 
+    // File có thể đang được nhiều ProductImage dùng chung (upload trùng nội dung)
     public void deleteFile(String filename) {
         try {
             Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
@@ -112,6 +138,14 @@ public class FileStorageService {
         }
     }
 
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     private String getFileExtension(String filename) {
         int lastDotIndex = filename.lastIndexOf('.');
         if (lastDotIndex == -1) {
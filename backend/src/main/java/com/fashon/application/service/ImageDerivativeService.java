@@ -0,0 +1,173 @@
+package com.fashon.application.service;
+
+import com.fashon.infrastructure.config.ImageDerivativeConfig;
+import com.fashon.infrastructure.repository.ProductImageRepository;
+import com.fashon.infrastructure.storage.ImageDerivativeGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sinh bản thu nhỏ (thumbnail / card / detail) cho ảnh upload ở nền rồi ghi URL vào product_images.
+ *
+ * - Pool app.upload.derivatives.workers virtual thread, hàng đợi queue-capacity; đầy thì bỏ qua,
+ *   ảnh được xếp lại khi gắn vào sản phẩm (createImage), upload vẫn trả về ngay.
+ * - Xếp hàng khi upload và sau khi ProductImage commit: việc nào chạy sau cũng thấy đủ file và dòng DB,
+ *   bản thu nhỏ đã có trên đĩa thì chỉ cập nhật URL.
+ * - Metrics: images.derivatives.queue (gauge), .duration (timer), .processed (counter theo result).
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    private static final String URL_PREFIX = "/uploads/";
+
+    private final ImageDerivativeConfig config;
+    private final ImageDerivativeGenerator generator;
+    private final ProductImageRepository productImageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path uploadPath;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Timer duration;
+    private final Counter generated;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public ImageDerivativeService(ImageDerivativeConfig config,
+                                  ImageDerivativeGenerator generator,
+                                  ProductImageRepository productImageRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry registry,
+                                  @Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.config = config;
+        this.generator = generator;
+        this.productImageRepository = productImageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+
+        int workers = Math.max(1, config.getWorkers());
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                Thread.ofVirtual().name("image-derivative-", 1).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("images.derivatives.queue", executor, e -> e.getQueue().size())
+                .description("Uploaded images waiting for derivative generation")
+                .register(registry);
+        this.duration = Timer.builder("images.derivatives.duration")
+                .description("Time to generate all derivatives of one image")
+                .register(registry);
+        this.generated = Counter.builder("images.derivatives.processed").tag("result", "generated").register(registry);
+        this.failed = Counter.builder("images.derivatives.processed").tag("result", "failed").register(registry);
+        this.rejected = Counter.builder("images.derivatives.processed").tag("result", "rejected").register(registry);
+    }
+
+    /**
+     * Xếp hàng sinh bản thu nhỏ cho file vừa upload, không chờ kết quả.
+     */
+    public void submit(String filename) {
+        if (!config.isEnabled() || !ImageDerivativeGenerator.isOriginalName(filename) || !inFlight.add(filename)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(filename);
+                } finally {
+                    inFlight.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(filename);
+            rejected.increment();
+            log.debug("Skipped derivatives for {}, queue is full", filename);
+        }
+    }
+
+    /**
+     * Xếp hàng theo URL ảnh của sản phẩm; chỉ ảnh nằm trong /uploads mới có bản thu nhỏ.
+     * Trong transaction thì đợi commit để lần cập nhật URL thấy được dòng mới.
+     */
+    public void submitForImageUrl(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return;
+        }
+        String filename = imageUrl.substring(URL_PREFIX.length());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(filename);
+                }
+            });
+        } else {
+            submit(filename);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void process(String filename) {
+        Path original = uploadPath.resolve(filename).normalize();
+        if (!original.getParent().equals(uploadPath) || !Files.isRegularFile(original)) {
+            return;
+        }
+        List<Integer> widths = config.getWidths();
+        try {
+            Map<Integer, String> derivatives = generator.findExisting(original, widths);
+            if (derivatives == null) {
+                long start = System.nanoTime();
+                derivatives = generator.generate(original, widths);
+                if (derivatives.isEmpty()) {
+                    log.debug("No derivatives for {}, unsupported format", filename);
+                    return;
+                }
+                duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                generated.increment();
+            }
+
+            Map<Integer, String> result = derivatives;
+            int updated = transactionTemplate.execute(status -> productImageRepository.updateDerivativeUrls(
+                    URL_PREFIX + filename,
+                    URL_PREFIX + result.get(config.getThumbnailWidth()),
+                    URL_PREFIX + result.get(config.getCardWidth()),
+                    URL_PREFIX + result.get(config.getDetailWidth())));
+            if (updated > 0) {
+                log.info("Recorded derivatives of {} on {} product images", filename, updated);
+            }
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Failed to generate derivatives for {}: {}", filename, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.fashon.application.service;
+
+import com.fashon.domain.entity.ProductVariant;
+import com.fashon.infrastructure.config.OrderExpiryConfig;
+import com.fashon.infrastructure.repository.OrderExpiryJdbcRepository;
+import com.fashon.infrastructure.repository.OrderExpiryJdbcRepository.ExpiredOrder;
+import com.fashon.infrastructure.scheduling.SchedulerLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hủy đơn chuyển khoản quá hạn chưa thanh toán (PENDING quá app.orders.expiry.ttl-minutes).
+ *
+ * - Chỉ một node chạy tại một thời điểm (SchedulerLock).
+ * - Chọn đơn theo keyset (created_at, id) từng batch; mỗi batch 1 transaction gồm vài câu SQL set-based:
+ *   đơn -> CANCELLED, payment PENDING -> FAILED, hoàn tồn kho theo inventory_transactions của đơn.
+ *   Khóa đơn trước payment; xác nhận payment (confirmPayment, PaymentNotificationService) khóa cùng thứ tự.
+ * - Dừng trước khi khóa hết hạn, phần còn lại để lần chạy kế tiếp.
+ */
+@Slf4j
+@Service
+public class OrderExpiryService {
+
+    private static final String LOCK_NAME = "order-expiry";
+    private static final String PAYMENT_REASON = "Expired: not paid in time";
+    private static final String STOCK_REASON = "Order expired - Stock returned";
+
+    private final OrderExpiryJdbcRepository expiryRepository;
+    private final SchedulerLock schedulerLock;
+    private final OrderExpiryConfig config;
+    private final TransactionTemplate batchTransaction;
+    private final Cache secondLevelCache;
+    private final Counter expiredOrders;
+
+    public OrderExpiryService(OrderExpiryJdbcRepository expiryRepository,
+                              SchedulerLock schedulerLock,
+                              OrderExpiryConfig config,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory,
+                              MeterRegistry meterRegistry) {
+        this.expiryRepository = expiryRepository;
+        this.schedulerLock = schedulerLock;
+        this.config = config;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.secondLevelCache = entityManagerFactory.getCache();
+        this.expiredOrders = Counter.builder("orders.expired")
+                .description("Unpaid bank transfer orders cancelled by the expiry job")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.expiry.interval-ms:300000}")
+    public void expireUnpaidOrders() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Duration lockAtMost = Duration.ofSeconds(config.getLockAtMostSeconds());
+        if (!schedulerLock.tryAcquire(LOCK_NAME, lockAtMost)) {
+            log.debug("Order expiry is running on another node");
+            return;
+        }
+        try {
+            expire(System.nanoTime() + lockAtMost.toNanos() / 2);
+        } catch (RuntimeException e) {
+            log.error("Order expiry failed, will retry next run", e);
+        } finally {
+            schedulerLock.release(LOCK_NAME);
+        }
+    }
+
+    private void expire(long deadline) {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(config.getTtlMinutes());
+        int batchSize = Math.max(1, config.getBatchSize());
+        ExpiredOrder cursor = null;
+        int total = 0;
+        while (System.nanoTime() < deadline) {
+            List<ExpiredOrder> batch = expiryRepository.findExpired(cutoff, cursor, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            Integer cancelled = batchTransaction.execute(status ->
+                    expireBatch(batch.stream().map(ExpiredOrder::id).toList()));
+            total += cancelled != null ? cancelled : 0;
+            if (batch.size() < batchSize) {
+                break;
+            }
+            cursor = batch.get(batch.size() - 1);
+        }
+        if (total > 0) {
+            log.info("Cancelled {} unpaid bank transfer orders created before {}", total, cutoff);
+        }
+    }
+
+    private int expireBatch(List<Long> candidateIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> orderIds = expiryRepository.cancelOrders(candidateIds, now);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        expiryRepository.failPayments(orderIds, PAYMENT_REASON, now);
+        List<Long> variantIds = expiryRepository.restoreStock(orderIds, STOCK_REASON, now);
+
+        // Cập nhật bằng SQL không qua Hibernate: bỏ tồn kho cũ trong second-level cache sau khi commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                variantIds.forEach(id -> secondLevelCache.evict(ProductVariant.class, id));
+                expiredOrders.increment(orderIds.size());
+            }
+        });
+        return orderIds.size();
+    }
+}
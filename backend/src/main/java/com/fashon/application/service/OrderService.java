@@ -3,6 +3,7 @@ package com.fashon.application.service;
 import com.fashon.application.dto.*;
 import com.fashon.domain.entity.*;
 import com.fashon.domain.enums.OrderStatus;
+import com.fashon.infrastructure.cart.CartStore;
 import com.fashon.infrastructure.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -29,13 +30,16 @@ public class OrderService {
     private final ProductVariantRepository productVariantRepository;
     private final InventoryService inventoryService;
     private final PaymentService paymentService;
+    private final CartStore cartStore;
+    private final UserProductPurchaseRepository purchaseRepository;
 
     @Transactional
-    public OrderDTO createOrderFromCart(String userEmail, CreateOrderRequest request) {
-        User user = getUserByEmail(userEmail);
+    public OrderDTO createOrderFromCart(Long userId, CreateOrderRequest request) {
+        // Ghi các thay đổi giỏ hàng còn nằm trong bộ nhớ xuống DB trước khi đọc
+        cartStore.flush(userId);
 
         // Get user's cart with items
-        Cart cart = cartRepository.findByUserIdWithItems(user.getId())
+        Cart cart = cartRepository.findByUserIdWithItems(userId)
                 .orElseThrow(() -> new RuntimeException("Cart is empty"));
 
         if (cart.getItems().isEmpty()) {
@@ -61,7 +65,7 @@ public class OrderService {
 
         // Create order
         String orderCode = generateOrderCode();
-        Order order = new Order(orderCode, user, total, request.getShippingAddress(), request.getPhone());
+        Order order = new Order(orderCode, userRepository.getReferenceById(userId), total, request.getShippingAddress(), request.getPhone());
         order.setNote(request.getNote());
         order.setStatus(OrderStatus.PENDING);
 
@@ -76,6 +80,7 @@ public class OrderService {
             // Create order item with snapshot
             OrderItem orderItem = new OrderItem(
                     savedOrder,
+                    variant,
                     variant.getProduct().getName(),
                     buildVariantInfo(variant),
                     cartItem.getQuantity(),
@@ -94,14 +99,14 @@ public class OrderService {
         cartItemRepository.deleteAll(cart.getItems());
         cart.clearItems();
         cartRepository.save(cart);
+        cartStore.evict(userId);
 
         return mapToOrderDTO(savedOrder);
     }
 
     @Transactional(readOnly = true)
-    public OrderDTO getOrderByCode(String userEmail, String orderCode) {
-        User user = getUserByEmail(userEmail);
-        Order order = orderRepository.findByOrderCodeAndUserIdWithItems(orderCode, user.getId())
+    public OrderDTO getOrderByCode(Long userId, String orderCode) {
+        Order order = orderRepository.findByOrderCodeAndUserIdWithItems(orderCode, userId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         return mapToOrderDTO(order);
     }
@@ -114,10 +119,9 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public Page<OrderDTO> getMyOrders(String userEmail, Pageable pageable) {
-        User user = getUserByEmail(userEmail);
+    public Page<OrderDTO> getMyOrders(Long userId, Pageable pageable) {
         // Sử dụng findByUserIdWithItems để tránh N+1 query problem (B-MED-001)
-        return orderRepository.findByUserIdWithItems(user.getId(), pageable)
+        return orderRepository.findByUserIdWithItems(userId, pageable)
                 .map(this::mapToOrderDTO);
     }
 
@@ -170,13 +174,17 @@ public class OrderService {
         order.setStatus(newStatus);
         Order savedOrder = orderRepository.save(order);
 
+        // Đơn đã giao: ghi nhận user đã mua các sản phẩm trong đơn (dùng cho quyền đánh giá)
+        if (newStatus == OrderStatus.DELIVERED || newStatus == OrderStatus.COMPLETED) {
+            purchaseRepository.recordOrders(List.of(savedOrder.getId()), LocalDateTime.now());
+        }
+
         return mapToOrderDTO(savedOrder);
     }
 
     @Transactional
-    public OrderDTO cancelOrder(String userEmail, String orderCode) {
-        User user = getUserByEmail(userEmail);
-        Order order = orderRepository.findByOrderCodeAndUserIdWithItems(orderCode, user.getId())
+    public OrderDTO cancelOrder(Long userId, String orderCode) {
+        Order order = orderRepository.findByOrderCodeAndUserIdWithItems(orderCode, userId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         if (!order.canCancel()) {
@@ -267,10 +275,6 @@ public class OrderService {
         return sb.toString();
     }
 
-    private User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 
     private OrderDTO mapToOrderDTO(Order order) {
         List<OrderItemDTO> itemDTOs = order.getItems().stream()
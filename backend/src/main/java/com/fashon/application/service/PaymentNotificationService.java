@@ -0,0 +1,266 @@
+package com.fashon.application.service;
+
+import com.fashon.application.dto.PaymentNotificationBatchDTO;
+import com.fashon.application.dto.PaymentNotificationBatchRequest;
+import com.fashon.domain.entity.Order;
+import com.fashon.domain.entity.Payment;
+import com.fashon.domain.entity.PaymentNotification;
+import com.fashon.domain.entity.PaymentNotificationBatch;
+import com.fashon.domain.enums.NotificationBatchStatus;
+import com.fashon.domain.enums.OrderStatus;
+import com.fashon.domain.enums.PaymentMethod;
+import com.fashon.domain.enums.PaymentNotificationStatus;
+import com.fashon.domain.enums.PaymentStatus;
+import com.fashon.infrastructure.config.PaymentNotificationConfig;
+import com.fashon.infrastructure.payment.PaymentNotificationExecutor;
+import com.fashon.infrastructure.payment.PaymentNotificationQueueFullException;
+import com.fashon.infrastructure.repository.PaymentNotificationBatchRepository;
+import com.fashon.infrastructure.repository.OrderRepository;
+import com.fashon.infrastructure.repository.PaymentNotificationRepository;
+import com.fashon.infrastructure.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Nhận thông báo chuyển khoản theo batch và xác nhận payment bất đồng bộ.
+ *
+ * - ingest(): lưu batch + toàn bộ notification (1 JDBC batch) rồi đẩy vào hàng đợi có giới hạn;
+ *   hàng đợi đầy thì từ chối ngay với 503.
+ * - Worker xử lý cả batch trong 1 transaction: loại trùng transactionCode, khóa các đơn rồi payment của chúng
+ *   (cùng thứ tự với job hủy đơn quá hạn), cập nhật payment / order / notification được Hibernate gom thành batch UPDATE.
+ * - Đơn đã bị hủy thì không xác nhận payment: notification ORDER_CANCELLED để hoàn tiền thủ công.
+ * - Batch lỗi được thử lại tối đa max-attempts lần; batch bị bỏ sót (hàng đợi đầy sau commit,
+ *   node chết giữa chừng) được lần quét định kỳ nhận lại.
+ * - Kết quả từng notification được lưu lại, tra cứu qua getBatch().
+ */
+@Slf4j
+@Service
+public class PaymentNotificationService {
+
+    private static final Comparator<Payment> NEWEST_FIRST =
+            Comparator.comparing(Payment::getCreatedAt).thenComparing(Payment::getId);
+
+    private final PaymentNotificationBatchRepository batchRepository;
+    private final PaymentNotificationRepository notificationRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentNotificationExecutor executor;
+    private final TransactionTemplate processTransaction;
+    private final PaymentNotificationConfig config;
+
+    public PaymentNotificationService(PaymentNotificationBatchRepository batchRepository,
+                                      PaymentNotificationRepository notificationRepository,
+                                      PaymentRepository paymentRepository,
+                                      OrderRepository orderRepository,
+                                      PaymentNotificationExecutor executor,
+                                      PlatformTransactionManager transactionManager,
+                                      PaymentNotificationConfig config) {
+        this.batchRepository = batchRepository;
+        this.notificationRepository = notificationRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.executor = executor;
+        this.config = config;
+        this.processTransaction = new TransactionTemplate(transactionManager);
+        this.processTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional
+    public PaymentNotificationBatchDTO ingest(PaymentNotificationBatchRequest request) {
+        if (!executor.hasCapacity()) {
+            throw new PaymentNotificationQueueFullException("Payment notification queue is full, please retry shortly");
+        }
+
+        List<PaymentNotification> notifications = request.getNotifications().stream()
+                .map(item -> new PaymentNotification(
+                        item.getOrderCode().trim(),
+                        item.getTransactionCode().trim(),
+                        item.getAmount(),
+                        item.getNotes()))
+                .collect(Collectors.toList());
+
+        PaymentNotificationBatch batch = batchRepository.save(new PaymentNotificationBatch(notifications.size()));
+        notificationRepository.insertAll(batch.getId(), notifications);
+
+        // Worker chỉ được thấy batch sau khi commit
+        Long batchId = batch.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(batchId);
+            }
+        });
+
+        return mapToBatchDTO(batch, null);
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentNotificationBatchDTO getBatch(Long batchId) {
+        PaymentNotificationBatch batch = batchRepository.findById(batchId)
+                .orElseThrow(() -> new RuntimeException("Notification batch not found"));
+        return mapToBatchDTO(batch, notificationRepository.findByBatchIdOrderByIdAsc(batchId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.notifications.retry-interval-ms:30000}")
+    public void retryPending() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> batchIds = batchRepository.findIdsToRetry(
+                now.minusNanos(config.getRetryIntervalMs() * 1_000_000L),
+                now.minusSeconds(config.getStaleAfterSeconds()),
+                PageRequest.of(0, Math.max(1, config.getQueueCapacity())));
+        for (Long batchId : batchIds) {
+            if (!dispatch(batchId)) {
+                break;
+            }
+        }
+    }
+
+    private boolean dispatch(Long batchId) {
+        boolean queued = executor.submit(() -> process(batchId));
+        if (!queued) {
+            log.warn("Payment notification queue is full, batch {} will be picked up by the retry sweep", batchId);
+        }
+        return queued;
+    }
+
+    private void process(Long batchId) {
+        LocalDateTime now = LocalDateTime.now();
+        // Batch đã được worker khác (node khác) nhận thì bỏ qua
+        if (batchRepository.claim(batchId, now, now.minusSeconds(config.getStaleAfterSeconds())) == 0) {
+            return;
+        }
+        try {
+            Integer applied = processTransaction.execute(status -> apply(batchId));
+            log.debug("Processed payment notification batch {}: {} applied", batchId, applied);
+        } catch (RuntimeException e) {
+            log.warn("Failed to process payment notification batch {}: {}", batchId, e.getMessage());
+            processTransaction.executeWithoutResult(status -> recordFailure(batchId, e));
+        }
+    }
+
+    private int apply(Long batchId) {
+        PaymentNotificationBatch batch = batchRepository.findById(batchId)
+                .orElseThrow(() -> new RuntimeException("Notification batch not found"));
+        List<PaymentNotification> notifications = notificationRepository.findByBatchIdOrderByIdAsc(batchId);
+        List<PaymentNotification> pending = notifications.stream()
+                .filter(n -> n.getStatus() == PaymentNotificationStatus.RECEIVED)
+                .toList();
+
+        if (!pending.isEmpty()) {
+            Set<String> transactionCodes = pending.stream()
+                    .map(PaymentNotification::getTransactionCode)
+                    .collect(Collectors.toSet());
+            Set<String> usedCodes = new HashSet<>(paymentRepository.findExistingTransactionCodes(transactionCodes));
+
+            // Payment mới nhất của mỗi đơn, giống confirmPayment.
+            // Khóa đơn trước payment như job hủy đơn quá hạn, tránh deadlock khi hai bên cùng chạm một đơn
+            Set<String> orderCodes = pending.stream()
+                    .map(PaymentNotification::getOrderCode)
+                    .collect(Collectors.toSet());
+            orderRepository.findForUpdateByOrderCodes(orderCodes);
+            Map<String, Payment> latestByOrderCode = paymentRepository.findForUpdateByOrderCodes(orderCodes).stream()
+                    .collect(Collectors.toMap(p -> p.getOrder().getOrderCode(), p -> p, BinaryOperator.maxBy(NEWEST_FIRST)));
+
+            for (PaymentNotification notification : pending) {
+                applyOne(notification, latestByOrderCode.get(notification.getOrderCode()), usedCodes);
+            }
+        }
+
+        int applied = (int) notifications.stream()
+                .filter(n -> n.getStatus() == PaymentNotificationStatus.APPLIED)
+                .count();
+        batch.complete(applied);
+        return applied;
+    }
+
+    private void applyOne(PaymentNotification notification, Payment payment, Set<String> usedCodes) {
+        if (!usedCodes.add(notification.getTransactionCode())) {
+            notification.resolve(PaymentNotificationStatus.DUPLICATE, "Transaction code has already been used", null);
+            return;
+        }
+        if (payment == null) {
+            notification.resolve(PaymentNotificationStatus.NOT_FOUND, "No payment found for this order", null);
+            return;
+        }
+        if (payment.getStatus() == PaymentStatus.PAID) {
+            notification.resolve(PaymentNotificationStatus.ALREADY_PAID, "Payment has already been confirmed", payment.getId());
+            return;
+        }
+        if (payment.getStatus() == PaymentStatus.REFUNDED) {
+            notification.resolve(PaymentNotificationStatus.REJECTED, "Payment has been refunded", payment.getId());
+            return;
+        }
+        // Đơn đã hủy (hết hạn thanh toán, tồn kho đã hoàn): không mở lại đơn, tiền chuyển muộn phải hoàn thủ công
+        Order order = payment.getOrder();
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            notification.resolve(PaymentNotificationStatus.ORDER_CANCELLED,
+                    "Order has been cancelled, refund the transfer manually", payment.getId());
+            return;
+        }
+        if (notification.getAmount() != null && notification.getAmount().compareTo(payment.getAmount()) != 0) {
+            notification.resolve(PaymentNotificationStatus.AMOUNT_MISMATCH,
+                    "Expected amount " + payment.getAmount().stripTrailingZeros().toPlainString(), payment.getId());
+            return;
+        }
+
+        payment.markAsPaid(notification.getTransactionCode(), notification.getNotes());
+
+        // Giống confirmPayment: đơn chuyển khoản đang PENDING thì tự xác nhận
+        if (payment.getMethod() != PaymentMethod.COD && order.getStatus() == OrderStatus.PENDING) {
+            order.setStatus(OrderStatus.CONFIRMED);
+        }
+        notification.resolve(PaymentNotificationStatus.APPLIED, null, payment.getId());
+    }
+
+    private void recordFailure(Long batchId, RuntimeException error) {
+        batchRepository.findById(batchId).ifPresent(batch -> {
+            String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+            batch.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+            batch.setStatus(batch.getAttempts() >= config.getMaxAttempts()
+                    ? NotificationBatchStatus.FAILED
+                    : NotificationBatchStatus.RECEIVED);
+        });
+    }
+
+    private PaymentNotificationBatchDTO mapToBatchDTO(PaymentNotificationBatch batch, List<PaymentNotification> notifications) {
+        return PaymentNotificationBatchDTO.builder()
+                .id(batch.getId())
+                .status(batch.getStatus())
+                .totalItems(batch.getTotalItems())
+                .appliedItems(batch.getAppliedItems())
+                .attempts(batch.getAttempts())
+                .lastError(batch.getLastError())
+                .createdAt(batch.getCreatedAt())
+                .completedAt(batch.getCompletedAt())
+                .items(notifications == null ? null : notifications.stream()
+                        .map(n -> PaymentNotificationBatchDTO.Item.builder()
+                                .id(n.getId())
+                                .orderCode(n.getOrderCode())
+                                .transactionCode(n.getTransactionCode())
+                                .amount(n.getAmount())
+                                .status(n.getStatus())
+                                .message(n.getMessage())
+                                .paymentId(n.getPaymentId())
+                                .processedAt(n.getProcessedAt())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
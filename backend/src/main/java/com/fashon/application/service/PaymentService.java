@@ -3,16 +3,15 @@ package com.fashon.application.service;
 import com.fashon.application.dto.*;
 import com.fashon.domain.entity.Order;
 import com.fashon.domain.entity.Payment;
-import com.fashon.domain.entity.User;
 import com.fashon.domain.enums.OrderStatus;
 import com.fashon.domain.enums.PaymentMethod;
 import com.fashon.domain.enums.PaymentStatus;
+import com.fashon.infrastructure.repository.KeysetCursor;
 import com.fashon.infrastructure.repository.OrderRepository;
 import com.fashon.infrastructure.repository.PaymentRepository;
-import com.fashon.infrastructure.repository.UserRepository;
+import com.fashon.infrastructure.repository.PaymentSpecifications;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,7 +28,6 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
 
     @Transactional
     public Payment createPaymentForOrder(Order order, PaymentMethod method, BigDecimal amount) {
@@ -38,11 +36,10 @@ public class PaymentService {
     }
 
     @Transactional(readOnly = true)
-    public List<PaymentDTO> getPaymentsByOrderCode(String userEmail, String orderCode) {
-        User user = getUserByEmail(userEmail);
+    public List<PaymentDTO> getPaymentsByOrderCode(Long userId, String orderCode) {
         
         // Verify order belongs to user
-        Order order = orderRepository.findByOrderCodeAndUserId(orderCode, user.getId())
+        Order order = orderRepository.findByOrderCodeAndUserId(orderCode, userId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
         List<Payment> payments = paymentRepository.findByOrderIdOrderByCreatedAtDesc(order.getId());
@@ -64,7 +61,8 @@ public class PaymentService {
 
     @Transactional
     public PaymentDTO confirmPayment(String orderCode, ConfirmPaymentRequest request) {
-        Order order = orderRepository.findByOrderCode(orderCode)
+        // Khóa đơn trước payment, cùng thứ tự với job hủy đơn quá hạn
+        Order order = orderRepository.findForUpdateByOrderCode(orderCode)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         // Get the latest pending payment for this order
@@ -79,6 +77,11 @@ public class PaymentService {
             throw new RuntimeException("Payment has been refunded");
         }
 
+        // Đơn đã hủy thì tồn kho đã được hoàn, không xác nhận payment; tiền đã nhận phải hoàn thủ công
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            throw new RuntimeException("Order has been cancelled, refund the payment manually");
+        }
+
         // Generate transaction code if not provided (for COD or simulated bank transfer)
         String transactionCode = request.getTransactionCode();
         if (transactionCode == null || transactionCode.isEmpty()) {
@@ -121,21 +124,40 @@ public class PaymentService {
         return mapToPaymentDTO(savedPayment);
     }
 
+    /**
+     * Danh sách payment cho admin theo cursor (created_at DESC, id DESC), không đếm tổng.
+     */
     @Transactional(readOnly = true)
-    public Page<PaymentDTO> getAllPayments(PaymentStatus status, PaymentMethod method, Pageable pageable) {
-        Page<Payment> payments;
-        
-        if (status != null && method != null) {
-            payments = paymentRepository.findByStatusAndMethodWithOrder(status, method, pageable);
-        } else if (status != null) {
-            payments = paymentRepository.findByStatusWithOrder(status, pageable);
-        } else if (method != null) {
-            payments = paymentRepository.findByMethodWithOrder(method, pageable);
-        } else {
-            payments = paymentRepository.findAllWithOrder(pageable);
+    public CursorPage<PaymentDTO> searchPayments(PaymentSearchFilter filter, KeysetCursor after, int size) {
+        Specification<Payment> spec = Specification.allOf(
+                PaymentSpecifications.fetchOrder(),
+                PaymentSpecifications.hasStatus(filter.getStatus()),
+                PaymentSpecifications.hasMethod(filter.getMethod()),
+                PaymentSpecifications.amountAtLeast(filter.getMinAmount()),
+                PaymentSpecifications.amountAtMost(filter.getMaxAmount()),
+                PaymentSpecifications.createdFrom(filter.getCreatedFrom()),
+                PaymentSpecifications.createdBefore(filter.getCreatedTo()),
+                PaymentSpecifications.orderCodeStartsWith(filter.getOrderCodePrefix()),
+                PaymentSpecifications.after(after));
+
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        List<Payment> rows = paymentRepository.findBy(spec,
+                query -> query.sortBy(KeysetCursor.SORT).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<Payment> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Payment last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
         }
-        
-        return payments.map(this::mapToPaymentDTO);
+
+        return CursorPage.<PaymentDTO>builder()
+                .content(page.stream().map(this::mapToPaymentDTO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(size)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -157,10 +179,6 @@ public class PaymentService {
         return prefix + timestamp + random;
     }
 
-    private User getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 
     private PaymentDTO mapToPaymentDTO(Payment payment) {
         return PaymentDTO.builder()
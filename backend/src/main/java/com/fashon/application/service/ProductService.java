@@ -4,6 +4,7 @@ import com.fashon.application.dto.*;
 import com.fashon.domain.entity.Category;
 import com.fashon.domain.entity.Product;
 import com.fashon.domain.entity.ProductImage;
+import com.fashon.domain.entity.ProductRatingSummary;
 import com.fashon.domain.entity.ProductVariant;
 import com.fashon.infrastructure.repository.*;
 import lombok.RequiredArgsConstructor;
@@ -14,18 +15,23 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int RATING_LOOKUP_CHUNK = 1000; // SQL Server giới hạn 2100 tham số mỗi câu lệnh
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductVariantRepository productVariantRepository;
     private final ProductImageRepository productImageRepository;
-    private final ReviewRepository reviewRepository;
+    private final ProductRatingSummaryRepository ratingSummaryRepository;
+    private final ImageDerivativeService imageDerivativeService;
 
     @Transactional
     public ProductDTO createProduct(CreateProductRequest request) {
@@ -110,7 +116,10 @@ public class ProductService {
             productImageRepository.clearPrimaryFlagByProductId(product.getId());
         }
 
-        return productImageRepository.save(image);
+        ProductImage saved = productImageRepository.save(image);
+        // Ảnh upload trước khi gắn vào sản phẩm có thể đã sinh xong bản thu nhỏ, cần ghi URL lại cho dòng mới
+        imageDerivativeService.submitForImageUrl(saved.getImageUrl());
+        return saved;
     }
 
     @Transactional
@@ -270,50 +279,39 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public Page<ProductDTO> getAllProducts(Pageable pageable) {
-        return productRepository.findByIsVisibleTrue(pageable)
-                .map(this::mapToListDTO);
+        return mapToListDTOs(productRepository.findByIsVisibleTrue(pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<ProductDTO> getProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryIdAndIsVisibleTrue(categoryId, pageable)
-                .map(this::mapToListDTO);
+        return mapToListDTOs(productRepository.findByCategoryIdAndIsVisibleTrue(categoryId, pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<ProductDTO> searchProducts(String searchTerm, Pageable pageable) {
-        return productRepository.searchByNameOrDescription(searchTerm, pageable)
-                .map(this::mapToListDTO);
+        return mapToListDTOs(productRepository.searchByNameOrDescription(searchTerm, pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<ProductDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository.findByPriceRangeAndIsVisibleTrue(minPrice, maxPrice, pageable)
-                .map(this::mapToListDTO);
+        return mapToListDTOs(productRepository.findByPriceRangeAndIsVisibleTrue(minPrice, maxPrice, pageable));
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getAllProductsForAdmin() {
-        return productRepository
+        return mapToListDTOs(productRepository
                 .findAll(org.springframework.data.domain.Sort.by(org.springframework.data.domain.Sort.Direction.DESC,
-                        "createdAt"))
-                .stream()
-                .map(this::mapToListDTO)
-                .collect(Collectors.toList());
+                        "createdAt")));
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getTopSellingProducts(int limit) {
-        return productRepository.findTopSellingProducts(Pageable.ofSize(limit)).stream()
-                .map(this::mapToListDTO)
-                .collect(Collectors.toList());
+        return mapToListDTOs(productRepository.findTopSellingProducts(Pageable.ofSize(limit)));
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> getNewestProducts(int limit) {
-        return productRepository.findNewestProducts(Pageable.ofSize(limit)).stream()
-                .map(this::mapToListDTO)
-                .collect(Collectors.toList());
+        return mapToListDTOs(productRepository.findNewestProducts(Pageable.ofSize(limit)));
     }
 
     public ProductDTO mapToDTO(Product product) {
@@ -328,9 +326,8 @@ public class ProductService {
                 .map(this::mapVariantToDTO)
                 .collect(Collectors.toList()) : new ArrayList<>();
 
-        // Lấy thông tin rating
-        Double averageRating = reviewRepository.calculateAverageRating(product.getId());
-        Long reviewCount = reviewRepository.countByProductId(product.getId());
+        // Rating đọc từ bảng tổng hợp, 1 query thay vì AVG + COUNT trên product_reviews
+        ProductRatingSummary rating = ratingSummaryRepository.findByProductId(product.getId()).orElse(null);
 
         return ProductDTO.builder()
                 .id(product.getId())
@@ -346,22 +343,44 @@ public class ProductService {
                 .updatedAt(product.getUpdatedAt())
                 .images(imageDTOs)
                 .variants(variantDTOs)
-                .averageRating(averageRating != null ? averageRating : 0.0)
-                .reviewCount(reviewCount != null ? reviewCount : 0L)
+                .averageRating(rating != null ? rating.getAverageRating() : 0.0)
+                .reviewCount(rating != null ? rating.getRatingCount() : 0L)
                 .build();
     }
 
-    private ProductDTO mapToListDTO(Product product) {
-        String primaryImageUrl = null;
+    private Page<ProductDTO> mapToListDTOs(Page<Product> page) {
+        Map<Long, ProductRatingSummary> ratings = ratingsOf(page.getContent());
+        return page.map(product -> mapToListDTO(product, ratings.get(product.getId())));
+    }
+
+    private List<ProductDTO> mapToListDTOs(List<Product> products) {
+        Map<Long, ProductRatingSummary> ratings = ratingsOf(products);
+        return products.stream()
+                .map(product -> mapToListDTO(product, ratings.get(product.getId())))
+                .collect(Collectors.toList());
+    }
+
+    // Rating của cả danh sách trong 1 query (tách lô khi quá nhiều sản phẩm)
+    private Map<Long, ProductRatingSummary> ratingsOf(List<Product> products) {
+        Map<Long, ProductRatingSummary> ratings = new HashMap<>();
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        for (int from = 0; from < productIds.size(); from += RATING_LOOKUP_CHUNK) {
+            List<Long> chunk = productIds.subList(from, Math.min(productIds.size(), from + RATING_LOOKUP_CHUNK));
+            ratingSummaryRepository.findByProductIdIn(chunk)
+                    .forEach(summary -> ratings.put(summary.getProductId(), summary));
+        }
+        return ratings;
+    }
+
+    private ProductDTO mapToListDTO(Product product, ProductRatingSummary rating) {
+        ProductImage primaryImage = null;
         if (product.getImages() != null) {
-            primaryImageUrl = product.getImages().stream()
+            primaryImage = product.getImages().stream()
                     .filter(img -> img.getDeletedAt() == null && Boolean.TRUE.equals(img.getIsPrimary()))
                     .findFirst()
-                    .map(ProductImage::getImageUrl)
                     .orElse(product.getImages().stream()
                             .filter(img -> img.getDeletedAt() == null)
                             .findFirst()
-                            .map(ProductImage::getImageUrl)
                             .orElse(null));
         }
 
@@ -375,10 +394,6 @@ public class ProductService {
                 .map(this::mapVariantToDTO)
                 .collect(Collectors.toList()) : new ArrayList<>();
 
-        // Lấy thông tin rating
-        Double averageRating = reviewRepository.calculateAverageRating(product.getId());
-        Long reviewCount = reviewRepository.countByProductId(product.getId());
-
         ProductDTO dto = ProductDTO.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -390,12 +405,16 @@ public class ProductService {
                 .soldCount(product.getSoldCount())
                 .createdAt(product.getCreatedAt())
                 .variants(variantDTOs)
-                .averageRating(averageRating != null ? averageRating : 0.0)
-                .reviewCount(reviewCount != null ? reviewCount : 0L)
+                .averageRating(rating != null ? rating.getAverageRating() : 0.0)
+                .reviewCount(rating != null ? rating.getRatingCount() : 0L)
                 .build();
 
-        if (primaryImageUrl != null) {
-            dto.setImages(List.of(ProductImageDTO.builder().imageUrl(primaryImageUrl).build()));
+        if (primaryImage != null) {
+            dto.setImages(List.of(ProductImageDTO.builder()
+                    .imageUrl(primaryImage.getImageUrl())
+                    .thumbnailUrl(primaryImage.getThumbnailUrl())
+                    .cardUrl(primaryImage.getCardUrl())
+                    .build()));
         }
 
         return dto;
@@ -408,6 +427,9 @@ public class ProductService {
                 .altText(image.getAltText())
                 .sortOrder(image.getSortOrder())
                 .isPrimary(image.getIsPrimary())
+                .thumbnailUrl(image.getThumbnailUrl())
+                .cardUrl(image.getCardUrl())
+                .detailUrl(image.getDetailUrl())
                 .build();
     }
 
@@ -0,0 +1,115 @@
+package com.fashon.application.service;
+
+import com.fashon.infrastructure.repository.UserProductPurchaseRepository;
+import com.fashon.infrastructure.scheduling.SchedulerLock;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dựng user_product_purchases cho các đơn đã giao trước khi có bảng này.
+ * Duyệt đơn theo id từng batch, mỗi batch 1 INSERT ... SELECT trong transaction riêng;
+ * insert bỏ qua dòng đã có nên chạy lại (hoặc chạy song song với luồng đơn mới) đều an toàn.
+ * Khóa được gia hạn sau mỗi batch; mất khóa (batch chạy quá LOCK_AT_MOST, node khác đã lấy) thì dừng,
+ * chạy lại sau sẽ bỏ qua các đơn đã ghi.
+ */
+@Slf4j
+@Service
+public class PurchaseBackfillService {
+
+    private static final String LOCK_NAME = "purchase-backfill";
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(10); // Cho một batch, gia hạn sau mỗi batch
+    private static final int BATCH_SIZE = 500;
+
+    private final UserProductPurchaseRepository purchaseRepository;
+    private final SchedulerLock schedulerLock;
+    private final TransactionTemplate batchTransaction;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "purchase-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastOrderId = new AtomicLong();
+    private final AtomicLong ordersScanned = new AtomicLong();
+    private final AtomicLong purchasesRecorded = new AtomicLong();
+
+    public PurchaseBackfillService(UserProductPurchaseRepository purchaseRepository,
+                                   SchedulerLock schedulerLock,
+                                   PlatformTransactionManager transactionManager) {
+        this.purchaseRepository = purchaseRepository;
+        this.schedulerLock = schedulerLock;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    public void start() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Purchase backfill is already running");
+        }
+        if (!schedulerLock.tryAcquire(LOCK_NAME, LOCK_AT_MOST)) {
+            running.set(false);
+            throw new RuntimeException("Purchase backfill is already running on another node");
+        }
+        lastOrderId.set(0);
+        ordersScanned.set(0);
+        purchasesRecorded.set(0);
+        worker.execute(() -> {
+            try {
+                backfill();
+            } catch (RuntimeException e) {
+                log.error("Purchase backfill failed after order {}", lastOrderId.get(), e);
+            } finally {
+                schedulerLock.release(LOCK_NAME);
+                running.set(false);
+            }
+        });
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("lastOrderId", lastOrderId.get());
+        status.put("ordersScanned", ordersScanned.get());
+        status.put("purchasesRecorded", purchasesRecorded.get());
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void backfill() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Long> orderIds = purchaseRepository.findDeliveredOrderIdsAfter(lastOrderId.get(), BATCH_SIZE);
+            if (orderIds.isEmpty()) {
+                break;
+            }
+            Integer recorded = batchTransaction.execute(status ->
+                    purchaseRepository.recordOrders(orderIds, LocalDateTime.now()));
+            ordersScanned.addAndGet(orderIds.size());
+            purchasesRecorded.addAndGet(recorded != null ? recorded : 0);
+            lastOrderId.set(orderIds.get(orderIds.size() - 1));
+            if (!schedulerLock.extend(LOCK_NAME, LOCK_AT_MOST)) {
+                log.warn("Purchase backfill lost its lock after order {}, stopping; start it again to finish",
+                        lastOrderId.get());
+                return;
+            }
+        }
+        log.info("Purchase backfill finished: {} orders scanned, {} purchases recorded",
+                ordersScanned.get(), purchasesRecorded.get());
+    }
+}
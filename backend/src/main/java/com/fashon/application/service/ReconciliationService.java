@@ -0,0 +1,375 @@
+package com.fashon.application.service;
+
+import com.fashon.application.dto.CursorPage;
+import com.fashon.application.dto.ReconciliationDiscrepancyDTO;
+import com.fashon.application.dto.ReconciliationRunDTO;
+import com.fashon.domain.entity.ReconciliationDiscrepancy;
+import com.fashon.domain.entity.ReconciliationRun;
+import com.fashon.domain.enums.DiscrepancyType;
+import com.fashon.domain.enums.OrderStatus;
+import com.fashon.domain.enums.PaymentMethod;
+import com.fashon.domain.enums.PaymentStatus;
+import com.fashon.domain.enums.ReconciliationRunStatus;
+import com.fashon.infrastructure.config.ReconciliationConfig;
+import com.fashon.infrastructure.repository.ReconciliationDiscrepancyRepository;
+import com.fashon.infrastructure.repository.ReconciliationJdbcRepository;
+import com.fashon.infrastructure.repository.ReconciliationJdbcRepository.DiscrepancyRow;
+import com.fashon.infrastructure.repository.ReconciliationJdbcRepository.OrderRow;
+import com.fashon.infrastructure.repository.ReconciliationJdbcRepository.PaymentRow;
+import com.fashon.infrastructure.repository.ReconciliationRunRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Đối soát payment / order hằng đêm.
+ *
+ * - Đọc orders (theo id) và payments (theo order_id, id) song song, mỗi lần chunk-size dòng,
+ *   merge-join trên order_id nên bộ nhớ chỉ phụ thuộc chunk-size, không phụ thuộc kích thước bảng.
+ * - Sau mỗi chunk đơn: ghi sai lệch (1 JDBC batch) và checkpoint last_order_id trong cùng transaction,
+ *   nên chạy lại từ checkpoint không ghi trùng sai lệch. Chỉ flush khi đã xử lý hết payment của order_id
+ *   hiện tại, checkpoint luôn khớp với những dòng đã ghi.
+ * - Lần chạy lỗi / mất heartbeat được lần gọi kế tiếp tiếp tục từ checkpoint.
+ * - Đọc trong transaction read-only để đi vào replica khi bật routing.
+ * - Chạy trên thread riêng, không chiếm thread của scheduler.
+ */
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final ReconciliationJdbcRepository jdbcRepository;
+    private final ReconciliationConfig config;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "reconciliation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReconciliationService(ReconciliationRunRepository runRepository,
+                                 ReconciliationDiscrepancyRepository discrepancyRepository,
+                                 ReconciliationJdbcRepository jdbcRepository,
+                                 ReconciliationConfig config,
+                                 PlatformTransactionManager transactionManager) {
+        this.runRepository = runRepository;
+        this.discrepancyRepository = discrepancyRepository;
+        this.jdbcRepository = jdbcRepository;
+        this.config = config;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.reconciliation.cron:0 0 2 * * *}")
+    public void runNightly() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            start();
+        } catch (RuntimeException e) {
+            log.info("Skipped nightly reconciliation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Tiếp tục lần chạy dở dang gần nhất, hoặc bắt đầu lần chạy mới. Job chạy nền.
+     */
+    public ReconciliationRunDTO start() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Reconciliation is already running");
+        }
+        ReconciliationRun run;
+        try {
+            run = claimOrCreate();
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        Long runId = run.getId();
+        worker.execute(() -> {
+            try {
+                execute(runId);
+            } finally {
+                running.set(false);
+            }
+        });
+        return mapToRunDTO(run);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReconciliationRunDTO> getRecentRuns() {
+        return runRepository.findTop20ByOrderByIdDesc().stream()
+                .map(this::mapToRunDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public ReconciliationRunDTO getRun(Long runId) {
+        return runRepository.findById(runId)
+                .map(this::mapToRunDTO)
+                .orElseThrow(() -> new RuntimeException("Reconciliation run not found"));
+    }
+
+    /**
+     * Sai lệch của một lần chạy theo thứ tự phát hiện; cursor là id của dòng cuối trang trước.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ReconciliationDiscrepancyDTO> getDiscrepancies(Long runId, Long afterId, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<ReconciliationDiscrepancy> rows = discrepancyRepository.findByRunIdAndIdGreaterThanOrderByIdAsc(
+                runId, afterId != null ? afterId : 0L, PageRequest.of(0, limit + 1));
+        boolean hasNext = rows.size() > limit;
+        List<ReconciliationDiscrepancy> page = hasNext ? rows.subList(0, limit) : rows;
+        return CursorPage.<ReconciliationDiscrepancyDTO>builder()
+                .content(page.stream().map(this::mapToDiscrepancyDTO).collect(Collectors.toList()))
+                .nextCursor(hasNext ? String.valueOf(page.get(page.size() - 1).getId()) : null)
+                .hasNext(hasNext)
+                .size(limit)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private ReconciliationRun claimOrCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        ReconciliationRun latest = runRepository.findFirstByOrderByIdDesc().orElse(null);
+        if (latest != null && latest.getStatus() != ReconciliationRunStatus.COMPLETED) {
+            if (runRepository.claim(latest.getId(), now, now.minusSeconds(config.getStaleAfterSeconds())) == 0) {
+                throw new RuntimeException("Reconciliation is already running on another node");
+            }
+            log.info("Resuming reconciliation run {} after order {}", latest.getId(), latest.getLastOrderId());
+            return runRepository.findById(latest.getId()).orElseThrow();
+        }
+        try {
+            // Index unique trên status = RUNNING chặn 2 node cùng tạo lần chạy mới
+            return runRepository.saveAndFlush(new ReconciliationRun());
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Reconciliation is already running on another node");
+        }
+    }
+
+    private void execute(Long runId) {
+        long started = System.nanoTime();
+        try {
+            ReconciliationRun run = runRepository.findById(runId).orElseThrow();
+            merge(runId, run.getLastOrderId());
+            runRepository.complete(runId, LocalDateTime.now());
+            ReconciliationRun completed = runRepository.findById(runId).orElseThrow();
+            log.info("Reconciliation run {} completed in {} s: {} orders, {} payments, {} discrepancies",
+                    runId, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started),
+                    completed.getOrdersChecked(), completed.getPaymentsChecked(), completed.getDiscrepancies());
+        } catch (RuntimeException e) {
+            log.error("Reconciliation run {} failed, will resume from its checkpoint", runId, e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            runRepository.fail(runId, message.length() > 500 ? message.substring(0, 500) : message, LocalDateTime.now());
+        }
+    }
+
+    private void merge(Long runId, long checkpoint) {
+        int chunkSize = Math.max(1, config.getChunkSize());
+        ChunkedCursor<OrderRow> orders = new ChunkedCursor<>(chunkSize, last -> readTransaction.execute(status ->
+                jdbcRepository.findOrdersAfter(last != null ? last.id() : checkpoint, chunkSize)));
+        ChunkedCursor<PaymentRow> payments = new ChunkedCursor<>(chunkSize, last -> readTransaction.execute(status ->
+                last != null
+                        ? jdbcRepository.findPaymentsAfter(last.orderId(), last.id(), chunkSize)
+                        : jdbcRepository.findPaymentsAfter(checkpoint, Long.MAX_VALUE, chunkSize)));
+
+        Chunk chunk = new Chunk(checkpoint);
+        List<PaymentRow> orderPayments = new ArrayList<>();
+        while (true) {
+            OrderRow order = orders.peek();
+            PaymentRow payment = payments.peek();
+            if (order == null && payment == null) {
+                break;
+            }
+            boolean orderIdDone;
+
+            // Payment không có đơn tương ứng (đơn không tồn tại hoặc đã bị xóa)
+            if (order == null || (payment != null && payment.orderId() < order.id())) {
+                payments.next();
+                chunk.payments++;
+                if (payment.status() == PaymentStatus.PAID) {
+                    chunk.discrepancies.add(new DiscrepancyRow(DiscrepancyType.ORPHAN_PAYMENT, payment.orderId(), null,
+                            payment.id(), null, payment.amount(), "Paid payment has no active order"));
+                }
+                PaymentRow next = payments.peek();
+                // Đã xử lý hết payment của order_id này
+                orderIdDone = next == null || next.orderId() != payment.orderId();
+                if (orderIdDone) {
+                    chunk.lastOrderId = payment.orderId();
+                }
+            } else {
+                orders.next();
+                orderPayments.clear();
+                while (payments.peek() != null && payments.peek().orderId() == order.id()) {
+                    orderPayments.add(payments.next());
+                }
+                check(order, orderPayments, chunk.discrepancies);
+                chunk.orders++;
+                chunk.payments += orderPayments.size();
+                chunk.lastOrderId = order.id();
+                orderIdDone = true;
+            }
+
+            // Giữa một loạt payment mồ côi cùng order_id thì chưa flush: checkpoint chưa thể tiến tới order_id đó,
+            // chạy lại sẽ đọc lại các payment đã ghi sai lệch
+            if (orderIdDone && chunk.orders + chunk.payments >= chunkSize) {
+                chunk = flush(runId, chunk);
+            }
+        }
+        flush(runId, chunk);
+    }
+
+    private void check(OrderRow order, List<PaymentRow> payments, List<DiscrepancyRow> discrepancies) {
+        boolean paid = false;
+        for (PaymentRow payment : payments) {
+            if (payment.status() != PaymentStatus.PAID) {
+                continue;
+            }
+            paid = true;
+            if (order.status() == OrderStatus.CANCELLED) {
+                discrepancies.add(new DiscrepancyRow(DiscrepancyType.CANCELLED_PAID, order.id(), order.orderCode(),
+                        payment.id(), null, payment.amount(), "Cancelled order has a paid payment to refund"));
+            } else if (payment.amount().compareTo(order.total()) != 0) {
+                discrepancies.add(new DiscrepancyRow(DiscrepancyType.AMOUNT_MISMATCH, order.id(), order.orderCode(),
+                        payment.id(), order.total(), payment.amount(), "Paid amount differs from order total"));
+            }
+        }
+
+        if (order.status() != OrderStatus.CONFIRMED) {
+            return;
+        }
+        if (payments.isEmpty()) {
+            discrepancies.add(new DiscrepancyRow(DiscrepancyType.ORDER_WITHOUT_PAYMENT, order.id(), order.orderCode(),
+                    null, order.total(), null, "Confirmed order has no payment"));
+        } else if (!paid && payments.get(payments.size() - 1).method() != PaymentMethod.COD) {
+            // COD được xác nhận trước khi thu tiền, chuyển khoản thì phải đã PAID
+            PaymentRow latest = payments.get(payments.size() - 1);
+            discrepancies.add(new DiscrepancyRow(DiscrepancyType.CONFIRMED_UNPAID, order.id(), order.orderCode(),
+                    latest.id(), order.total(), null, "Confirmed bank transfer order has no paid payment"));
+        }
+    }
+
+    private Chunk flush(Long runId, Chunk chunk) {
+        if (chunk.orders == 0 && chunk.payments == 0) {
+            return chunk;
+        }
+        writeTransaction.executeWithoutResult(status -> {
+            jdbcRepository.insertDiscrepancies(runId, chunk.discrepancies);
+            runRepository.checkpoint(runId, chunk.lastOrderId, chunk.orders, chunk.payments,
+                    chunk.discrepancies.size(), LocalDateTime.now());
+        });
+        return new Chunk(chunk.lastOrderId);
+    }
+
+    private ReconciliationRunDTO mapToRunDTO(ReconciliationRun run) {
+        return ReconciliationRunDTO.builder()
+                .id(run.getId())
+                .status(run.getStatus())
+                .lastOrderId(run.getLastOrderId())
+                .ordersChecked(run.getOrdersChecked())
+                .paymentsChecked(run.getPaymentsChecked())
+                .discrepancies(run.getDiscrepancies())
+                .lastError(run.getLastError())
+                .startedAt(run.getCreatedAt())
+                .updatedAt(run.getUpdatedAt())
+                .completedAt(run.getCompletedAt())
+                .build();
+    }
+
+    private ReconciliationDiscrepancyDTO mapToDiscrepancyDTO(ReconciliationDiscrepancy discrepancy) {
+        return ReconciliationDiscrepancyDTO.builder()
+                .id(discrepancy.getId())
+                .type(discrepancy.getType())
+                .orderId(discrepancy.getOrderId())
+                .orderCode(discrepancy.getOrderCode())
+                .paymentId(discrepancy.getPaymentId())
+                .expectedAmount(discrepancy.getExpectedAmount())
+                .actualAmount(discrepancy.getActualAmount())
+                .details(discrepancy.getDetails())
+                .createdAt(discrepancy.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Kết quả chưa ghi của đoạn hiện tại.
+     */
+    private static final class Chunk {
+        private long lastOrderId;
+        private long orders;
+        private long payments;
+        private final List<DiscrepancyRow> discrepancies = new ArrayList<>();
+
+        private Chunk(long lastOrderId) {
+            this.lastOrderId = lastOrderId;
+        }
+    }
+
+    /**
+     * Duyệt tuần tự một bảng theo keyset, mỗi lần chỉ giữ một đoạn trong bộ nhớ.
+     * fetch nhận dòng cuối của đoạn trước (null ở lần đầu).
+     */
+    private static final class ChunkedCursor<T> {
+        private final int chunkSize;
+        private final Function<T, List<T>> fetch;
+        private List<T> buffer = List.of();
+        private int position;
+        private T last;
+        private boolean exhausted;
+
+        private ChunkedCursor(int chunkSize, Function<T, List<T>> fetch) {
+            this.chunkSize = chunkSize;
+            this.fetch = fetch;
+        }
+
+        private T peek() {
+            if (position == buffer.size()) {
+                if (exhausted) {
+                    return null;
+                }
+                buffer = fetch.apply(last);
+                position = 0;
+                exhausted = buffer.size() < chunkSize;
+                if (buffer.isEmpty()) {
+                    return null;
+                }
+            }
+            return buffer.get(position);
+        }
+
+        private T next() {
+            T item = peek();
+            position++;
+            last = item;
+            return item;
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.fashon.application.service;
 
+import com.fashon.application.dto.CursorPage;
 import com.fashon.application.dto.ProductReviewStats;
 import com.fashon.application.dto.ReviewDTO;
 import com.fashon.application.dto.ReviewRequest;
 import com.fashon.domain.entity.*;
-import com.fashon.domain.enums.OrderStatus;
 import com.fashon.infrastructure.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,62 +25,64 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
+    private final UserProductPurchaseRepository purchaseRepository;
+    private final ProductRatingSummaryRepository ratingSummaryRepository;
 
     /**
-     * Lấy danh sách review và stats của sản phẩm
+     * Lấy trang review đầu tiên và stats của sản phẩm
      * 
      * @param productId ID của sản phẩm
      * @param currentUserId ID của user hiện tại (null nếu chưa đăng nhập)
-     * @return ProductReviewStats chứa danh sách review, rating trung bình, v.v.
+     * @param size số review của trang đầu
+     * @return ProductReviewStats chứa trang review đầu, rating trung bình, histogram, v.v.
      */
-    public ProductReviewStats getProductReviews(Long productId, Long currentUserId) {
-        // Check product tồn tại
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        if (!product.getIsVisible()) {
-            throw new RuntimeException("Product is not available");
-        }
+    public ProductReviewStats getProductReviews(Long productId, Long currentUserId, int size) {
+        checkProductVisible(productId);
 
-        List<Review> reviews = reviewRepository.findByProductIdOrderByCreatedAtDesc(productId);
-        Double averageRating = reviewRepository.calculateAverageRating(productId);
-        Long totalReviews = reviewRepository.countByProductId(productId);
+        CursorPage<ReviewDTO> firstPage = findFeedPage(productId, null, size, currentUserId);
+        // Đọc từ bảng tổng hợp, không AVG/COUNT trên product_reviews
+        ProductRatingSummary summary = ratingSummaryRepository.findByProductId(productId)
+                .orElseGet(ProductRatingSummary::new);
 
-        // Check xem user hiện tại đã review chưa (chỉ khi đã đăng nhập)
-        boolean hasUserReviewed = false;
+        // Review của user hiện tại (chỉ khi đã đăng nhập)
         ReviewDTO userReview = null;
         boolean canReview = false;
         
         if (currentUserId != null) {
-            // User đã đăng nhập -> check xem đã review chưa
-            hasUserReviewed = reviewRepository.existsByUserIdAndProductId(currentUserId, productId);
-            if (hasUserReviewed) {
-                Review review = reviewRepository.findByUserIdAndProductId(currentUserId, productId).orElse(null);
-                if (review != null) {
-                    userReview = mapToDTO(review, currentUserId);
-                }
-            }
+            userReview = reviewRepository.findByUserIdAndProductIdWithUser(currentUserId, productId)
+                    .map(review -> mapToDTO(review, currentUserId))
+                    .orElse(null);
             // Check xem user có thể review không (đã mua hàng chưa)
             canReview = checkUserHasPurchasedProduct(currentUserId, productId);
         }
 
         return ProductReviewStats.builder()
-                .reviews(reviews.stream().map(r -> mapToDTO(r, currentUserId)).collect(Collectors.toList()))
-                .averageRating(averageRating != null ? averageRating : 0.0)
-                .totalReviews(totalReviews != null ? totalReviews : 0L)
-                .hasUserReviewed(hasUserReviewed)
+                .reviews(firstPage.getContent())
+                .nextCursor(firstPage.getNextCursor())
+                .hasNext(firstPage.isHasNext())
+                .averageRating(summary.getAverageRating())
+                .totalReviews(summary.getRatingCount())
+                .ratingHistogram(summary.getHistogram())
+                .hasUserReviewed(userReview != null)
                 .userReview(userReview)
                 .canReview(canReview)
                 .build();
     }
 
+    /**
+     * Các trang review tiếp theo theo cursor (created_at DESC, id DESC)
+     */
+    public CursorPage<ReviewDTO> getReviewFeed(Long productId, KeysetCursor after, int size, Long currentUserId) {
+        checkProductVisible(productId);
+        return findFeedPage(productId, after, size, currentUserId);
+    }
+
     /**
      * Lấy reviews cho public API (không cần authentication)
      * Tương đương với getProductReviews(productId, null)
      */
-    public ProductReviewStats getPublicProductReviews(Long productId) {
-        return getProductReviews(productId, null);
+    public ProductReviewStats getPublicProductReviews(Long productId, int size) {
+        return getProductReviews(productId, null, size);
     }
 
     // Tạo review mới
@@ -95,21 +100,21 @@ public class ReviewService {
             throw new RuntimeException("Product is not available");
         }
 
-        // Check user đã mua sản phẩm này chưa (order status COMPLETED hoặc DELIVERED)
+        // Check user đã nhận sản phẩm này chưa (order status COMPLETED hoặc DELIVERED)
         boolean hasPurchased = checkUserHasPurchasedProduct(userId, request.getProductId());
         if (!hasPurchased) {
             throw new IllegalStateException("Bạn cần mua sản phẩm này trước khi đánh giá");
         }
 
         // Check đã review chưa - nếu có thì cập nhật
-        Review review;
-        if (reviewRepository.existsByUserIdAndProductId(userId, request.getProductId())) {
-            review = reviewRepository.findByUserIdAndProductId(userId, request.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Review not found"));
+        Review review = reviewRepository.findByUserIdAndProductId(userId, request.getProductId()).orElse(null);
+        if (review != null) {
+            updateRatingSummary(product.getId(), review.getRating(), request.getRating());
             review.setRating(request.getRating());
             review.setContent(request.getContent());
         } else {
             review = new Review(product, user, request.getRating(), request.getContent());
+            updateRatingSummary(product.getId(), null, request.getRating());
         }
 
         Review savedReview = reviewRepository.save(review);
@@ -132,6 +137,61 @@ public class ReviewService {
 
         review.softDelete();
         reviewRepository.save(review);
+        updateRatingSummary(review.getProduct().getId(), review.getRating(), null);
+    }
+
+    private void checkProductVisible(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+
+        if (!product.getIsVisible()) {
+            throw new RuntimeException("Product is not available");
+        }
+    }
+
+    private CursorPage<ReviewDTO> findFeedPage(Long productId, KeysetCursor after, int size, Long currentUserId) {
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Review> rows = after == null
+                ? reviewRepository.findFeedByProductId(productId, limit)
+                : reviewRepository.findFeedByProductIdAfter(productId, after.createdAt(), after.id(), limit);
+
+        boolean hasNext = rows.size() > size;
+        List<Review> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Review last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPage.<ReviewDTO>builder()
+                .content(page.stream().map(r -> mapToDTO(r, currentUserId)).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(size)
+                .build();
+    }
+
+    // Cộng dồn thay đổi rating vào bảng tổng hợp: oldRating = null khi tạo mới, newRating = null khi xóa
+    private void updateRatingSummary(Long productId, Integer oldRating, Integer newRating) {
+        long[] stars = new long[6];
+        long countDelta = 0;
+        long sumDelta = 0;
+        if (oldRating != null) {
+            stars[oldRating]--;
+            countDelta--;
+            sumDelta -= oldRating;
+        }
+        if (newRating != null) {
+            stars[newRating]++;
+            countDelta++;
+            sumDelta += newRating;
+        }
+        if (countDelta == 0 && sumDelta == 0) {
+            return; // Sửa nội dung, rating giữ nguyên
+        }
+        ratingSummaryRepository.applyDelta(productId, countDelta, sumDelta,
+                stars[1], stars[2], stars[3], stars[4], stars[5], LocalDateTime.now());
     }
 
     // Check xem user đã mua sản phẩm chưa
@@ -140,23 +200,8 @@ public class ReviewService {
             return false;
         }
         
-        // Lấy tất cả orders của user có status COMPLETED hoặc DELIVERED
-        List<Order> orders = orderRepository.findAllByUserId(userId).stream()
-                .filter(o -> o.getStatus() == OrderStatus.COMPLETED || o.getStatus() == OrderStatus.DELIVERED)
-                .toList();
-
-        // Check trong các order items xem có product này không
-        for (Order order : orders) {
-            for (OrderItem item : order.getItems()) {
-                // So sánh product name snapshot với product name hiện tại
-                // Hoặc có thể lưu product_id trong order_items (nhưng hiện tại schema không có)
-                // Tạm thởi cho phép review nếu user đã có order COMPLETED/DELIVERED
-                // TODO: Cải thiện bằng cách thêm product_id vào order_items
-                return true;
-            }
-        }
-
-        return false;
+        // Đơn DELIVERED / COMPLETED đã được ghi vào user_product_purchases theo từng sản phẩm
+        return purchaseRepository.existsByUserIdAndProductId(userId, productId);
     }
 
     // Map Review to DTO
@@ -4,6 +4,8 @@ import com.fashon.application.dto.UpdateProfileRequest;
 import com.fashon.application.dto.UserResponse;
 import com.fashon.domain.entity.User;
 import com.fashon.infrastructure.repository.UserRepository;
+import com.fashon.infrastructure.security.TokenRevocationList;
+import com.fashon.infrastructure.security.UserIdentityCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,34 +15,39 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserIdentityCache identityCache;
+    private final TokenRevocationList revocationList;
 
-    public UserResponse getProfile(String email) {
-        User user = userRepository.findByEmail(email)
+    public UserResponse getProfile(Long userId) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         return mapToUserResponse(user);
     }
 
     @Transactional
-    public UserResponse updateProfile(String email, UpdateProfileRequest request) {
-        User user = userRepository.findByEmail(email)
+    public UserResponse updateProfile(Long userId, UpdateProfileRequest request) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.setFullName(request.getFullName());
         user.setPhone(request.getPhone());
 
         userRepository.save(user);
+        identityCache.evict(userId);
 
         return mapToUserResponse(user);
     }
 
     @Transactional
-    public void softDeleteAccount(String email) {
-        User user = userRepository.findByEmail(email)
+    public void softDeleteAccount(Long userId) {
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         user.softDelete();
         userRepository.save(user);
+        identityCache.evict(userId);
+        revocationList.revoke(userId, "ACCOUNT_DELETED");
     }
 
     private UserResponse mapToUserResponse(User user) {
@@ -1,18 +1,38 @@
 package com.fashon.application.service;
 
+import com.fashon.application.dto.CursorPage;
 import com.fashon.application.dto.ProductDTO;
 import com.fashon.application.dto.WishlistDTO;
+import com.fashon.application.dto.WishlistItemDTO;
 import com.fashon.domain.entity.Product;
+import com.fashon.domain.entity.ProductRatingSummary;
 import com.fashon.domain.entity.User;
 import com.fashon.domain.entity.Wishlist;
+import com.fashon.infrastructure.cache.WishlistMembershipCache;
+import com.fashon.infrastructure.repository.KeysetCursor;
+import com.fashon.infrastructure.repository.ProductImageRepository;
+import com.fashon.infrastructure.repository.ProductImageRepository.ProductImageRow;
+import com.fashon.infrastructure.repository.ProductRatingSummaryRepository;
 import com.fashon.infrastructure.repository.ProductRepository;
+import com.fashon.infrastructure.repository.ProductVariantRepository;
+import com.fashon.infrastructure.repository.ProductVariantRepository.VariantSummaryRow;
 import com.fashon.infrastructure.repository.UserRepository;
 import com.fashon.infrastructure.repository.WishlistRepository;
+import com.fashon.infrastructure.repository.WishlistRepository.WishlistCardRow;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,8 +44,61 @@ public class WishlistService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final ProductService productService;
+    private final ProductVariantRepository productVariantRepository;
+    private final ProductImageRepository productImageRepository;
+    private final ProductRatingSummaryRepository ratingSummaryRepository;
+    private final WishlistMembershipCache membershipCache;
 
-    // Lấy danh sách sản phẩm yêu thích của user
+    /**
+     * Wishlist dạng card theo cursor (created_at DESC, id DESC).
+     * Luôn 4 query bất kể số sản phẩm: trang wishlist, khoảng giá / tồn kho, ảnh đại diện, rating.
+     */
+    public CursorPage<WishlistItemDTO> getWishlistItems(Long userId, KeysetCursor after, int size) {
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<WishlistCardRow> rows = after == null
+                ? wishlistRepository.findCards(userId, limit)
+                : wishlistRepository.findCardsAfter(userId, after.createdAt(), after.id(), limit);
+
+        boolean hasNext = rows.size() > size;
+        List<WishlistCardRow> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            WishlistCardRow last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getAddedAt(), last.getWishlistId()).encode();
+        }
+
+        List<WishlistItemDTO> items = List.of();
+        if (!page.isEmpty()) {
+            List<Long> productIds = page.stream().map(WishlistCardRow::getProductId).toList();
+            Map<Long, VariantSummaryRow> variants = productVariantRepository.summarizeByProductIds(productIds).stream()
+                    .collect(Collectors.toMap(VariantSummaryRow::getProductId, Function.identity()));
+            Map<Long, ProductImageRow> images = new HashMap<>();
+            productImageRepository.findImageRowsByProductIds(productIds)
+                    .forEach(image -> images.putIfAbsent(image.getProductId(), image));
+            Map<Long, ProductRatingSummary> ratings = ratingSummaryRepository.findByProductIdIn(productIds).stream()
+                    .collect(Collectors.toMap(ProductRatingSummary::getProductId, Function.identity()));
+
+            items = page.stream()
+                    .map(row -> mapToItemDTO(row, variants.get(row.getProductId()),
+                            images.get(row.getProductId()), ratings.get(row.getProductId())))
+                    .collect(Collectors.toList());
+        }
+
+        return CursorPage.<WishlistItemDTO>builder()
+                .content(items)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(size)
+                .build();
+    }
+
+    /**
+     * Lấy danh sách sản phẩm yêu thích của user.
+     *
+     * @deprecated mỗi sản phẩm map đầy đủ kèm 1 query rating, dùng {@link #getWishlistItems}
+     */
+    @Deprecated
     public List<ProductDTO> getUserWishlist(Long userId) {
         List<Wishlist> wishlists = wishlistRepository.findByUserIdWithProduct(userId);
         
@@ -60,6 +133,7 @@ public class WishlistService {
         // Tạo mới wishlist
         Wishlist wishlist = new Wishlist(user, product);
         Wishlist saved = wishlistRepository.save(wishlist);
+        membershipCache.added(userId, productId);
 
         return mapToDTO(saved);
     }
@@ -72,16 +146,59 @@ public class WishlistService {
         }
         
         wishlistRepository.deleteByUserIdAndProductId(userId, productId);
+        membershipCache.removed(userId, productId);
     }
 
+    // Các hàm đọc từ WishlistMembershipCache không mở transaction: cache hit thì không cần lấy connection
     // Check xem sản phẩm đã có trong wishlist chưa
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean isInWishlist(Long userId, Long productId) {
-        return wishlistRepository.existsByUserIdAndProductId(userId, productId);
+        return membershipCache.contains(userId, productId);
+    }
+
+    // Các sản phẩm (trong productIds) đã có trong wishlist, 1 lần tra cache cho cả danh sách
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Long> filterInWishlist(Long userId, Collection<Long> productIds) {
+        return Arrays.stream(membershipCache.filter(userId, productIds)).boxed().toList();
+    }
+
+    // Đánh dấu inWishlist cho một trang sản phẩm, bỏ qua khi chưa đăng nhập
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void annotate(Long userId, Collection<ProductDTO> products) {
+        if (userId == null || products.isEmpty()) {
+            return;
+        }
+        Set<Long> wishlisted = Arrays.stream(membershipCache.filter(userId,
+                products.stream().map(ProductDTO::getId).toList())).boxed().collect(Collectors.toSet());
+        for (ProductDTO product : products) {
+            product.setInWishlist(wishlisted.contains(product.getId()));
+        }
     }
 
     // Lấy số lượng wishlist của user
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long getWishlistCount(Long userId) {
-        return wishlistRepository.countByUserId(userId);
+        return membershipCache.count(userId);
+    }
+
+    private WishlistItemDTO mapToItemDTO(WishlistCardRow row, VariantSummaryRow variants,
+                                         ProductImageRow image, ProductRatingSummary rating) {
+        BigDecimal basePrice = row.getBasePrice();
+        return WishlistItemDTO.builder()
+                .id(row.getWishlistId())
+                .productId(row.getProductId())
+                .name(row.getName())
+                .slug(row.getSlug())
+                .imageUrl(image != null ? image.getImageUrl() : null)
+                .cardUrl(image != null ? image.getCardUrl() : null)
+                .minPrice(variants != null ? basePrice.add(variants.getMinAdjustment()) : basePrice)
+                .maxPrice(variants != null ? basePrice.add(variants.getMaxAdjustment()) : basePrice)
+                .inStock(variants != null && variants.getAvailableVariants() > 0)
+                .available(Boolean.TRUE.equals(row.getVisible()))
+                .averageRating(rating != null ? rating.getAverageRating() : 0.0)
+                .reviewCount(rating != null ? rating.getRatingCount() : 0L)
+                .addedAt(row.getAddedAt())
+                .build();
     }
 
     // Map Wishlist to DTO
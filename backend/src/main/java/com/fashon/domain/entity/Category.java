@@ -5,6 +5,9 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Where;
 
 import java.util.ArrayList;
@@ -16,6 +19,8 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Where(clause = "deleted_at IS NULL")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.category")
+@BatchSize(size = 50) // Proxy category của một trang sản phẩm nạp chung 1 query
 public class Category extends BaseEntity {
 
     @Column(name = "name", nullable = false, columnDefinition = "NVARCHAR(100)")
@@ -32,6 +37,7 @@ public class Category extends BaseEntity {
     private Category parent;
 
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.category.children")
     private List<Category> children = new ArrayList<>();
 
     @Column(name = "sort_order")
@@ -33,6 +33,13 @@ public class OrderItem extends BaseEntity {
     @Column(name = "unit_price", nullable = false, precision = 19, scale = 4)
     private BigDecimal unitPrice;
 
+    // Sản phẩm / variant tại thời điểm đặt hàng (null với đơn tạo trước khi có cột này)
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "variant_id")
+    private Long variantId;
+
     public OrderItem(Order order, String productNameSnapshot, String variantInfoSnapshot, 
                      Integer quantity, BigDecimal unitPrice) {
         this.order = order;
@@ -42,6 +49,13 @@ public class OrderItem extends BaseEntity {
         this.unitPrice = unitPrice;
     }
 
+    public OrderItem(Order order, ProductVariant variant, String productNameSnapshot, String variantInfoSnapshot,
+                     Integer quantity, BigDecimal unitPrice) {
+        this(order, productNameSnapshot, variantInfoSnapshot, quantity, unitPrice);
+        this.productId = variant.getProduct().getId();
+        this.variantId = variant.getId();
+    }
+
     public BigDecimal getSubtotal() {
         return unitPrice.multiply(BigDecimal.valueOf(quantity));
     }
@@ -0,0 +1,67 @@
+package com.fashon.domain.entity;
+
+import com.fashon.domain.BaseEntity;
+import com.fashon.domain.enums.PaymentNotificationStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Where;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Một thông báo chuyển khoản từ ngân hàng và kết quả xử lý của nó.
+ * Dòng được ghi hàng loạt bằng JDBC khi nhận batch (xem PaymentNotificationRepositoryImpl).
+ */
+@Entity
+@Table(name = "payment_notifications")
+@Getter
+@Setter
+@NoArgsConstructor
+@Where(clause = "deleted_at IS NULL")
+public class PaymentNotification extends BaseEntity {
+
+    @Column(name = "batch_id", nullable = false)
+    private Long batchId;
+
+    @Column(name = "order_code", nullable = false, columnDefinition = "NVARCHAR(50)")
+    private String orderCode;
+
+    @Column(name = "transaction_code", nullable = false, columnDefinition = "NVARCHAR(100)")
+    private String transactionCode;
+
+    @Column(name = "amount", precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(name = "notes", columnDefinition = "NVARCHAR(500)")
+    private String notes;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "NVARCHAR(30)")
+    private PaymentNotificationStatus status = PaymentNotificationStatus.RECEIVED;
+
+    @Column(name = "message", columnDefinition = "NVARCHAR(255)")
+    private String message;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public PaymentNotification(String orderCode, String transactionCode, BigDecimal amount, String notes) {
+        this.orderCode = orderCode;
+        this.transactionCode = transactionCode;
+        this.amount = amount;
+        this.notes = notes;
+    }
+
+    public void resolve(PaymentNotificationStatus status, String message, Long paymentId) {
+        this.status = status;
+        this.message = message;
+        this.paymentId = paymentId;
+        this.processedAt = LocalDateTime.now();
+    }
+}
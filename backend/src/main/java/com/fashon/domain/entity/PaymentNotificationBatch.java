@@ -0,0 +1,51 @@
+package com.fashon.domain.entity;
+
+import com.fashon.domain.BaseEntity;
+import com.fashon.domain.enums.NotificationBatchStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Where;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payment_notification_batches")
+@Getter
+@Setter
+@NoArgsConstructor
+@Where(clause = "deleted_at IS NULL")
+public class PaymentNotificationBatch extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "NVARCHAR(30)")
+    private NotificationBatchStatus status = NotificationBatchStatus.RECEIVED;
+
+    @Column(name = "total_items", nullable = false)
+    private Integer totalItems;
+
+    @Column(name = "applied_items", nullable = false)
+    private Integer appliedItems = 0;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", columnDefinition = "NVARCHAR(500)")
+    private String lastError;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public PaymentNotificationBatch(int totalItems) {
+        this.totalItems = totalItems;
+        this.status = NotificationBatchStatus.RECEIVED;
+    }
+
+    public void complete(int appliedItems) {
+        this.status = NotificationBatchStatus.COMPLETED;
+        this.appliedItems = appliedItems;
+        this.lastError = null;
+        this.completedAt = LocalDateTime.now();
+    }
+}
@@ -5,6 +5,9 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Where;
 
 import java.math.BigDecimal;
@@ -18,6 +21,7 @@ import java.util.Set;
 @Setter
 @NoArgsConstructor
 @Where(clause = "deleted_at IS NULL")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product")
 public class Product extends BaseEntity {
 
     @Column(name = "name", nullable = false, columnDefinition = "NVARCHAR(200)")
@@ -44,9 +48,13 @@ public class Product extends BaseEntity {
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("sortOrder ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product.images")
+    @BatchSize(size = 50) // Trang danh sách: ảnh của cả trang nạp trong 1 query thay vì mỗi sản phẩm 1 query
     private Set<ProductImage> images = new LinkedHashSet<>();
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product.variants")
+    @BatchSize(size = 50)
     private Set<ProductVariant> variants = new HashSet<>();
 
     public Product(String name, String slug, String description, BigDecimal basePrice, Category category) {
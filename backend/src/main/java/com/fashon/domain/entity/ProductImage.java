@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Where;
 
 @Entity
@@ -13,6 +15,7 @@ import org.hibernate.annotations.Where;
 @Setter
 @NoArgsConstructor
 @Where(clause = "deleted_at IS NULL")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product-image")
 public class ProductImage extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +34,16 @@ public class ProductImage extends BaseEntity {
     @Column(name = "is_primary", nullable = false)
     private Boolean isPrimary = false;
 
+    // Bản thu nhỏ sinh nền sau khi upload (ImageDerivativeService), null khi chưa xong hoặc ảnh ngoài /uploads
+    @Column(name = "thumbnail_url", columnDefinition = "NVARCHAR(500)")
+    private String thumbnailUrl;
+
+    @Column(name = "card_url", columnDefinition = "NVARCHAR(500)")
+    private String cardUrl;
+
+    @Column(name = "detail_url", columnDefinition = "NVARCHAR(500)")
+    private String detailUrl;
+
     public ProductImage(Product product, String imageUrl, String altText, Integer sortOrder) {
         this.product = product;
         this.imageUrl = imageUrl;
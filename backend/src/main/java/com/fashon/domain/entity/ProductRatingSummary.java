@@ -0,0 +1,63 @@
+package com.fashon.domain.entity;
+
+import com.fashon.domain.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Where;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tổng hợp rating của một sản phẩm, cập nhật cộng dồn mỗi khi review được tạo / sửa / xóa
+ * (ProductRatingSummaryRepository.applyDelta) nên đọc không cần quét product_reviews.
+ */
+@Entity
+@Table(name = "product_rating_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@Where(clause = "deleted_at IS NULL")
+public class ProductRatingSummary extends BaseEntity {
+
+    @Column(name = "product_id", nullable = false, unique = true)
+    private Long productId;
+
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount = 0L;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "star_1", nullable = false)
+    private Long star1 = 0L;
+
+    @Column(name = "star_2", nullable = false)
+    private Long star2 = 0L;
+
+    @Column(name = "star_3", nullable = false)
+    private Long star3 = 0L;
+
+    @Column(name = "star_4", nullable = false)
+    private Long star4 = 0L;
+
+    @Column(name = "star_5", nullable = false)
+    private Long star5 = 0L;
+
+    public double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    // Số review theo từng mức sao, key 1..5
+    public Map<Integer, Long> getHistogram() {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        histogram.put(1, star1);
+        histogram.put(2, star2);
+        histogram.put(3, star3);
+        histogram.put(4, star4);
+        histogram.put(5, star5);
+        return histogram;
+    }
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Where;
 
 import java.math.BigDecimal;
@@ -15,6 +17,7 @@ import java.math.BigDecimal;
 @Setter
 @NoArgsConstructor
 @Where(clause = "deleted_at IS NULL")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "catalog.product-variant")
 public class ProductVariant extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
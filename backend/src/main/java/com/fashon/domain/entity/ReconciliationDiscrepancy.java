@@ -0,0 +1,48 @@
+package com.fashon.domain.entity;
+
+import com.fashon.domain.BaseEntity;
+import com.fashon.domain.enums.DiscrepancyType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Where;
+
+import java.math.BigDecimal;
+
+/**
+ * Một sai lệch phát hiện khi đối soát. Dòng được ghi hàng loạt bằng JDBC (ReconciliationJdbcRepository).
+ */
+@Entity
+@Table(name = "reconciliation_discrepancies")
+@Getter
+@Setter
+@NoArgsConstructor
+@Where(clause = "deleted_at IS NULL")
+public class ReconciliationDiscrepancy extends BaseEntity {
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, columnDefinition = "NVARCHAR(30)")
+    private DiscrepancyType type;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "order_code", columnDefinition = "NVARCHAR(50)")
+    private String orderCode;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(name = "expected_amount", precision = 19, scale = 4)
+    private BigDecimal expectedAmount;
+
+    @Column(name = "actual_amount", precision = 19, scale = 4)
+    private BigDecimal actualAmount;
+
+    @Column(name = "details", columnDefinition = "NVARCHAR(255)")
+    private String details;
+}
@@ -0,0 +1,47 @@
+package com.fashon.domain.entity;
+
+import com.fashon.domain.BaseEntity;
+import com.fashon.domain.enums.ReconciliationRunStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Where;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một lần đối soát payment / order. last_order_id là checkpoint: mọi đơn và payment
+ * có order_id <= giá trị này đã được kiểm tra, lần chạy tiếp tục từ đây.
+ * updated_at đóng vai trò heartbeat.
+ */
+@Entity
+@Table(name = "reconciliation_runs")
+@Getter
+@Setter
+@NoArgsConstructor
+@Where(clause = "deleted_at IS NULL")
+public class ReconciliationRun extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "NVARCHAR(30)")
+    private ReconciliationRunStatus status = ReconciliationRunStatus.RUNNING;
+
+    @Column(name = "last_order_id", nullable = false)
+    private Long lastOrderId = 0L;
+
+    @Column(name = "orders_checked", nullable = false)
+    private Long ordersChecked = 0L;
+
+    @Column(name = "payments_checked", nullable = false)
+    private Long paymentsChecked = 0L;
+
+    @Column(name = "discrepancies", nullable = false)
+    private Long discrepancies = 0L;
+
+    @Column(name = "last_error", columnDefinition = "NVARCHAR(500)")
+    private String lastError;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
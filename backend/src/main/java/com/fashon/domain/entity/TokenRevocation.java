@@ -0,0 +1,35 @@
+package com.fashon.domain.entity;
+
+import com.fashon.domain.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Where;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "token_revocations")
+@Getter
+@Setter
+@NoArgsConstructor
+@Where(clause = "deleted_at IS NULL")
+public class TokenRevocation extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Mọi token của user có iat trước thời điểm này đều bị từ chối
+    @Column(name = "revoked_before", nullable = false)
+    private LocalDateTime revokedBefore;
+
+    @Column(name = "reason", nullable = false, columnDefinition = "NVARCHAR(50)")
+    private String reason;
+
+    public TokenRevocation(Long userId, LocalDateTime revokedBefore, String reason) {
+        this.userId = userId;
+        this.revokedBefore = revokedBefore;
+        this.reason = reason;
+    }
+}
@@ -6,11 +6,14 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Where;
 
 @Entity
 @Table(name = "users")
 @Where(clause = "deleted_at IS NULL")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,33 @@
+package com.fashon.domain.entity;
+
+import com.fashon.domain.BaseEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Where;
+
+/**
+ * User đã nhận được sản phẩm (đơn DELIVERED / COMPLETED), mỗi dòng là một variant trong một đơn.
+ * Chỉ dùng để tra cứu "đã mua" qua index (user_id, product_id), không thay thế order_items.
+ */
+@Entity
+@Table(name = "user_product_purchases")
+@Getter
+@Setter
+@NoArgsConstructor
+@Where(clause = "deleted_at IS NULL")
+public class UserProductPurchase extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+}
@@ -0,0 +1,9 @@
+package com.fashon.domain.enums;
+
+public enum DiscrepancyType {
+    AMOUNT_MISMATCH,        // Payment PAID khac tong tien don
+    ORDER_WITHOUT_PAYMENT,  // Don CONFIRMED khong co payment nao
+    CONFIRMED_UNPAID,       // Don chuyen khoan CONFIRMED nhung chua co payment PAID
+    ORPHAN_PAYMENT,         // Payment PAID cua don khong ton tai / da xoa
+    CANCELLED_PAID          // Payment PAID cua don da huy, can hoan tien
+}
@@ -0,0 +1,8 @@
+package com.fashon.domain.enums;
+
+public enum NotificationBatchStatus {
+    RECEIVED,    // Da luu, cho xu ly
+    PROCESSING,  // Dang xu ly
+    COMPLETED,   // Da xu ly xong
+    FAILED       // Loi qua so lan thu
+}
@@ -0,0 +1,12 @@
+package com.fashon.domain.enums;
+
+public enum PaymentNotificationStatus {
+    RECEIVED,         // Chua xu ly
+    APPLIED,          // Da xac nhan payment
+    DUPLICATE,        // Trung ma giao dich
+    ALREADY_PAID,     // Payment da duoc thanh toan truoc do
+    NOT_FOUND,        // Khong tim thay don / payment
+    AMOUNT_MISMATCH,  // Sai so tien
+    REJECTED,         // Payment khong the xac nhan (da hoan tien)
+    ORDER_CANCELLED   // Don da huy (het han / admin huy), can hoan tien thu cong
+}
@@ -0,0 +1,7 @@
+package com.fashon.domain.enums;
+
+public enum ReconciliationRunStatus {
+    RUNNING,    // Dang chay
+    COMPLETED,  // Da quet het
+    FAILED      // Loi, lan chay sau tiep tuc tu checkpoint
+}
@@ -0,0 +1,80 @@
+package com.fashon.infrastructure.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.metamodel.mapping.EntityValuedModelPart;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Quản lý Hibernate second-level cache (region cấu hình trong ehcache.xml):
+ * đăng ký listener xóa mềm, thống kê hit ratio theo region và evict từng region cho API admin.
+ */
+@Component
+public class SecondLevelCacheManager {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public SecondLevelCacheManager(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    @PostConstruct
+    void registerSoftDeleteEviction() {
+        Map<String, List<String>> rolesByElement = new HashMap<>();
+        sessionFactory.getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+            if (collection.hasCache()
+                    && collection.getAttributeMapping().getElementDescriptor() instanceof EntityValuedModelPart element) {
+                rolesByElement.computeIfAbsent(element.getEntityMappingType().getEntityName(), k -> new ArrayList<>())
+                        .add(collection.getRole());
+            }
+        });
+        sessionFactory.getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_COMMIT_UPDATE, new SoftDeleteCacheEvictionListener(rolesByElement));
+    }
+
+    public List<RegionStats> getRegionStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+                    long hits = stats.getHitCount();
+                    long misses = stats.getMissCount();
+                    long requests = hits + misses;
+                    return new RegionStats(region, hits, misses, stats.getPutCount(),
+                            requests > 0 ? (double) hits / requests : 0.0,
+                            stats.getElementCountInMemory());
+                })
+                .toList();
+    }
+
+    public boolean evictRegion(String region) {
+        if (!Arrays.asList(sessionFactory.getStatistics().getSecondLevelCacheRegionNames()).contains(region)) {
+            return false;
+        }
+        sessionFactory.getCache().evictRegion(region);
+        return true;
+    }
+
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    /**
+     * @param elementCount số entry trong bộ nhớ, -1 nếu provider không hỗ trợ
+     */
+    public record RegionStats(String region, long hits, long misses, long puts, double hitRatio, long elementCount) {
+    }
+}
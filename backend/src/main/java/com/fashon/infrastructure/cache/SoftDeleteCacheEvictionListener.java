@@ -0,0 +1,47 @@
+package com.fashon.infrastructure.cache;
+
+import com.fashon.domain.BaseEntity;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Where(deleted_at IS NULL) chỉ áp dụng khi Hibernate đọc từ DB, còn cache hit theo id thì không.
+ * Khi một entity được cache bị xóa mềm, bỏ entity đó và các collection region chứa loại entity đó
+ * khỏi second-level cache sau khi commit, để lần đọc sau đi DB và bị @Where lọc đúng như trước.
+ */
+class SoftDeleteCacheEvictionListener implements PostCommitUpdateEventListener {
+
+    // entity name -> các collection role (có cache) chứa phần tử kiểu entity đó
+    private final Map<String, List<String>> collectionRolesByElement;
+
+    SoftDeleteCacheEvictionListener(Map<String, List<String>> collectionRolesByElement) {
+        this.collectionRolesByElement = collectionRolesByElement;
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof BaseEntity entity) || !entity.isDeleted()) {
+            return;
+        }
+        org.hibernate.Cache cache = event.getSession().getFactory().getCache();
+        String entityName = event.getPersister().getEntityName();
+        cache.evictEntityData(entityName, event.getId());
+        for (String role : collectionRolesByElement.getOrDefault(entityName, List.of())) {
+            cache.evictCollectionData(role);
+        }
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Transaction rollback: cache không bị đổi, không cần làm gì
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+}
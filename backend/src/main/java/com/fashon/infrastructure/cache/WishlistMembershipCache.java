@@ -0,0 +1,156 @@
+package com.fashon.infrastructure.cache;
+
+import com.fashon.infrastructure.config.WishlistConfig;
+import com.fashon.infrastructure.repository.WishlistRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tập product id trong wishlist của từng user: user id -> long[] đã sắp xếp (tra bằng binary search).
+ *
+ * - Miss thì nạp toàn bộ product id của user bằng 1 query; một trang sản phẩm chỉ tốn 1 lần tra cache.
+ * - add/remove cập nhật entry sau khi transaction commit (copy-on-write, mảng không bị sửa tại chỗ).
+ * - Lần nạp trùng lúc với một thay đổi thì không được cache, tránh ghi đè state mới bằng state cũ.
+ * - Node khác thấy thay đổi sau tối đa app.wishlist.cache-ttl-seconds.
+ */
+@Component
+public class WishlistMembershipCache {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final WishlistRepository wishlistRepository;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final Map<Long, Entry> byUser = new ConcurrentHashMap<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    public WishlistMembershipCache(WishlistRepository wishlistRepository, WishlistConfig config) {
+        this.wishlistRepository = wishlistRepository;
+        this.maxEntries = config.getCacheMaxEntries();
+        this.ttlNanos = config.getCacheTtlSeconds() * 1_000_000_000L;
+    }
+
+    public boolean contains(Long userId, Long productId) {
+        return Arrays.binarySearch(productIds(userId), productId) >= 0;
+    }
+
+    /**
+     * @return các id trong productIds có trong wishlist của user, giữ nguyên thứ tự
+     */
+    public long[] filter(Long userId, Collection<Long> productIds) {
+        long[] wishlisted = productIds(userId);
+        return productIds.stream()
+                .filter(id -> id != null && Arrays.binarySearch(wishlisted, id) >= 0)
+                .distinct()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    public int count(Long userId) {
+        return productIds(userId).length;
+    }
+
+    public void added(Long userId, Long productId) {
+        record(userId, productId, true);
+    }
+
+    public void removed(Long userId, Long productId) {
+        record(userId, productId, false);
+    }
+
+    public void clear() {
+        byUser.clear();
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    private long[] productIds(Long userId) {
+        Entry entry = byUser.get(userId);
+        if (entry != null && !entry.isExpired(System.nanoTime())) {
+            return entry.productIds;
+        }
+        long version = writes.get();
+        long[] productIds = wishlistRepository.findProductIdsByUserId(userId).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        if (maxEntries > 0 && writes.get() == version) {
+            if (byUser.size() >= maxEntries) {
+                evictOverflow();
+            }
+            byUser.put(userId, new Entry(productIds, System.nanoTime() + ttlNanos));
+        }
+        return productIds;
+    }
+
+    private void record(Long userId, Long productId, boolean add) {
+        writes.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    writes.incrementAndGet();
+                    if (status == STATUS_COMMITTED) {
+                        apply(userId, productId, add);
+                    }
+                }
+            });
+        } else {
+            apply(userId, productId, add);
+        }
+    }
+
+    // Chỉ sửa entry đang có; chưa cache thì lần đọc sau tự nạp từ DB
+    private void apply(Long userId, Long productId, boolean add) {
+        byUser.computeIfPresent(userId, (id, entry) -> {
+            long[] current = entry.productIds;
+            int index = Arrays.binarySearch(current, productId);
+            if (add == index >= 0) {
+                return entry;
+            }
+            long[] updated;
+            if (add) {
+                int insertAt = -index - 1;
+                updated = new long[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, insertAt);
+                updated[insertAt] = productId;
+                System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+            } else {
+                updated = current.length == 1 ? EMPTY : new long[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            }
+            return new Entry(updated, entry.expiresAtNanos);
+        });
+    }
+
+    // Bỏ các entry hết hạn trước, nếu vẫn đầy thì bỏ bớt khoảng 10%
+    private void evictOverflow() {
+        long now = System.nanoTime();
+        byUser.values().removeIf(entry -> entry.isExpired(now));
+
+        int toRemove = byUser.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Long> iterator = byUser.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Entry(long[] productIds, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fashon.infrastructure.cart;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class CartLine {
+
+    private Long itemId;
+    private final Long variantId;
+    private int quantity;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public CartLine(Long itemId, Long variantId, int quantity, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.itemId = itemId;
+        this.variantId = variantId;
+        this.quantity = quantity;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Dòng chưa flush xuống DB chưa có id, dùng -variantId làm id tạm
+    public Long getLineId() {
+        return itemId != null ? itemId : -variantId;
+    }
+
+    public boolean matches(Long lineId) {
+        return lineId != null && (lineId.equals(itemId) || lineId.equals(-variantId));
+    }
+
+    CartLine copy() {
+        return new CartLine(itemId, variantId, quantity, createdAt, updatedAt);
+    }
+}
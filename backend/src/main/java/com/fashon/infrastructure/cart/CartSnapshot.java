@@ -0,0 +1,113 @@
+package com.fashon.infrastructure.cart;
+
+import com.fashon.domain.entity.Cart;
+import com.fashon.domain.entity.CartItem;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Trạng thái giỏ hàng của một user, tách khỏi entity JPA để có thể giữ trong bộ nhớ.
+ * Mỗi variant chỉ có một dòng.
+ */
+@Getter
+@Setter
+public class CartSnapshot {
+
+    private final Long userId;
+    private Long cartId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private final Map<Long, CartLine> lines = new LinkedHashMap<>();
+
+    public CartSnapshot(Long userId) {
+        this.userId = userId;
+    }
+
+    public static CartSnapshot empty(Long userId) {
+        CartSnapshot snapshot = new CartSnapshot(userId);
+        snapshot.createdAt = LocalDateTime.now();
+        snapshot.updatedAt = snapshot.createdAt;
+        return snapshot;
+    }
+
+    public static CartSnapshot fromEntity(Cart cart, Long userId) {
+        CartSnapshot snapshot = new CartSnapshot(userId);
+        snapshot.cartId = cart.getId();
+        snapshot.createdAt = cart.getCreatedAt();
+        snapshot.updatedAt = cart.getUpdatedAt();
+        for (CartItem item : cart.getItems()) {
+            Long variantId = item.getVariant().getId();
+            snapshot.lines.put(variantId, new CartLine(item.getId(), variantId, item.getQuantity(),
+                    item.getCreatedAt(), item.getUpdatedAt()));
+        }
+        return snapshot;
+    }
+
+    public List<CartLine> getLineList() {
+        return new ArrayList<>(lines.values());
+    }
+
+    public Optional<CartLine> findLine(Long lineId) {
+        return lines.values().stream()
+                .filter(line -> line.matches(lineId))
+                .findFirst();
+    }
+
+    public Optional<CartLine> findByVariantId(Long variantId) {
+        return Optional.ofNullable(lines.get(variantId));
+    }
+
+    public void setQuantity(Long variantId, int quantity) {
+        LocalDateTime now = LocalDateTime.now();
+        CartLine line = lines.get(variantId);
+        if (line == null) {
+            lines.put(variantId, new CartLine(null, variantId, quantity, now, now));
+        } else {
+            line.setQuantity(quantity);
+            line.setUpdatedAt(now);
+        }
+        updatedAt = now;
+    }
+
+    public void removeLine(Long variantId) {
+        if (lines.remove(variantId) != null) {
+            updatedAt = LocalDateTime.now();
+        }
+    }
+
+    public void clear() {
+        lines.clear();
+        updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    // Gắn id thật của cart/cart item sau khi đã ghi xuống DB
+    void applyPersistedIds(CartSnapshot persisted) {
+        this.cartId = persisted.cartId;
+        for (CartLine line : lines.values()) {
+            CartLine saved = persisted.lines.get(line.getVariantId());
+            if (saved != null && line.getItemId() == null) {
+                line.setItemId(saved.getItemId());
+            }
+        }
+    }
+
+    public CartSnapshot copy() {
+        CartSnapshot copy = new CartSnapshot(userId);
+        copy.cartId = cartId;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        lines.forEach((variantId, line) -> copy.lines.put(variantId, line.copy()));
+        return copy;
+    }
+}
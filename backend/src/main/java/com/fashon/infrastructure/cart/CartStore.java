@@ -0,0 +1,18 @@
+package com.fashon.infrastructure.cart;
+
+/**
+ * Nơi lưu trạng thái giỏ hàng đứng sau CartService.
+ * load/save luôn làm việc trên bản sao, caller không giữ tham chiếu tới state bên trong store.
+ */
+public interface CartStore {
+
+    CartSnapshot load(Long userId);
+
+    CartSnapshot save(CartSnapshot cart);
+
+    // Đảm bảo mọi thay đổi của user đã nằm trong DB (gọi trước khi checkout)
+    void flush(Long userId);
+
+    // Bỏ state đang giữ, lần load sau sẽ đọc lại từ DB
+    void evict(Long userId);
+}
@@ -0,0 +1,82 @@
+package com.fashon.infrastructure.cart;
+
+import com.fashon.domain.entity.Cart;
+import com.fashon.domain.entity.CartItem;
+import com.fashon.infrastructure.repository.CartItemRepository;
+import com.fashon.infrastructure.repository.CartRepository;
+import com.fashon.infrastructure.repository.ProductVariantRepository;
+import com.fashon.infrastructure.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ghi thẳng giỏ hàng xuống bảng carts/cart_items.
+ * Là store mặc định, đồng thời là tầng ghi của WriteBehindCartStore.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabaseCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartSnapshot load(Long userId) {
+        return cartRepository.findByUserIdFetchItems(userId)
+                .map(cart -> CartSnapshot.fromEntity(cart, userId))
+                .orElseGet(() -> CartSnapshot.empty(userId));
+    }
+
+    @Override
+    @Transactional
+    public CartSnapshot save(CartSnapshot snapshot) {
+        Cart cart = cartRepository.findByUserIdFetchItems(snapshot.getUserId())
+                .orElseGet(() -> cartRepository.save(new Cart(userRepository.getReferenceById(snapshot.getUserId()))));
+
+        Map<Long, CartItem> existingByVariant = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            existingByVariant.put(item.getVariant().getId(), item);
+        }
+
+        List<CartItem> changed = new ArrayList<>();
+        for (CartLine line : snapshot.getLines().values()) {
+            CartItem item = existingByVariant.remove(line.getVariantId());
+            if (item == null) {
+                item = new CartItem(cart, productVariantRepository.getReferenceById(line.getVariantId()),
+                        line.getQuantity());
+                cart.addItem(item);
+                changed.add(item);
+            } else if (item.getQuantity() != line.getQuantity()) {
+                item.setQuantity(line.getQuantity());
+                changed.add(item);
+            }
+        }
+
+        // Những dòng không còn trong snapshot -> xóa
+        List<CartItem> removed = new ArrayList<>(existingByVariant.values());
+        removed.forEach(cart::removeItem);
+        cartItemRepository.deleteAll(removed);
+        cartItemRepository.saveAll(changed);
+
+        return CartSnapshot.fromEntity(cart, snapshot.getUserId());
+    }
+
+    @Override
+    public void flush(Long userId) {
+        // Mọi thay đổi đã được ghi ngay trong save()
+    }
+
+    @Override
+    public void evict(Long userId) {
+        // Không giữ state trong bộ nhớ
+    }
+}
@@ -0,0 +1,156 @@
+package com.fashon.infrastructure.cart;
+
+import com.fashon.infrastructure.config.CartStoreConfig;
+import com.fashon.infrastructure.config.JwtConfig;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mã hóa giỏ hàng của khách vãng lai thành token ký HMAC, client tự giữ token.
+ * Server không lưu gì cho guest cart.
+ *
+ * Payload (varint): version, expiresAt (epoch giây), số dòng, rồi từng cặp variantId/quantity.
+ * Token = base64url(payload) + "." + base64url(HMAC-SHA256(payload) cắt còn 16 byte).
+ */
+@Component
+public class GuestCartCodec {
+
+    private static final int VERSION = 1;
+    private static final int SIGNATURE_LENGTH = 16;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_VARLONG_BYTES = 10;
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final int maxLines;
+    private final int maxQuantity;
+    private final int maxTokenLength;
+
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+
+    public GuestCartCodec(CartStoreConfig cartConfig, JwtConfig jwtConfig) {
+        CartStoreConfig.Guest guest = cartConfig.getGuest();
+        String secret = guest.getSecret() != null && !guest.getSecret().isEmpty()
+                ? guest.getSecret()
+                : "guest-cart:" + jwtConfig.getSecret();
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttlSeconds = guest.getTtlDays() * 24L * 3600L;
+        this.maxLines = guest.getMaxLines();
+        this.maxQuantity = guest.getMaxQuantity();
+        // Token dài hơn giỏ maxLines dòng lớn nhất thì bỏ qua luôn, không decode / tính HMAC
+        int maxPayload = MAX_VARLONG_BYTES * (3 + 2 * Math.max(0, maxLines));
+        this.maxTokenLength = base64Length(maxPayload) + 1 + base64Length(SIGNATURE_LENGTH);
+    }
+
+    public String encode(Map<Long, Integer> lines) {
+        if (lines.size() > maxLines) {
+            throw new RuntimeException("Guest cart cannot contain more than " + maxLines + " items");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + lines.size() * 6);
+        writeVarLong(out, VERSION);
+        writeVarLong(out, Instant.now().getEpochSecond() + ttlSeconds);
+        writeVarLong(out, lines.size());
+        lines.forEach((variantId, quantity) -> {
+            writeVarLong(out, variantId);
+            writeVarLong(out, quantity);
+        });
+        byte[] payload = out.toByteArray();
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(sign(payload));
+    }
+
+    /**
+     * Giải mã token. Token rỗng, quá dài, sai chữ ký, hết hạn hoặc sai định dạng đều trả về giỏ rỗng.
+     */
+    public Map<Long, Integer> decode(String token) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        if (token == null || token.isEmpty() || token.length() > maxTokenLength) {
+            return lines;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return lines;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] payload = decoder.decode(token.substring(0, dot));
+            byte[] signature = decoder.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return lines;
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            if (readVarLong(in) != VERSION) {
+                return lines;
+            }
+            if (readVarLong(in) < Instant.now().getEpochSecond()) {
+                return lines;
+            }
+            long count = readVarLong(in);
+            if (count > maxLines) {
+                return lines;
+            }
+            for (int i = 0; i < count; i++) {
+                long variantId = readVarLong(in);
+                long quantity = readVarLong(in);
+                if (quantity > 0) {
+                    lines.put(variantId, (int) Math.min(quantity, maxQuantity));
+                }
+            }
+            return lines;
+        } catch (IllegalArgumentException | java.nio.BufferUnderflowException e) {
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return Arrays.copyOf(mac.get().doFinal(payload), SIGNATURE_LENGTH);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise guest cart signer", e);
+        }
+    }
+
+    private static int base64Length(int bytes) {
+        return (bytes * 4 + 2) / 3;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,249 @@
+package com.fashon.infrastructure.cart;
+
+import com.fashon.infrastructure.config.CartStoreConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Giữ giỏ hàng trong bộ nhớ và gom các thay đổi lại, định kỳ flush xuống DB.
+ *
+ * - Mỗi user một entry trong ConcurrentHashMap, giới hạn bởi app.cart.max-entries.
+ *   Vượt giới hạn thì chu kỳ flush kế tiếp bỏ bớt entry ít dùng nhất (đã sạch), lần sau đọc lại từ DB;
+ *   request load giỏ hàng không bao giờ phải sắp xếp hay ghi DB.
+ * - Nhiều lần sửa giữa 2 chu kỳ chỉ tạo ra 1 lần ghi.
+ * - Mỗi entry chỉ được flush bởi một thread tại một thời điểm (flushLock giữ suốt lúc ghi DB),
+ *   tránh 2 lần INSERT cùng một giỏ mới (carts.user_id là UNIQUE).
+ * - Flush nền lỗi thì entry giữ nguyên trạng thái dirty và được thử lại ở chu kỳ sau;
+ *   flush trước checkout lỗi thì ném exception, không tạo đơn từ giỏ cũ trong DB.
+ * - Khi shutdown mọi entry dirty được flush; khi khởi động lại state được nạp lại từ DB
+ *   theo từng user. Nếu process chết đột ngột, tối đa mất thay đổi của một chu kỳ flush.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "app.cart", name = "store", havingValue = "write-behind")
+public class WriteBehindCartStore implements CartStore {
+
+    private final DatabaseCartStore delegate;
+    private final TransactionTemplate flushTransaction;
+    private final int maxEntries;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public WriteBehindCartStore(DatabaseCartStore delegate,
+                                PlatformTransactionManager transactionManager,
+                                CartStoreConfig config) {
+        this.delegate = delegate;
+        this.maxEntries = config.getMaxEntries();
+        // Flush luôn chạy trong transaction riêng để commit độc lập với transaction của caller
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public CartSnapshot load(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            Entry loaded = new Entry(delegate.load(userId));
+            entry = entries.putIfAbsent(userId, loaded);
+            if (entry == null) {
+                entry = loaded;
+            }
+        }
+        synchronized (entry) {
+            entry.touch();
+            return entry.snapshot.copy();
+        }
+    }
+
+    @Override
+    public CartSnapshot save(CartSnapshot cart) {
+        while (true) {
+            Entry entry = entries.computeIfAbsent(cart.getUserId(), id -> new Entry(cart.copy()));
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                entry.snapshot = cart.copy();
+                entry.dirty = true;
+                entry.version++;
+                entry.touch();
+                return entry.snapshot.copy();
+            }
+        }
+    }
+
+    @Override
+    public void flush(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return;
+        }
+        // Chờ lần flush nền đang chạy (nếu có) xong rồi ghi nốt thay đổi mới hơn
+        entry.flushLock.lock();
+        try {
+            flushLocked(entry);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush cart of user {} before checkout: {}", userId, e.getMessage());
+            throw new RuntimeException("Could not save cart, please try again", e);
+        } finally {
+            entry.flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Long userId) {
+        remove(userId);
+        // Evict lần nữa sau khi transaction hiện tại kết thúc, tránh giữ lại state đọc trước khi commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:5000}")
+    public void flushDirty() {
+        int flushed = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.dirty && tryFlush(entry)) {
+                flushed++;
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Flushed {} dirty carts", flushed);
+        }
+        evictOverflow();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} cached carts before shutdown", entries.size());
+        flushDirty();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return false nếu entry đang được flush ở thread khác hoặc ghi lỗi; chu kỳ sau thử lại
+     */
+    private boolean tryFlush(Entry entry) {
+        if (!entry.flushLock.tryLock()) {
+            return false;
+        }
+        try {
+            return flushLocked(entry);
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush cart of user {}, will retry: {}", entry.userId(), e.getMessage());
+            return false;
+        } finally {
+            entry.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Caller giữ entry.flushLock.
+     *
+     * @return true nếu đã ghi xuống DB, false nếu entry đã sạch
+     */
+    private boolean flushLocked(Entry entry) {
+        CartSnapshot pending;
+        long version;
+        synchronized (entry) {
+            if (!entry.dirty) {
+                return false;
+            }
+            pending = entry.snapshot.copy();
+            version = entry.version;
+        }
+
+        CartSnapshot persisted = flushTransaction.execute(status -> delegate.save(pending));
+
+        synchronized (entry) {
+            entry.snapshot.applyPersistedIds(persisted);
+            if (entry.version == version) {
+                entry.dirty = false;
+            }
+        }
+        return true;
+    }
+
+    // Chỉ chạy trên thread flush nền
+    private void evictOverflow() {
+        int overflow = entries.size() - maxEntries;
+        if (overflow <= 0) {
+            return;
+        }
+        // Bỏ thêm 10% để không phải quét lại ở mỗi chu kỳ
+        int toEvict = overflow + Math.max(1, maxEntries / 10);
+        List<Map.Entry<Long, Entry>> oldest = entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .limit(toEvict)
+                .toList();
+        for (Map.Entry<Long, Entry> candidate : oldest) {
+            Entry entry = candidate.getValue();
+            if (entry.dirty) {
+                tryFlush(entry);
+            }
+            synchronized (entry) {
+                if (!entry.dirty) {
+                    entry.removed = true;
+                    entries.remove(candidate.getKey(), entry);
+                }
+            }
+        }
+    }
+
+    private void remove(Long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.removed = true;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private CartSnapshot snapshot;
+        private volatile boolean dirty;
+        private long version;
+        private volatile long lastAccess;
+        private boolean removed;
+
+        private Entry(CartSnapshot snapshot) {
+            this.snapshot = snapshot;
+            touch();
+        }
+
+        private Long userId() {
+            synchronized (this) {
+                return snapshot.getUserId();
+            }
+        }
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+    }
+}
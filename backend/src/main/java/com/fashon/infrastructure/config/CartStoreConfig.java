@@ -0,0 +1,26 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cart")
+@Getter
+@Setter
+public class CartStoreConfig {
+    private String store = "database"; // database | write-behind
+    private long flushIntervalMs = 5000;
+    private int maxEntries = 10000;
+    private Guest guest = new Guest();
+
+    @Getter
+    @Setter
+    public static class Guest {
+        private String secret; // Mặc định dẫn xuất từ jwt.secret
+        private int ttlDays = 30;
+        private int maxLines = 50;
+        private int maxQuantity = 99;
+    }
+}
@@ -0,0 +1,28 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.pool")
+@Getter
+@Setter
+public class ConnectionPoolConfig {
+    private boolean instrumentation = true;
+    private long leakThresholdMs = 30000; // Giữ connection lâu hơn mức này thì coi là nghi rò rỉ
+    private long leakCheckIntervalMs = 5000;
+    private Adaptive adaptive = new Adaptive();
+
+    @Getter
+    @Setter
+    public static class Adaptive {
+        private boolean enabled = false;
+        private int minSize = 5;
+        private int maxSize = 40;
+        private long targetWaitMs = 20; // Thời gian chờ lấy connection trung bình mong muốn
+        private long intervalMs = 10000;
+        private int step = 2;
+    }
+}
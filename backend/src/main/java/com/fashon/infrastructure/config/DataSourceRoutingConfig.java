@@ -0,0 +1,79 @@
+package com.fashon.infrastructure.config;
+
+import com.fashon.infrastructure.datasource.DataSourceRole;
+import com.fashon.infrastructure.datasource.ReadWriteRoutingDataSource;
+import com.fashon.infrastructure.datasource.ReadYourWritesTracker;
+import com.fashon.infrastructure.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Bật khi app.datasource.replica.enabled=true: hai pool riêng cho primary và replica,
+ * DataSource chính định tuyến theo cờ readOnly của transaction.
+ * Tắt thì Spring Boot tự tạo một DataSource như cũ.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, ReplicaDataSourceConfig config) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        dataSource.setMaximumPoolSize(config.getPrimaryMaximumPoolSize());
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, ReplicaDataSourceConfig config) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(config.getUrl());
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        // Không khai báo riêng thì dùng chung tài khoản với primary
+        dataSource.setUsername(config.getUsername() != null ? config.getUsername() : properties.determineUsername());
+        dataSource.setPassword(config.getPassword() != null ? config.getPassword() : properties.determinePassword());
+        dataSource.setMaximumPoolSize(config.getMaximumPoolSize());
+        dataSource.setMinimumIdle(config.getMinimumIdle());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaDataSourceConfig config) {
+        return new ReadYourWritesTracker(config.getStickyWindowMs(), config.getMaxStickyUsers());
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               ReplicaDataSourceConfig config) {
+        return new ReplicaLagMonitor(primary, replica, config.getMaxLagMs());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor,
+                                 ReadYourWritesTracker writesTracker) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(lagMonitor, writesTracker);
+        routing.setTargetDataSources(Map.of(
+                DataSourceRole.PRIMARY, primary,
+                DataSourceRole.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,27 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.upload.derivatives")
+@Getter
+@Setter
+public class ImageDerivativeConfig {
+    private boolean enabled = true;
+    private int workers = 2; // Số ảnh được xử lý đồng thời, mỗi ảnh giải mã có thể tốn vài trăm MB heap
+    private int queueCapacity = 100; // Vượt quá thì bỏ qua, ảnh được xếp lại khi gắn vào sản phẩm
+    private int thumbnailWidth = 200;
+    private int cardWidth = 480;
+    private int detailWidth = 1200;
+    private float jpegQuality = 0.82f;
+    private long maxSourcePixels = 50_000_000L; // Chặn ảnh kích thước khổng lồ (decompression bomb)
+
+    public List<Integer> getWidths() {
+        return List.of(thumbnailWidth, cardWidth, detailWidth).stream().distinct().sorted().toList();
+    }
+}
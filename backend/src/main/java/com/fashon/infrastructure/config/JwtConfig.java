@@ -12,4 +12,10 @@ import org.springframework.context.annotation.Configuration;
 public class JwtConfig {
     private String secret;
     private long expiration = 86400000; // 24 hours in milliseconds
+    private int cacheMaxEntries = 10000; // Số token đã verify được cache, 0 = tắt cache
+    private int identityCacheMaxEntries = 10000; // Số user (id/email/role) được cache, 0 = tắt cache
+    private long identityCacheTtlSeconds = 300; // Chặn trên độ cũ khi chạy nhiều instance
+    private long revocationPollIntervalMs = 5000; // Chu kỳ đọc thu hồi mới từ token_revocations
+    private long revocationLookbackSeconds = 60; // Đọc lùi lại để không sót dòng commit trễ
+    private int revocationExpectedEntries = 10000; // Kích thước bloom filter
 }
@@ -0,0 +1,15 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.metrics.scrape")
+@Getter
+@Setter
+public class MetricsScrapeConfig {
+    private String username = "prometheus";
+    private String password; // Không đặt thì /actuator/prometheus chỉ mở cho ADMIN (JWT)
+}
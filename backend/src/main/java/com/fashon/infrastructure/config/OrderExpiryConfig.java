@@ -0,0 +1,18 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.orders.expiry")
+@Getter
+@Setter
+public class OrderExpiryConfig {
+    private boolean enabled = true;
+    private long ttlMinutes = 1440; // Đơn chuyển khoản chưa thanh toán quá thời gian này thì bị hủy
+    private long intervalMs = 300000;
+    private int batchSize = 500; // Số đơn mỗi transaction, giữ dưới giới hạn 2100 tham số của SQL Server
+    private long lockAtMostSeconds = 600; // Node giữ khóa chết giữa chừng thì khóa tự hết hạn sau thời gian này
+}
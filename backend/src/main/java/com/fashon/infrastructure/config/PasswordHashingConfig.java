@@ -0,0 +1,17 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.security.password")
+@Getter
+@Setter
+public class PasswordHashingConfig {
+    private int bcryptStrength = 10; // 4..31, mỗi bậc tăng gấp đôi thời gian hash
+    private int threads = 0; // 0 = Runtime.availableProcessors()
+    private int queueCapacity = 64; // Vượt quá thì từ chối ngay với 503
+    private long maxWaitMs = 2000; // Thời gian tối đa request chờ kết quả hash
+}
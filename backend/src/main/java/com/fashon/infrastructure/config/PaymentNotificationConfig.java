@@ -0,0 +1,18 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.payment.notifications")
+@Getter
+@Setter
+public class PaymentNotificationConfig {
+    private int workers = 2;
+    private int queueCapacity = 100; // Số batch chờ xử lý tối đa, vượt quá thì từ chối với 503
+    private long retryIntervalMs = 30000; // Chu kỳ quét batch bị bỏ sót / worker chết giữa chừng
+    private long staleAfterSeconds = 300; // Batch PROCESSING lâu hơn mức này coi như worker đã chết
+    private int maxAttempts = 3;
+}
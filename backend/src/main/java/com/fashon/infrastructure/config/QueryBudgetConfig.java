@@ -0,0 +1,16 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.query")
+@Getter
+@Setter
+public class QueryBudgetConfig {
+    private boolean tracking = true;
+    private int defaultBudget = 20; // Endpoint không khai báo @QueryBudget thì dùng mức này
+    private int nPlusOneThreshold = 5; // Cùng một câu SQL lặp lại từ mức này trở lên thì nghi N+1
+}
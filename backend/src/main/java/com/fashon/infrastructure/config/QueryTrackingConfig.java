@@ -0,0 +1,40 @@
+package com.fashon.infrastructure.config;
+
+import com.fashon.infrastructure.query.QueryBudgetInterceptor;
+import com.fashon.infrastructure.query.SqlStatementInspector;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.query", name = "tracking", havingValue = "true", matchIfMissing = true)
+public class QueryTrackingConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetConfig queryBudgetConfig;
+
+    public QueryTrackingConfig(MeterRegistry meterRegistry, QueryBudgetConfig queryBudgetConfig) {
+        this.meterRegistry = meterRegistry;
+        this.queryBudgetConfig = queryBudgetConfig;
+    }
+
+    @Bean
+    public QueryBudgetInterceptor queryBudgetInterceptor() {
+        return new QueryBudgetInterceptor(meterRegistry, queryBudgetConfig);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementInspector());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryBudgetInterceptor()).addPathPatterns("/api/**");
+    }
+}
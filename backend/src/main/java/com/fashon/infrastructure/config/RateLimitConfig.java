@@ -0,0 +1,18 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Getter
+@Setter
+public class RateLimitConfig {
+    private boolean enabled = true;
+    private int maxClients = 100000; // Số bucket (client x route) giữ trong bộ nhớ
+    private int loginPerMinute = 10;
+    private int registerPerMinute = 5;
+    private int searchPerMinute = 60;
+}
@@ -0,0 +1,17 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.reconciliation")
+@Getter
+@Setter
+public class ReconciliationConfig {
+    private boolean enabled = true; // Tắt thì chỉ chạy khi admin gọi API
+    private String cron = "0 0 2 * * *";
+    private int chunkSize = 1000; // Số dòng mỗi lần đọc, cũng là chu kỳ ghi checkpoint
+    private long staleAfterSeconds = 600; // Lần chạy không cập nhật checkpoint lâu hơn mức này coi như đã chết
+}
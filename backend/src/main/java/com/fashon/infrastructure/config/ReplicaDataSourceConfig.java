@@ -0,0 +1,24 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource.replica")
+@Getter
+@Setter
+public class ReplicaDataSourceConfig {
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 20;
+    private int minimumIdle = 5;
+    private int primaryMaximumPoolSize = 10; // Pool primary chỉ còn phục vụ ghi + đọc sau ghi
+    private long maxLagMs = 5000; // Replica trễ hơn mức này thì đọc từ primary
+    private long lagCheckIntervalMs = 1000;
+    private long stickyWindowMs = 5000; // Read-your-writes: sau khi user ghi, đọc từ primary trong khoảng này
+    private int maxStickyUsers = 10000;
+}
@@ -1,10 +1,20 @@
 package com.fashon.infrastructure.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fashon.infrastructure.security.JwtAuthenticationFilter;
+import com.fashon.infrastructure.security.RateLimitFilter;
+import com.fashon.infrastructure.security.RateLimitRule;
+import com.fashon.infrastructure.security.RateLimiter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -12,13 +22,16 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -28,6 +41,36 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final PasswordHashingConfig passwordHashingConfig;
+    private final RateLimitConfig rateLimitConfig;
+    private final ObjectMapper objectMapper;
+    private final MetricsScrapeConfig metricsScrapeConfig;
+
+    /**
+     * Prometheus scrape bằng HTTP Basic với tài khoản riêng (app.metrics.scrape), không cần JWT hết hạn sau 24h.
+     * Chỉ bật khi đã đặt password; chain này đứng trước chain chính và chỉ khớp /actuator/prometheus.
+     */
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(prefix = "app.metrics.scrape", name = "password")
+    public SecurityFilterChain prometheusScrapeFilterChain(HttpSecurity http) throws Exception {
+        // Password scrape là chuỗi ngẫu nhiên dài nên work factor thấp là đủ, mỗi lần scrape đều phải hash
+        PasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername(metricsScrapeConfig.getUsername())
+                .password(encoder.encode(metricsScrapeConfig.getPassword()))
+                .roles("METRICS")
+                .build()));
+
+        http
+            .securityMatcher("/actuator/prometheus")
+            .csrf(AbstractHttpConfigurer::disable)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authenticationManager(new ProviderManager(provider))
+            .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("METRICS"))
+            .httpBasic(Customizer.withDefaults());
+        return http.build();
+    }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -47,22 +90,43 @@ public class SecurityConfig {
                     "/webjars/**",
                     "/swagger-resources/**",
                     "/configuration/**",
-                    "/favicon.ico"
+                    "/favicon.ico",
+                    "/actuator/health"
                 ).permitAll()
                 .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
+        if (rateLimitConfig.isEnabled()) {
+            http.addFilterAfter(rateLimitFilter(), JwtAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
+    // Giới hạn theo route: login/register tốn BCrypt, search tốn full scan DB
+    private RateLimitFilter rateLimitFilter() {
+        Duration minute = Duration.ofMinutes(1);
+        List<RateLimitRule> rules = List.of(
+            RateLimitRule.of("login", HttpMethod.POST, "/api/v1/auth/login",
+                rateLimitConfig.getLoginPerMinute(), minute),
+            RateLimitRule.of("register", HttpMethod.POST, "/api/v1/auth/register",
+                rateLimitConfig.getRegisterPerMinute(), minute),
+            RateLimitRule.of("search", HttpMethod.GET, "/api/v1/public/products",
+                rateLimitConfig.getSearchPerMinute(), minute).whenParameterPresent("search")
+        );
+        return new RateLimitFilter(rules, new RateLimiter(rateLimitConfig.getMaxClients()), objectMapper);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOrigins(List.of("http://localhost:3000"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        config.setExposedHeaders(List.of("RateLimit-Limit", "RateLimit-Remaining", "RateLimit-Reset", "Retry-After"));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -72,7 +136,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(passwordHashingConfig.getBcryptStrength());
     }
 
     @Bean
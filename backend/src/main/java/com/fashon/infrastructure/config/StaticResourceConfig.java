@@ -1,25 +1,19 @@
 package com.fashon.infrastructure.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.fashon.infrastructure.storage.UploadResourceHandler;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Map;
 
 @Configuration
-public class StaticResourceConfig implements WebMvcConfigurer {
+public class StaticResourceConfig {
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path uploadPath = Paths.get(uploadDir);
-        String uploadAbsolutePath = uploadPath.toFile().getAbsolutePath();
-
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadAbsolutePath + "/");
+    // Trước resource handler mặc định (LOWEST_PRECEDENCE - 1), sau các controller
+    @Bean
+    public SimpleUrlHandlerMapping uploadHandlerMapping(UploadResourceHandler uploadResourceHandler) {
+        return new SimpleUrlHandlerMapping(Map.of("/uploads/**", uploadResourceHandler), Ordered.LOWEST_PRECEDENCE - 2);
     }
 }
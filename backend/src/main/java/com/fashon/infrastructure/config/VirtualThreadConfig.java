@@ -0,0 +1,17 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.threads.pinning")
+@Getter
+@Setter
+public class VirtualThreadConfig {
+    private boolean monitor = true; // Chỉ có tác dụng khi spring.threads.virtual.enabled=true
+    private long thresholdMs = 20; // Virtual thread bị ghim lâu hơn mức này mới được JFR ghi lại
+    private int maxStackFrames = 20;
+    private int maxSites = 200; // Số vị trí (stack) khác nhau được giữ lại để báo cáo
+}
@@ -0,0 +1,16 @@
+package com.fashon.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.wishlist")
+@Getter
+@Setter
+public class WishlistConfig {
+    private int cacheMaxEntries = 10000; // Số user được cache tập product id, 0 = tắt cache
+    private long cacheTtlSeconds = 300; // Chặn trên độ cũ khi chạy nhiều instance
+    private int maxBatchSize = 100; // Số product id tối đa mỗi lần kiểm tra
+}
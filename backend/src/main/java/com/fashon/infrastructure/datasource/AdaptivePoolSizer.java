@@ -0,0 +1,93 @@
+package com.fashon.infrastructure.datasource;
+
+import com.fashon.infrastructure.config.ConnectionPoolConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tự chỉnh maximumPoolSize của từng pool trong khoảng [min-size, max-size] theo số liệu mỗi cửa sổ:
+ * - Tăng step khi có thread phải chờ lâu hơn target-wait-ms trong lúc pool gần dùng hết (>= 90%).
+ * - Giảm 1 khi 3 cửa sổ liên tiếp dùng chưa tới một nửa pool.
+ * Tăng nhanh, giảm chậm để không dao động; lịch sử điều chỉnh gần nhất xem qua API admin.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.pool.adaptive", name = "enabled", havingValue = "true")
+public class AdaptivePoolSizer {
+
+    private static final int HISTORY_SIZE = 20;
+    private static final int SHRINK_AFTER_WINDOWS = 3;
+
+    private final ConnectionPoolMonitor monitor;
+    private final ConnectionPoolConfig.Adaptive config;
+    private final Map<String, Integer> idleWindows = new ConcurrentHashMap<>();
+    private final Deque<Adjustment> history = new ArrayDeque<>();
+
+    public AdaptivePoolSizer(ConnectionPoolMonitor monitor, ConnectionPoolConfig config) {
+        this.monitor = monitor;
+        this.config = config.getAdaptive();
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.pool.adaptive.interval-ms:10000}")
+    public void adjust() {
+        for (ConnectionPoolMonitor.Pool pool : monitor.getPools()) {
+            HikariDataSource dataSource = pool.getDataSource();
+            if (dataSource.getHikariPoolMXBean() == null) {
+                continue; // Pool chưa khởi tạo
+            }
+            long[] window = pool.drainWindow();
+            long avgWaitMs = TimeUnit.NANOSECONDS.toMillis(window[0]);
+            int peakInUse = (int) window[1];
+            int waiting = dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection();
+            int current = dataSource.getMaximumPoolSize();
+
+            boolean saturated = peakInUse >= current * 0.9;
+            if ((waiting > 0 || avgWaitMs > config.getTargetWaitMs()) && saturated && current < config.getMaxSize()) {
+                resize(pool, current, Math.min(config.getMaxSize(), current + config.getStep()),
+                        "wait " + avgWaitMs + " ms, " + waiting + " waiting, peak " + peakInUse);
+                idleWindows.remove(pool.getName());
+            } else if (peakInUse < current / 2 && current > config.getMinSize()) {
+                int idle = idleWindows.merge(pool.getName(), 1, Integer::sum);
+                if (idle >= SHRINK_AFTER_WINDOWS) {
+                    resize(pool, current, current - 1, "peak " + peakInUse + " for " + idle + " windows");
+                    idleWindows.remove(pool.getName());
+                }
+            } else {
+                idleWindows.remove(pool.getName());
+            }
+        }
+    }
+
+    public synchronized List<Adjustment> getHistory() {
+        return List.copyOf(history);
+    }
+
+    private void resize(ConnectionPoolMonitor.Pool pool, int from, int to, String reason) {
+        HikariDataSource dataSource = pool.getDataSource();
+        dataSource.getHikariConfigMXBean().setMaximumPoolSize(to);
+        if (dataSource.getMinimumIdle() > to) {
+            dataSource.getHikariConfigMXBean().setMinimumIdle(to);
+        }
+        log.info("Resized pool {} from {} to {} ({})", pool.getName(), from, to, reason);
+        synchronized (this) {
+            history.addFirst(new Adjustment(pool.getName(), from, to, reason, LocalDateTime.now()));
+            while (history.size() > HISTORY_SIZE) {
+                history.removeLast();
+            }
+        }
+    }
+
+    public record Adjustment(String pool, int from, int to, String reason, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.fashon.infrastructure.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bọc mọi HikariDataSource bean bằng InstrumentedDataSource và đăng ký pool với ConnectionPoolMonitor.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.pool", name = "instrumentation", havingValue = "true", matchIfMissing = true)
+public class ConnectionPoolInstrumentationPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ConnectionPoolMonitor> monitor;
+
+    public ConnectionPoolInstrumentationPostProcessor(ObjectProvider<ConnectionPoolMonitor> monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            String name = dataSource.getPoolName() != null ? dataSource.getPoolName() : beanName;
+            return new InstrumentedDataSource(dataSource, monitor.getObject().register(name, dataSource));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,245 @@
+package com.fashon.infrastructure.datasource;
+
+import com.fashon.infrastructure.config.ConnectionPoolConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Theo dõi các Hikari pool (một pool, hoặc primary + replica khi bật routing).
+ *
+ * - db.pool.acquire / db.pool.hold: histogram thời gian chờ lấy và thời gian giữ connection,
+ *   tag theo pool và method service gọi tới (ServiceOperation).
+ * - Phát hiện rò rỉ: connection giữ quá app.datasource.pool.leak-threshold-ms được log kèm
+ *   stack hiện tại của thread đang giữ nó (không chụp stack lúc lấy connection để tránh tốn phí mỗi lần).
+ * - snapshot() dùng cho API admin.
+ */
+@Slf4j
+@Component
+public class ConnectionPoolMonitor {
+
+    private static final int MAX_STACK_FRAMES = 40;
+
+    private final MeterRegistry registry;
+    private final long leakThresholdNanos;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    public ConnectionPoolMonitor(MeterRegistry registry, ConnectionPoolConfig config) {
+        this.registry = registry;
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getLeakThresholdMs());
+    }
+
+    public Pool register(String name, HikariDataSource dataSource) {
+        return pools.computeIfAbsent(name, n -> new Pool(n, dataSource));
+    }
+
+    public List<Pool> getPools() {
+        return List.copyOf(pools.values());
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.pool.leak-check-interval-ms:5000}")
+    public void detectLeaks() {
+        long now = System.nanoTime();
+        for (Pool pool : pools.values()) {
+            for (Lease lease : pool.leases.values()) {
+                if (now - lease.acquiredAtNanos > leakThresholdNanos && lease.reported.compareAndSet(false, true)) {
+                    lease.stack = Arrays.stream(lease.thread.getStackTrace())
+                            .limit(MAX_STACK_FRAMES)
+                            .map(StackTraceElement::toString)
+                            .toList();
+                    pool.leaksDetected.increment();
+                    log.warn("Possible connection leak in pool {}: held by {} on thread {} for {} ms\n\tat {}",
+                            pool.name, lease.operation, lease.thread.getName(),
+                            TimeUnit.NANOSECONDS.toMillis(now - lease.acquiredAtNanos),
+                            String.join("\n\tat ", lease.stack));
+                }
+            }
+        }
+    }
+
+    public List<PoolSnapshot> snapshot() {
+        long now = System.nanoTime();
+        return pools.values().stream()
+                .sorted(Comparator.comparing(pool -> pool.name))
+                .map(pool -> pool.snapshot(now))
+                .toList();
+    }
+
+    public final class Pool {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+        private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+        private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+        private final AtomicLong leaseSequence = new AtomicLong();
+        private final Counter leaksDetected;
+
+        // Số liệu theo cửa sổ cho bộ điều chỉnh kích thước pool, được reset mỗi lần đọc
+        private final LongAdder windowWaitNanos = new LongAdder();
+        private final LongAdder windowAcquires = new LongAdder();
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final AtomicInteger windowPeakInUse = new AtomicInteger();
+
+        private Pool(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.leaksDetected = Counter.builder("db.pool.leaks")
+                    .description("Connections held longer than the leak threshold")
+                    .tag("pool", name)
+                    .register(registry);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public HikariDataSource getDataSource() {
+            return dataSource;
+        }
+
+        Lease acquired(String operation, long waitNanos) {
+            timer(acquireTimers, "db.pool.acquire", operation).record(waitNanos, TimeUnit.NANOSECONDS);
+            windowWaitNanos.add(waitNanos);
+            windowAcquires.increment();
+            windowPeakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+
+            Lease lease = new Lease(this, leaseSequence.incrementAndGet(), operation, Thread.currentThread());
+            leases.put(lease.id, lease);
+            return lease;
+        }
+
+        void released(Lease lease) {
+            leases.remove(lease.id);
+            inUse.decrementAndGet();
+            timer(holdTimers, "db.pool.hold", lease.operation)
+                    .record(System.nanoTime() - lease.acquiredAtNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Đọc và reset số liệu cửa sổ hiện tại: [thời gian chờ trung bình (ns), số connection dùng đồng thời cao nhất].
+         */
+        public long[] drainWindow() {
+            long acquires = windowAcquires.sumThenReset();
+            long waitNanos = windowWaitNanos.sumThenReset();
+            int peak = windowPeakInUse.getAndSet(inUse.get());
+            return new long[]{acquires > 0 ? waitNanos / acquires : 0, peak};
+        }
+
+        private Timer timer(Map<String, Timer> timers, String meter, String operation) {
+            return timers.computeIfAbsent(operation, op -> Timer.builder(meter)
+                    .tag("pool", name)
+                    .tag("operation", op)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+
+        private PoolSnapshot snapshot(long now) {
+            HikariPoolMXBean mxBean = dataSource.getHikariPoolMXBean();
+            Map<String, OperationStats> operations = new LinkedHashMap<>();
+            acquireTimers.keySet().stream().sorted().forEach(op -> operations.put(op, new OperationStats(
+                    stats(acquireTimers.get(op)), stats(holdTimers.get(op)))));
+
+            List<LeakReport> leaks = new ArrayList<>();
+            for (Lease lease : leases.values()) {
+                long heldMs = TimeUnit.NANOSECONDS.toMillis(now - lease.acquiredAtNanos);
+                if (lease.reported.get()) {
+                    leaks.add(new LeakReport(lease.operation, lease.thread.getName(), lease.acquiredAt, heldMs, lease.stack));
+                }
+            }
+
+            return new PoolSnapshot(
+                    name,
+                    mxBean != null ? mxBean.getActiveConnections() : 0,
+                    mxBean != null ? mxBean.getIdleConnections() : 0,
+                    mxBean != null ? mxBean.getTotalConnections() : 0,
+                    mxBean != null ? mxBean.getThreadsAwaitingConnection() : 0,
+                    dataSource.getMaximumPoolSize(),
+                    dataSource.getMinimumIdle(),
+                    (long) leaksDetected.count(),
+                    operations,
+                    leaks);
+        }
+    }
+
+    public static final class Lease {
+        private final Pool pool;
+        private final long id;
+        private final String operation;
+        private final Thread thread;
+        private final long acquiredAtNanos = System.nanoTime();
+        private final LocalDateTime acquiredAt = LocalDateTime.now();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final AtomicBoolean reported = new AtomicBoolean();
+        private volatile List<String> stack;
+
+        private Lease(Pool pool, long id, String operation, Thread thread) {
+            this.pool = pool;
+            this.id = id;
+            this.operation = operation;
+            this.thread = thread;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                pool.released(this);
+            }
+        }
+    }
+
+    private static TimerStats stats(Timer timer) {
+        if (timer == null) {
+            return null;
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.put("p" + Math.round(value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+        }
+        return new TimerStats(snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS), percentiles);
+    }
+
+    public record TimerStats(long count, double meanMs, double maxMs, Map<String, Double> percentilesMs) {
+    }
+
+    public record OperationStats(TimerStats acquire, TimerStats hold) {
+    }
+
+    public record LeakReport(String operation, String thread, LocalDateTime acquiredAt, long heldMs, List<String> stack) {
+    }
+
+    public record PoolSnapshot(String name,
+                               int active,
+                               int idle,
+                               int total,
+                               int waiting,
+                               int maximumPoolSize,
+                               int minimumIdle,
+                               long leaksDetected,
+                               Map<String, OperationStats> operations,
+                               List<LeakReport> leaks) {
+    }
+}
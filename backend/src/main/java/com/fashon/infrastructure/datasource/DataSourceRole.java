@@ -0,0 +1,6 @@
+package com.fashon.infrastructure.datasource;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,71 @@
+package com.fashon.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Bọc DataSource của pool: đo thời gian chờ lấy connection và thời gian giữ connection
+ * (từ lúc lấy tới lúc close), gắn tag theo ServiceOperation hiện tại.
+ * unwrap() vẫn trả về HikariDataSource gốc nên metrics/health của Spring Boot không bị ảnh hưởng.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final ConnectionPoolMonitor.Pool pool;
+
+    public InstrumentedDataSource(DataSource target, ConnectionPoolMonitor.Pool pool) {
+        super(target);
+        this.pool = pool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        return wrap(obtainTargetDataSource().getConnection(), start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        return wrap(obtainTargetDataSource().getConnection(username, password), start);
+    }
+
+    private Connection wrap(Connection connection, long requestedAt) {
+        ConnectionPoolMonitor.Lease lease = pool.acquired(ServiceOperation.current(), System.nanoTime() - requestedAt);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> lease.release();
+                        case "unwrap" -> {
+                            if (((Class<?>) args[0]).isInstance(proxy)) {
+                                return proxy;
+                            }
+                        }
+                        case "isWrapperFor" -> {
+                            if (((Class<?>) args[0]).isInstance(proxy)) {
+                                return true;
+                            }
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        default -> {
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
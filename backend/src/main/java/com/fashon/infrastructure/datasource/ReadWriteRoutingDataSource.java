@@ -0,0 +1,36 @@
+package com.fashon.infrastructure.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transaction readOnly đi replica, còn lại đi primary.
+ * Phải được bọc trong LazyConnectionDataSourceProxy để connection chỉ được lấy
+ * sau khi Spring đã gắn cờ readOnly cho transaction.
+ *
+ * Đọc vẫn đi primary khi replica đang trễ/lỗi hoặc request/user vừa ghi (read-your-writes).
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker writesTracker;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker writesTracker) {
+        this.lagMonitor = lagMonitor;
+        this.writesTracker = writesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (lagMonitor.isReplicaUsable() && !writesTracker.isSticky()) {
+                return DataSourceRole.REPLICA;
+            }
+            return DataSourceRole.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            writesTracker.markWrite();
+        }
+        return DataSourceRole.PRIMARY;
+    }
+}
@@ -0,0 +1,86 @@
+package com.fashon.infrastructure.datasource;
+
+import com.fashon.infrastructure.security.AuthenticatedUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi nhớ ai vừa ghi dữ liệu để các lần đọc sau đó đi primary, tránh đọc replica chưa kịp đồng bộ.
+ *
+ * - Trong cùng request: sau lần ghi đầu tiên mọi lần đọc còn lại của request đều đi primary.
+ * - Giữa các request: user đã đăng nhập tiếp tục đọc primary trong stickyWindowMs
+ *   (vd. thêm vào giỏ rồi GET /cart ngay sau đó).
+ */
+public class ReadYourWritesTracker {
+
+    private static final String REQUEST_ATTRIBUTE = ReadYourWritesTracker.class.getName() + ".wrote";
+
+    private final long stickyWindowNanos;
+    private final int maxUsers;
+    private final Map<Long, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long stickyWindowMs, int maxUsers) {
+        this.stickyWindowNanos = stickyWindowMs * 1_000_000L;
+        this.maxUsers = maxUsers;
+    }
+
+    public void markWrite() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+        Long userId = currentUserId();
+        if (userId != null && stickyWindowNanos > 0) {
+            if (lastWriteByUser.size() >= maxUsers) {
+                evictExpired();
+            }
+            lastWriteByUser.put(userId, System.nanoTime());
+        }
+    }
+
+    public boolean isSticky() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        Long lastWrite = lastWriteByUser.get(userId);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWrite > stickyWindowNanos) {
+            lastWriteByUser.remove(userId, lastWrite);
+            return false;
+        }
+        return true;
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        lastWriteByUser.values().removeIf(lastWrite -> now - lastWrite > stickyWindowNanos);
+        // Vẫn đầy thì bỏ bớt khoảng 10%, user bị bỏ chỉ mất stickiness chứ không sai dữ liệu lâu dài
+        int toRemove = lastWriteByUser.size() - maxUsers + Math.max(1, maxUsers / 10);
+        Iterator<Long> iterator = lastWriteByUser.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return null;
+    }
+}
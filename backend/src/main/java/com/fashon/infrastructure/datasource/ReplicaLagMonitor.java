@@ -0,0 +1,70 @@
+package com.fashon.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Đo độ trễ replica bằng heartbeat: primary cập nhật replication_heartbeat.beat_at,
+ * replica đọc lại và so với giờ hiện tại. Cách này không phụ thuộc kiểu replication
+ * (Always On, log shipping, transactional replication).
+ * Replica lỗi hoặc trễ quá maxLagMs thì bị đánh dấu không dùng được cho tới lần đo sau.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+
+    private volatile boolean replicaUsable = false;
+    private volatile long lastLagMs = -1;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, long maxLagMs) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(2);
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        try {
+            primary.update("UPDATE replication_heartbeat SET beat_at = SYSUTCDATETIME() WHERE id = 1");
+        } catch (RuntimeException e) {
+            log.debug("Failed to write replication heartbeat: {}", e.getMessage());
+        }
+
+        boolean usable;
+        try {
+            Long lag = replica.queryForObject(
+                    "SELECT DATEDIFF_BIG(MILLISECOND, beat_at, SYSUTCDATETIME()) FROM replication_heartbeat WHERE id = 1",
+                    Long.class);
+            lastLagMs = lag != null ? Math.max(0, lag) : -1;
+            usable = lag != null && lag <= maxLagMs;
+        } catch (RuntimeException e) {
+            lastLagMs = -1;
+            usable = false;
+            log.debug("Failed to read replica lag: {}", e.getMessage());
+        }
+
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Replica is back in rotation (lag {} ms)", lastLagMs);
+            } else {
+                log.warn("Replica taken out of rotation (lag {} ms, max {} ms)", lastLagMs, maxLagMs);
+            }
+            replicaUsable = usable;
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+}
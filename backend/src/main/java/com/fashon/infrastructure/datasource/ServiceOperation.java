@@ -0,0 +1,32 @@
+package com.fashon.infrastructure.datasource;
+
+/**
+ * Tên method service ngoài cùng đang chạy trên thread hiện tại (vd. OrderService.createOrderFromCart),
+ * dùng làm tag cho metrics connection pool.
+ */
+public final class ServiceOperation {
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ServiceOperation() {
+    }
+
+    public static String current() {
+        String operation = CURRENT.get();
+        return operation != null ? operation : UNKNOWN;
+    }
+
+    static boolean enter(String operation) {
+        if (CURRENT.get() != null) {
+            return false;
+        }
+        CURRENT.set(operation);
+        return true;
+    }
+
+    static void exit() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,39 @@
+package com.fashon.infrastructure.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi lại method service ngoài cùng của mỗi lời gọi để gắn tag cho thời gian chờ/giữ connection.
+ * Chạy trước TransactionInterceptor để connection lấy trong transaction đã có tên operation.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceOperationAspect {
+
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.fashon.application.service..*(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        boolean outermost = ServiceOperation.enter(names.computeIfAbsent(method,
+                m -> m.getDeclaringClass().getSimpleName() + "." + m.getName()));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (outermost) {
+                ServiceOperation.exit();
+            }
+        }
+    }
+}
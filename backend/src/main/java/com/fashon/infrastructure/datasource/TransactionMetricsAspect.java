@@ -0,0 +1,77 @@
+package com.fashon.infrastructure.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo thời gian transaction theo method service @Transactional (metric service.transaction,
+ * tag operation, read-only, outcome). Chạy ngoài TransactionInterceptor nên thời gian gồm cả commit.
+ * Lời gọi lồng tham gia transaction đang có thì không đo lại.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TransactionMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final Map<Method, Definition> definitions = new ConcurrentHashMap<>();
+
+    public TransactionMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.fashon.application.service..*(..)) && "
+            + "(@annotation(org.springframework.transaction.annotation.Transactional) "
+            + "|| @within(org.springframework.transaction.annotation.Transactional))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Definition definition = definitions.computeIfAbsent(method, Definition::of);
+
+        long start = System.nanoTime();
+        String outcome = "commit";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "rollback";
+            throw e;
+        } finally {
+            Timer.builder("service.transaction")
+                    .description("Duration of @Transactional service methods including commit")
+                    .tag("operation", definition.operation())
+                    .tag("read-only", String.valueOf(definition.readOnly()))
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private record Definition(String operation, boolean readOnly) {
+
+        static Definition of(Method method) {
+            Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+            if (transactional == null) {
+                transactional = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Transactional.class);
+            }
+            return new Definition(method.getDeclaringClass().getSimpleName() + "." + method.getName(),
+                    transactional != null && transactional.readOnly());
+        }
+    }
+}
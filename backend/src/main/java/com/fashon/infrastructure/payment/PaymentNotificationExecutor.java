@@ -0,0 +1,73 @@
+package com.fashon.infrastructure.payment;
+
+import com.fashon.infrastructure.config.PaymentNotificationConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool worker xử lý batch thông báo thanh toán, hàng đợi có giới hạn.
+ *
+ * - app.payment.notifications.workers thread, hàng đợi queue-capacity batch.
+ * - Metrics: payment.notifications.queue/active (gauge), .rejected (counter).
+ */
+@Component
+public class PaymentNotificationExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public PaymentNotificationExecutor(PaymentNotificationConfig config, MeterRegistry registry) {
+        int workers = Math.max(1, config.getWorkers());
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-notification-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("payment.notifications.queue", executor, e -> e.getQueue().size())
+                .description("Payment notification batches waiting for a worker")
+                .register(registry);
+        Gauge.builder("payment.notifications.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Payment notification batches being applied")
+                .register(registry);
+        this.rejected = Counter.builder("payment.notifications.rejected")
+                .description("Batches rejected because the queue was full")
+                .register(registry);
+    }
+
+    public boolean hasCapacity() {
+        return executor.getQueue().remainingCapacity() > 0;
+    }
+
+    /**
+     * @return false nếu hàng đợi đầy; batch vẫn nằm trong DB và được lần quét kế tiếp nhận lại
+     */
+    public boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,11 @@
+package com.fashon.infrastructure.payment;
+
+/**
+ * Hàng đợi xử lý thông báo thanh toán đã đầy, bên gửi nên thử lại sau.
+ */
+public class PaymentNotificationQueueFullException extends RuntimeException {
+
+    public PaymentNotificationQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.fashon.infrastructure.query;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Số câu SQL tối đa một request tới endpoint được phép chạy.
+ * Đặt trên method của controller (hoặc cả class). Không khai báo thì dùng app.query.default-budget.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
@@ -0,0 +1,102 @@
+package com.fashon.infrastructure.query;
+
+import com.fashon.infrastructure.config.QueryBudgetConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+/**
+ * Đếm câu SQL của mỗi request tới controller và so với budget của endpoint.
+ *
+ * - Metric db.request.statements (tag uri, method) cho mọi endpoint.
+ * - Vượt budget hoặc có câu SQL lặp lại (nghi N+1) thì log WARN kèm các câu bị lặp.
+ * - Kết quả được gắn vào request attribute để test đọc lại (xem QueryBudgetAssertions).
+ */
+@Slf4j
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    public static final String STATS_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".STATS";
+    public static final String BUDGET_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".BUDGET";
+
+    private final MeterRegistry registry;
+    private final int defaultBudget;
+    private final int nPlusOneThreshold;
+
+    public QueryBudgetInterceptor(MeterRegistry registry, QueryBudgetConfig config) {
+        this.registry = registry;
+        this.defaultBudget = config.getDefaultBudget();
+        this.nPlusOneThreshold = config.getNPlusOneThreshold();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            request.setAttribute(BUDGET_ATTRIBUTE, budgetOf(handlerMethod));
+            request.setAttribute(STATS_ATTRIBUTE, QueryTracker.begin());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod)) {
+            return;
+        }
+        QueryStats stats = QueryTracker.end();
+        if (stats == null) {
+            return;
+        }
+        String uri = String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        DistributionSummary.builder("db.request.statements")
+                .description("SQL statements executed per request")
+                .tag("uri", uri)
+                .tag("method", request.getMethod())
+                .register(registry)
+                .record(stats.getTotal());
+
+        Violation violation = check(stats, (Integer) request.getAttribute(BUDGET_ATTRIBUTE));
+        if (violation != null) {
+            log.warn("Query budget violated by {} {}: {}", request.getMethod(), uri, violation.describe());
+        }
+    }
+
+    /**
+     * Trả về vi phạm (vượt budget và/hoặc câu SQL lặp lại), hoặc null nếu request hợp lệ.
+     */
+    public Violation check(QueryStats stats, Integer budget) {
+        int limit = budget != null ? budget : defaultBudget;
+        List<QueryStats.RepeatedStatement> repeated = stats.repeatedStatements(nPlusOneThreshold);
+        if (stats.getTotal() <= limit && repeated.isEmpty()) {
+            return null;
+        }
+        return new Violation(stats.getTotal(), limit, repeated);
+    }
+
+    private int budgetOf(HandlerMethod handlerMethod) {
+        QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), QueryBudget.class);
+        }
+        return budget != null ? budget.value() : defaultBudget;
+    }
+
+    public record Violation(int statements, int budget, List<QueryStats.RepeatedStatement> repeated) {
+
+        public String describe() {
+            StringBuilder message = new StringBuilder()
+                    .append(statements).append(" statements (budget ").append(budget).append(")");
+            for (QueryStats.RepeatedStatement statement : repeated) {
+                message.append("\n\tN+1 suspect x").append(statement.count()).append(": ").append(statement.sql());
+            }
+            return message.toString();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fashon.infrastructure.query;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Các câu SQL đã chạy trong một phạm vi (thường là một request).
+ * SQL do Hibernate sinh ra dùng tham số '?', nên cùng một câu lặp lại nhiều lần = nghi N+1.
+ */
+public final class QueryStats {
+
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+    private int total;
+
+    void record(String sql) {
+        total++;
+        countsBySql.merge(normalize(sql), 1, Integer::sum);
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getDistinct() {
+        return countsBySql.size();
+    }
+
+    /**
+     * Các câu SQL lặp lại từ threshold lần trở lên, nhiều nhất đứng đầu.
+     */
+    public List<RepeatedStatement> repeatedStatements(int threshold) {
+        return countsBySql.entrySet().stream()
+                .filter(e -> e.getValue() >= threshold)
+                .map(e -> new RepeatedStatement(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingInt(RepeatedStatement::count).reversed())
+                .toList();
+    }
+
+    private static String normalize(String sql) {
+        return sql.strip().replaceAll("\\s+", " ");
+    }
+
+    public record RepeatedStatement(String sql, int count) {
+    }
+}
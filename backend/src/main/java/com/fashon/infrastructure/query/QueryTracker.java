@@ -0,0 +1,66 @@
+package com.fashon.infrastructure.query;
+
+import java.util.function.Supplier;
+
+/**
+ * Đếm câu SQL theo thread. Mở phạm vi bằng begin(), các câu SQL Hibernate chuẩn bị chạy
+ * trên thread đó (qua SqlStatementInspector) được ghi vào QueryStats tới khi end().
+ * Ngoài phạm vi thì không đếm gì.
+ */
+public final class QueryTracker {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private QueryTracker() {
+    }
+
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static QueryStats end() {
+        QueryStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Chạy action và trả về số liệu SQL của riêng nó, dùng trong test service/repository.
+     */
+    public static QueryStats count(Runnable action) {
+        return capture(() -> {
+            action.run();
+            return null;
+        }).stats();
+    }
+
+    public static <T> Captured<T> capture(Supplier<T> action) {
+        QueryStats outer = CURRENT.get();
+        QueryStats stats = begin();
+        try {
+            return new Captured<>(action.get(), stats);
+        } finally {
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    static void record(String sql) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.record(sql);
+        }
+    }
+
+    public record Captured<T>(T result, QueryStats stats) {
+    }
+}
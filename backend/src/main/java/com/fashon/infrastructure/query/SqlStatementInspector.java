@@ -0,0 +1,15 @@
+package com.fashon.infrastructure.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Được Hibernate gọi trước mỗi câu SQL được prepare; chỉ đếm, không sửa SQL.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryTracker.record(sql);
+        return sql;
+    }
+}
@@ -17,4 +17,8 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.items ci LEFT JOIN FETCH ci.variant cv LEFT JOIN FETCH cv.product WHERE c.user.id = :userId")
     Optional<Cart> findByUserIdWithItems(@Param("userId") Long userId);
+
+    // Chỉ fetch items (không kèm variant/product) để dựng CartSnapshot
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.user.id = :userId")
+    Optional<Cart> findByUserIdFetchItems(@Param("userId") Long userId);
 }
@@ -0,0 +1,43 @@
+package com.fashon.infrastructure.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Vị trí của dòng cuối trang trước khi phân trang theo (created_at DESC, id DESC).
+ * Client chỉ thấy chuỗi base64url, không cần hiểu nội dung.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    public static final Sort SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null nếu cursor rỗng (trang đầu)
+     * @throws IllegalArgumentException nếu cursor sai định dạng
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
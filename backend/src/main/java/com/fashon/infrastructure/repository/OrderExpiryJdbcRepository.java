@@ -0,0 +1,117 @@
+package com.fashon.infrastructure.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hủy đơn chuyển khoản quá hạn bằng các câu lệnh set-based cho cả batch:
+ * mỗi bước là 1 câu SQL, không nạp entity và không phụ thuộc số đơn trong batch.
+ * Trạng thái ghi trực tiếp theo giá trị trong DB (orders.status chữ thường, payments.status chữ hoa).
+ */
+@Repository
+public class OrderExpiryJdbcRepository {
+
+    // Đơn PENDING có payment chuyển khoản PENDING, chưa có payment PAID hay COD (COD chờ giao hàng, không hết hạn)
+    private static final String CANDIDATES_SQL =
+            "SELECT TOP (:limit) o.id, o.created_at FROM orders o " +
+            "WHERE o.status = 'pending' AND o.deleted_at IS NULL AND o.created_at < :cutoff %s" +
+            "AND EXISTS (SELECT 1 FROM payments p WHERE p.order_id = o.id AND p.deleted_at IS NULL " +
+            "AND p.status = 'PENDING' AND p.method = 'BANK_TRANSFER') " +
+            "AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.order_id = o.id AND p.deleted_at IS NULL " +
+            "AND (p.status = 'PAID' OR p.method = 'COD')) " +
+            "ORDER BY o.created_at, o.id";
+
+    private static final String AFTER_CURSOR =
+            "AND (o.created_at > :afterCreatedAt OR (o.created_at = :afterCreatedAt AND o.id > :afterId)) ";
+
+    // Kiểm tra lại điều kiện khi cập nhật: payment có thể vừa được xác nhận sau lúc chọn
+    private static final String CANCEL_ORDERS_SQL =
+            "UPDATE o SET o.status = 'cancelled', o.updated_at = :now OUTPUT inserted.id FROM orders o " +
+            "WHERE o.id IN (:ids) AND o.status = 'pending' AND o.deleted_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM payments p WHERE p.order_id = o.id AND p.deleted_at IS NULL " +
+            "AND p.status = 'PAID')";
+
+    private static final String FAIL_PAYMENTS_SQL =
+            "UPDATE payments SET status = 'FAILED', notes = :reason, updated_at = :now " +
+            "WHERE order_id IN (:ids) AND status = 'PENDING' AND deleted_at IS NULL";
+
+    // Lượng còn phải hoàn của từng (đơn, variant) = tổng qty_change đã ghi cho đơn đó, lấy số âm
+    private static final String OUTSTANDING_SQL =
+            "SELECT order_id, variant_id, -SUM(qty_change) AS qty FROM inventory_transactions " +
+            "WHERE order_id IN (:ids) AND deleted_at IS NULL GROUP BY order_id, variant_id HAVING SUM(qty_change) < 0";
+
+    private static final String RESTORE_STOCK_SQL =
+            "UPDATE pv SET pv.stock_quantity = pv.stock_quantity + r.qty, pv.updated_at = :now OUTPUT inserted.id " +
+            "FROM product_variants pv JOIN (SELECT variant_id, SUM(qty) AS qty FROM (" + OUTSTANDING_SQL + ") x " +
+            "GROUP BY variant_id) r ON r.variant_id = pv.id";
+
+    // Chạy sau RESTORE_STOCK_SQL: tồn kho sau từng dòng = tồn cuối trừ phần hoàn của các đơn đứng sau nó
+    private static final String LOG_RESTORE_SQL =
+            "INSERT INTO inventory_transactions (variant_id, qty_change, current_stock_after, reason, order_id, created_at, updated_at) " +
+            "SELECT r.variant_id, r.qty, pv.stock_quantity - ISNULL(SUM(r.qty) OVER (PARTITION BY r.variant_id ORDER BY r.order_id " +
+            "ROWS BETWEEN 1 FOLLOWING AND UNBOUNDED FOLLOWING), 0), :reason, r.order_id, :now, :now " +
+            "FROM (" + OUTSTANDING_SQL + ") r JOIN product_variants pv ON pv.id = r.variant_id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OrderExpiryJdbcRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Đơn quá hạn tiếp theo sau cursor (createdAt, id), theo thứ tự tạo. after = null ở batch đầu.
+     */
+    public List<ExpiredOrder> findExpired(LocalDateTime cutoff, ExpiredOrder after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("cutoff", Timestamp.valueOf(cutoff));
+        if (after != null) {
+            params.addValue("afterCreatedAt", Timestamp.valueOf(after.createdAt()))
+                    .addValue("afterId", after.id());
+        }
+        return jdbcTemplate.query(String.format(CANDIDATES_SQL, after != null ? AFTER_CURSOR : ""), params,
+                (rs, i) -> new ExpiredOrder(rs.getLong("id"), rs.getTimestamp("created_at").toLocalDateTime()));
+    }
+
+    /**
+     * @return id các đơn thực sự chuyển sang cancelled
+     */
+    public List<Long> cancelOrders(List<Long> orderIds, LocalDateTime now) {
+        return jdbcTemplate.queryForList(CANCEL_ORDERS_SQL, new MapSqlParameterSource()
+                .addValue("ids", orderIds)
+                .addValue("now", Timestamp.valueOf(now)), Long.class);
+    }
+
+    public int failPayments(List<Long> orderIds, String reason, LocalDateTime now) {
+        return jdbcTemplate.update(FAIL_PAYMENTS_SQL, new MapSqlParameterSource()
+                .addValue("ids", orderIds)
+                .addValue("reason", reason)
+                .addValue("now", Timestamp.valueOf(now)));
+    }
+
+    /**
+     * Hoàn tồn kho đã trừ cho các đơn và ghi inventory_transactions tương ứng.
+     *
+     * @return id các variant đã thay đổi tồn kho
+     */
+    public List<Long> restoreStock(List<Long> orderIds, String reason, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", orderIds)
+                .addValue("reason", reason)
+                .addValue("now", Timestamp.valueOf(now));
+        List<Long> variantIds = jdbcTemplate.queryForList(RESTORE_STOCK_SQL, params, Long.class);
+        if (!variantIds.isEmpty()) {
+            jdbcTemplate.update(LOG_RESTORE_SQL, params);
+        }
+        return variantIds;
+    }
+
+    public record ExpiredOrder(long id, LocalDateTime createdAt) {
+    }
+}
@@ -2,13 +2,16 @@ package com.fashon.infrastructure.repository;
 
 import com.fashon.domain.entity.Order;
 import com.fashon.domain.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +22,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Optional<Order> findByOrderCodeAndUserId(String orderCode, Long userId);
 
+    // Khóa đơn trước payment, cùng thứ tự với job hủy đơn quá hạn (OrderExpiryJdbcRepository)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderCode = :orderCode")
+    Optional<Order> findForUpdateByOrderCode(@Param("orderCode") String orderCode);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderCode IN :orderCodes ORDER BY o.id")
+    List<Order> findForUpdateByOrderCodes(@Param("orderCodes") Collection<String> orderCodes);
+
     @Query(value = "SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items LEFT JOIN FETCH o.user WHERE o.user.id = :userId AND o.deletedAt IS NULL",
            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId AND o.deletedAt IS NULL")
     Page<Order> findByUserIdWithItems(@Param("userId") Long userId, Pageable pageable);
@@ -0,0 +1,35 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.PaymentNotificationBatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentNotificationBatchRepository extends JpaRepository<PaymentNotificationBatch, Long> {
+
+    // Nhận quyền xử lý batch: chỉ một worker (trên mọi node) chuyển được RECEIVED -> PROCESSING.
+    // Batch PROCESSING quá lâu (worker chết giữa chừng) được nhận lại.
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentNotificationBatch b SET b.status = com.fashon.domain.enums.NotificationBatchStatus.PROCESSING, " +
+           "b.attempts = b.attempts + 1, b.updatedAt = :now " +
+           "WHERE b.id = :id AND (b.status = com.fashon.domain.enums.NotificationBatchStatus.RECEIVED " +
+           "OR (b.status = com.fashon.domain.enums.NotificationBatchStatus.PROCESSING AND b.updatedAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Query("SELECT b.id FROM PaymentNotificationBatch b " +
+           "WHERE (b.status = com.fashon.domain.enums.NotificationBatchStatus.RECEIVED AND b.updatedAt < :receivedBefore) " +
+           "OR (b.status = com.fashon.domain.enums.NotificationBatchStatus.PROCESSING AND b.updatedAt < :staleBefore) " +
+           "ORDER BY b.id")
+    List<Long> findIdsToRetry(@Param("receivedBefore") LocalDateTime receivedBefore,
+                              @Param("staleBefore") LocalDateTime staleBefore,
+                              Pageable pageable);
+}
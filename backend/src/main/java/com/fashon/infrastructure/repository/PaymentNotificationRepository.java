@@ -0,0 +1,13 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.PaymentNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentNotificationRepository extends JpaRepository<PaymentNotification, Long>, PaymentNotificationRepositoryCustom {
+
+    List<PaymentNotification> findByBatchIdOrderByIdAsc(Long batchId);
+}
@@ -0,0 +1,14 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.PaymentNotification;
+
+import java.util.List;
+
+public interface PaymentNotificationRepositoryCustom {
+
+    /**
+     * Ghi toàn bộ notification của một batch bằng một JDBC batch
+     * (id IDENTITY làm Hibernate không gom được INSERT).
+     */
+    void insertAll(Long batchId, List<PaymentNotification> notifications);
+}
@@ -0,0 +1,38 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.PaymentNotification;
+import com.fashon.domain.enums.PaymentNotificationStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class PaymentNotificationRepositoryImpl implements PaymentNotificationRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO payment_notifications (batch_id, order_code, transaction_code, amount, notes, status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PaymentNotificationRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void insertAll(Long batchId, List<PaymentNotification> notifications) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, notifications, notifications.size(), (ps, notification) -> {
+            ps.setLong(1, batchId);
+            ps.setString(2, notification.getOrderCode());
+            ps.setString(3, notification.getTransactionCode());
+            ps.setBigDecimal(4, notification.getAmount());
+            ps.setString(5, notification.getNotes());
+            ps.setString(6, PaymentNotificationStatus.RECEIVED.name());
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.Order;
+import com.fashon.domain.entity.Payment;
+import com.fashon.domain.enums.PaymentMethod;
+import com.fashon.domain.enums.PaymentStatus;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Điều kiện cho query payment của admin, ghép lại thành một query duy nhất.
+ * Tham số null thì trả về null, Specification.and(...) sẽ bỏ qua điều kiện đó.
+ * Lọc status + method + created_at dùng index ix_payments_status_method_created (V5).
+ */
+public final class PaymentSpecifications {
+
+    private PaymentSpecifications() {
+    }
+
+    /**
+     * Fetch order cùng query để map DTO không phát sinh N+1. Không fetch trong query count.
+     */
+    public static Specification<Payment> fetchOrder() {
+        return (root, query, cb) -> {
+            if (Payment.class.equals(query.getResultType())) {
+                root.fetch("order", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Payment> hasStatus(PaymentStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Payment> hasMethod(PaymentMethod method) {
+        return method == null ? null : (root, query, cb) -> cb.equal(root.get("method"), method);
+    }
+
+    public static Specification<Payment> amountAtLeast(BigDecimal min) {
+        return min == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amount"), min);
+    }
+
+    public static Specification<Payment> amountAtMost(BigDecimal max) {
+        return max == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amount"), max);
+    }
+
+    public static Specification<Payment> createdFrom(LocalDateTime from) {
+        return from == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), from);
+    }
+
+    public static Specification<Payment> createdBefore(LocalDateTime to) {
+        return to == null ? null : (root, query, cb) -> cb.lessThan(root.get("createdAt"), to);
+    }
+
+    public static Specification<Payment> orderCodeStartsWith(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        String pattern = escapeLike(prefix.trim()) + "%";
+        return (root, query, cb) -> cb.like(order(root).get("orderCode"), pattern, '\\');
+    }
+
+    /**
+     * Các dòng đứng sau cursor theo thứ tự (created_at DESC, id DESC).
+     */
+    public static Specification<Payment> after(KeysetCursor cursor) {
+        return cursor == null ? null : (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                cb.and(
+                        cb.equal(root.get("createdAt"), cursor.createdAt()),
+                        cb.lessThan(root.get("id"), cursor.id())));
+    }
+
+    // Dùng lại join do fetchOrder() tạo (nếu có) để không join orders 2 lần
+    @SuppressWarnings("unchecked")
+    private static From<Payment, Order> order(Root<Payment> root) {
+        for (Fetch<Payment, ?> fetch : root.getFetches()) {
+            if (fetch.getAttribute().getName().equals("order") && fetch instanceof Join<?, ?>) {
+                return (From<Payment, Order>) fetch;
+            }
+        }
+        for (Join<Payment, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals("order")) {
+                return (From<Payment, Order>) join;
+            }
+        }
+        return root.join("order", JoinType.INNER);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_").replace("[", "\\[");
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +31,24 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     void deleteByProductId(Long productId);
 
     List<ProductImage> findByProductId(Long productId);
+
+    // Ảnh đại diện của nhiều sản phẩm: ảnh primary trước, sau đó theo sort_order; lấy dòng đầu mỗi sản phẩm
+    @Query("SELECT pi.product.id AS productId, pi.imageUrl AS imageUrl, pi.cardUrl AS cardUrl FROM ProductImage pi " +
+           "WHERE pi.product.id IN :productIds ORDER BY pi.product.id, pi.isPrimary DESC, pi.sortOrder ASC, pi.id ASC")
+    List<ProductImageRow> findImageRowsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    interface ProductImageRow {
+        Long getProductId();
+        String getImageUrl();
+        String getCardUrl();
+    }
+
+    // Bulk update nên Hibernate tự invalidate region cache catalog.product-image
+    @Modifying
+    @Query("UPDATE ProductImage pi SET pi.thumbnailUrl = :thumbnailUrl, pi.cardUrl = :cardUrl, pi.detailUrl = :detailUrl " +
+           "WHERE pi.imageUrl = :imageUrl AND (pi.detailUrl IS NULL OR pi.detailUrl <> :detailUrl)")
+    int updateDerivativeUrls(@Param("imageUrl") String imageUrl,
+                             @Param("thumbnailUrl") String thumbnailUrl,
+                             @Param("cardUrl") String cardUrl,
+                             @Param("detailUrl") String detailUrl);
 }
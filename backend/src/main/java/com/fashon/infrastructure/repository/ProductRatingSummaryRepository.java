@@ -0,0 +1,44 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.ProductRatingSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductRatingSummaryRepository extends JpaRepository<ProductRatingSummary, Long> {
+
+    Optional<ProductRatingSummary> findByProductId(Long productId);
+
+    List<ProductRatingSummary> findByProductIdIn(Collection<Long> productIds);
+
+    // Cộng dồn thay đổi vào dòng tổng hợp (tạo dòng nếu chưa có) trong 1 câu lệnh.
+    // HOLDLOCK để 2 review đầu tiên của cùng sản phẩm ghi song song không tạo 2 dòng.
+    // Gọi trong transaction ghi review để tổng hợp luôn khớp với product_reviews.
+    // Khai báo bảng bị ghi: native query không khai báo thì Hibernate coi như ghi mọi bảng và xóa sạch L2 cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_rating_summaries"))
+    @Query(value = "MERGE product_rating_summaries WITH (HOLDLOCK) AS s " +
+           "USING (SELECT :productId AS product_id) AS src ON s.product_id = src.product_id AND s.deleted_at IS NULL " +
+           "WHEN MATCHED THEN UPDATE SET rating_count = s.rating_count + :countDelta, rating_sum = s.rating_sum + :sumDelta, " +
+           "star_1 = s.star_1 + :star1, star_2 = s.star_2 + :star2, star_3 = s.star_3 + :star3, " +
+           "star_4 = s.star_4 + :star4, star_5 = s.star_5 + :star5, updated_at = :now " +
+           "WHEN NOT MATCHED THEN INSERT (product_id, rating_count, rating_sum, star_1, star_2, star_3, star_4, star_5, created_at, updated_at) " +
+           "VALUES (:productId, :countDelta, :sumDelta, :star1, :star2, :star3, :star4, :star5, :now, :now);",
+           nativeQuery = true)
+    int applyDelta(@Param("productId") Long productId,
+                   @Param("countDelta") long countDelta, @Param("sumDelta") long sumDelta,
+                   @Param("star1") long star1, @Param("star2") long star2, @Param("star3") long star3,
+                   @Param("star4") long star4, @Param("star5") long star5,
+                   @Param("now") LocalDateTime now);
+}
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,4 +42,22 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     Long sumStockQuantityByProductId(@Param("productId") Long productId);
 
     Optional<ProductVariant> findBySkuAndProductId(String sku, Long productId);
+
+    // Lấy nhiều variant kèm product + images trong 1 query (tránh N+1 khi map giỏ hàng)
+    @Query("SELECT DISTINCT pv FROM ProductVariant pv JOIN FETCH pv.product p LEFT JOIN FETCH p.images WHERE pv.id IN :ids")
+    List<ProductVariant> findAllWithProductByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Khoảng giá và số variant còn hàng của nhiều sản phẩm trong 1 query (card sản phẩm)
+    @Query("SELECT pv.product.id AS productId, MIN(COALESCE(pv.priceAdjustment, 0)) AS minAdjustment, " +
+           "MAX(COALESCE(pv.priceAdjustment, 0)) AS maxAdjustment, " +
+           "SUM(CASE WHEN pv.isAvailable = true AND pv.stockQuantity > 0 THEN 1 ELSE 0 END) AS availableVariants " +
+           "FROM ProductVariant pv WHERE pv.product.id IN :productIds GROUP BY pv.product.id")
+    List<VariantSummaryRow> summarizeByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    interface VariantSummaryRow {
+        Long getProductId();
+        BigDecimal getMinAdjustment();
+        BigDecimal getMaxAdjustment();
+        Long getAvailableVariants();
+    }
 }
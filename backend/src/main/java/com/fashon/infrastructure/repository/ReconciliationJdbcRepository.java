@@ -0,0 +1,95 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.enums.DiscrepancyType;
+import com.fashon.domain.enums.OrderStatus;
+import com.fashon.domain.enums.PaymentMethod;
+import com.fashon.domain.enums.PaymentStatus;
+import com.fashon.infrastructure.converter.OrderStatusConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Đọc orders / payments theo keyset từng đoạn cố định cho job đối soát.
+ * Chỉ lấy các cột cần thiết, không qua persistence context nên bộ nhớ không tăng theo kích thước bảng.
+ */
+@Repository
+public class ReconciliationJdbcRepository {
+
+    private static final String ORDERS_SQL =
+            "SELECT TOP (?) id, order_code, total, status FROM orders " +
+            "WHERE deleted_at IS NULL AND id > ? ORDER BY id";
+
+    // Dùng index ix_payments_order_id (V7)
+    private static final String PAYMENTS_SQL =
+            "SELECT TOP (?) id, order_id, method, amount, status FROM payments " +
+            "WHERE deleted_at IS NULL AND (order_id > ? OR (order_id = ? AND id > ?)) ORDER BY order_id, id";
+
+    private static final String INSERT_DISCREPANCY_SQL =
+            "INSERT INTO reconciliation_discrepancies " +
+            "(run_id, type, order_id, order_code, payment_id, expected_amount, actual_amount, details, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final OrderStatusConverter ORDER_STATUS = new OrderStatusConverter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReconciliationJdbcRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public List<OrderRow> findOrdersAfter(long orderId, int limit) {
+        return jdbcTemplate.query(ORDERS_SQL, (rs, i) -> new OrderRow(
+                rs.getLong("id"),
+                rs.getString("order_code"),
+                rs.getBigDecimal("total"),
+                ORDER_STATUS.convertToEntityAttribute(rs.getString("status"))), limit, orderId);
+    }
+
+    /**
+     * Payment đứng sau (orderId, paymentId) theo thứ tự (order_id, id).
+     */
+    public List<PaymentRow> findPaymentsAfter(long orderId, long paymentId, int limit) {
+        return jdbcTemplate.query(PAYMENTS_SQL, (rs, i) -> new PaymentRow(
+                rs.getLong("id"),
+                rs.getLong("order_id"),
+                PaymentMethod.valueOf(rs.getString("method")),
+                rs.getBigDecimal("amount"),
+                PaymentStatus.valueOf(rs.getString("status"))), limit, orderId, orderId, paymentId);
+    }
+
+    public void insertDiscrepancies(Long runId, List<DiscrepancyRow> discrepancies) {
+        if (discrepancies.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_DISCREPANCY_SQL, discrepancies, discrepancies.size(), (ps, row) -> {
+            ps.setLong(1, runId);
+            ps.setString(2, row.type().name());
+            ps.setObject(3, row.orderId(), Types.BIGINT);
+            ps.setString(4, row.orderCode());
+            ps.setObject(5, row.paymentId(), Types.BIGINT);
+            ps.setBigDecimal(6, row.expectedAmount());
+            ps.setBigDecimal(7, row.actualAmount());
+            ps.setString(8, row.details());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+    }
+
+    public record OrderRow(long id, String orderCode, BigDecimal total, OrderStatus status) {
+    }
+
+    public record PaymentRow(long id, long orderId, PaymentMethod method, BigDecimal amount, PaymentStatus status) {
+    }
+
+    public record DiscrepancyRow(DiscrepancyType type, Long orderId, String orderCode, Long paymentId,
+                                 BigDecimal expectedAmount, BigDecimal actualAmount, String details) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+
+    Optional<ReconciliationRun> findFirstByOrderByIdDesc();
+
+    List<ReconciliationRun> findTop20ByOrderByIdDesc();
+
+    // Nhận lại lần chạy lỗi hoặc lần chạy mất heartbeat để tiếp tục từ checkpoint
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.status = com.fashon.domain.enums.ReconciliationRunStatus.RUNNING, " +
+           "r.lastError = NULL, r.updatedAt = :now " +
+           "WHERE r.id = :id AND (r.status = com.fashon.domain.enums.ReconciliationRunStatus.FAILED " +
+           "OR (r.status = com.fashon.domain.enums.ReconciliationRunStatus.RUNNING AND r.updatedAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.lastOrderId = :lastOrderId, " +
+           "r.ordersChecked = r.ordersChecked + :orders, r.paymentsChecked = r.paymentsChecked + :payments, " +
+           "r.discrepancies = r.discrepancies + :discrepancies, r.updatedAt = :now WHERE r.id = :id")
+    int checkpoint(@Param("id") Long id, @Param("lastOrderId") Long lastOrderId,
+                   @Param("orders") long orders, @Param("payments") long payments,
+                   @Param("discrepancies") long discrepancies, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.status = com.fashon.domain.enums.ReconciliationRunStatus.COMPLETED, " +
+           "r.completedAt = :now, r.updatedAt = :now WHERE r.id = :id")
+    int complete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReconciliationRun r SET r.status = com.fashon.domain.enums.ReconciliationRunStatus.FAILED, " +
+           "r.lastError = :error, r.updatedAt = :now WHERE r.id = :id")
+    int fail(@Param("id") Long id, @Param("error") String error, @Param("now") LocalDateTime now);
+}
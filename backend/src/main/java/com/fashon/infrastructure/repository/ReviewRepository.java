@@ -1,20 +1,32 @@
 package com.fashon.infrastructure.repository;
 
 import com.fashon.domain.entity.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
-    // Lấy danh sách review của sản phẩm, mới nhất trước
-    @Query("SELECT r FROM Review r LEFT JOIN FETCH r.user WHERE r.product.id = :productId AND r.deletedAt IS NULL ORDER BY r.createdAt DESC")
-    List<Review> findByProductIdOrderByCreatedAtDesc(@Param("productId") Long productId);
+    // Trang đầu của feed review, theo (created_at DESC, id DESC) - dùng index ix_reviews_product_created
+    @Query("SELECT r FROM Review r JOIN FETCH r.user WHERE r.product.id = :productId " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findFeedByProductId(@Param("productId") Long productId, Pageable pageable);
+
+    // Các trang sau: keyset từ dòng cuối trang trước
+    @Query("SELECT r FROM Review r JOIN FETCH r.user WHERE r.product.id = :productId " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Review> findFeedByProductIdAfter(@Param("productId") Long productId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
 
     // Check xem user đã review sản phẩm này chưa
     Optional<Review> findByUserIdAndProductId(Long userId, Long productId);
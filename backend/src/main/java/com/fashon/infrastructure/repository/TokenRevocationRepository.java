@@ -0,0 +1,18 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    // Các thu hồi ghi từ thời điểm since (dùng cho lần nạp đầu và polling tăng dần)
+    @Query("SELECT t FROM TokenRevocation t WHERE t.createdAt >= :since ORDER BY t.id ASC")
+    List<TokenRevocation> findCreatedSince(@Param("since") LocalDateTime since);
+}
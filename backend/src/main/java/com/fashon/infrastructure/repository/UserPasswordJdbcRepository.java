@@ -0,0 +1,32 @@
+package com.fashon.infrastructure.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+
+/**
+ * Ghi hash mật khẩu mới (nâng work factor) bằng JDBC thay vì bulk UPDATE của JPA:
+ * bulk UPDATE trên User làm Hibernate xóa cả region "user" của second-level cache,
+ * ở đây người gọi chỉ bỏ entry của đúng user đó.
+ */
+@Repository
+public class UserPasswordJdbcRepository {
+
+    // Chỉ thay hash khi hash cũ chưa đổi, tránh ghi đè mật khẩu vừa được đổi ở request khác
+    private static final String UPDATE_HASH_SQL =
+            "UPDATE users SET password_hash = ? WHERE id = ? AND password_hash = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserPasswordJdbcRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @return số dòng được cập nhật, 0 nếu mật khẩu đã đổi từ lúc đọc oldHash
+     */
+    public int updatePasswordHash(Long id, String oldHash, String newHash) {
+        return jdbcTemplate.update(UPDATE_HASH_SQL, newHash, id, oldHash);
+    }
+}
@@ -0,0 +1,48 @@
+package com.fashon.infrastructure.repository;
+
+import com.fashon.domain.entity.UserProductPurchase;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserProductPurchaseRepository extends JpaRepository<UserProductPurchase, Long> {
+
+    // Quyền đánh giá: 1 index seek trên ix_user_product_purchases_user_product
+    boolean existsByUserIdAndProductId(Long userId, Long productId);
+
+    // Ghi nhận các sản phẩm trong đơn. Lấy product/variant từ order_items; đơn cũ chưa có cột này
+    // thì lấy từ inventory_transactions trừ kho lúc đặt hàng. Chạy lại nhiều lần không tạo dòng trùng.
+    // Chỉ ghi user_product_purchases: khai báo để Hibernate không xóa cả L2 cache (catalog, user) sau mỗi lần chạy
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_product_purchases"))
+    @Query(value = "INSERT INTO user_product_purchases (user_id, product_id, variant_id, order_id, created_at, updated_at) " +
+           "SELECT src.user_id, src.product_id, src.variant_id, src.order_id, :now, :now FROM (" +
+           "SELECT o.user_id, oi.product_id, oi.variant_id, o.id AS order_id FROM orders o " +
+           "JOIN order_items oi ON oi.order_id = o.id AND oi.deleted_at IS NULL " +
+           "WHERE o.id IN (:orderIds) AND oi.variant_id IS NOT NULL " +
+           "UNION " +
+           "SELECT o.user_id, pv.product_id, it.variant_id, o.id FROM orders o " +
+           "JOIN inventory_transactions it ON it.order_id = o.id AND it.qty_change < 0 AND it.deleted_at IS NULL " +
+           "JOIN product_variants pv ON pv.id = it.variant_id " +
+           "WHERE o.id IN (:orderIds) AND NOT EXISTS (SELECT 1 FROM order_items oi " +
+           "WHERE oi.order_id = o.id AND oi.variant_id IS NOT NULL AND oi.deleted_at IS NULL)" +
+           ") src WHERE NOT EXISTS (SELECT 1 FROM user_product_purchases p " +
+           "WHERE p.order_id = src.order_id AND p.variant_id = src.variant_id)",
+           nativeQuery = true)
+    int recordOrders(@Param("orderIds") Collection<Long> orderIds, @Param("now") LocalDateTime now);
+
+    // Đơn đã giao theo thứ tự id, cho job backfill
+    @Query(value = "SELECT TOP (:limit) CAST(id AS BIGINT) FROM orders WHERE status IN ('delivered', 'completed') " +
+           "AND deleted_at IS NULL AND id > :afterId ORDER BY id", nativeQuery = true)
+    List<Long> findDeliveredOrderIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+}
@@ -1,21 +1,49 @@
 package com.fashon.infrastructure.repository;
 
 import com.fashon.domain.entity.Wishlist;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
 
-    // Lấy tất cả wishlist của user kèm product (để tránh N+1)
+    /**
+     * @deprecated nạp cả product + images, dùng {@link #findCards} / {@link #findCardsAfter} cho danh sách wishlist
+     */
+    @Deprecated
     @Query("SELECT w FROM Wishlist w LEFT JOIN FETCH w.product p LEFT JOIN FETCH p.images LEFT JOIN FETCH p.category WHERE w.user.id = :userId AND w.deletedAt IS NULL ORDER BY w.createdAt DESC")
     List<Wishlist> findByUserIdWithProduct(@Param("userId") Long userId);
 
+    // Trang đầu wishlist dạng card, chỉ lấy cột cần hiển thị, theo (created_at DESC, id DESC)
+    @Query("SELECT w.id AS wishlistId, w.createdAt AS addedAt, p.id AS productId, p.name AS name, p.slug AS slug, " +
+           "p.basePrice AS basePrice, p.isVisible AS visible " +
+           "FROM Wishlist w JOIN w.product p WHERE w.user.id = :userId AND w.deletedAt IS NULL AND p.deletedAt IS NULL " +
+           "ORDER BY w.createdAt DESC, w.id DESC")
+    List<WishlistCardRow> findCards(@Param("userId") Long userId, Pageable pageable);
+
+    // Các trang sau: keyset từ dòng cuối trang trước
+    @Query("SELECT w.id AS wishlistId, w.createdAt AS addedAt, p.id AS productId, p.name AS name, p.slug AS slug, " +
+           "p.basePrice AS basePrice, p.isVisible AS visible " +
+           "FROM Wishlist w JOIN w.product p WHERE w.user.id = :userId AND w.deletedAt IS NULL AND p.deletedAt IS NULL " +
+           "AND (w.createdAt < :createdAt OR (w.createdAt = :createdAt AND w.id < :id)) " +
+           "ORDER BY w.createdAt DESC, w.id DESC")
+    List<WishlistCardRow> findCardsAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    // Toàn bộ product id trong wishlist của user (WishlistMembershipCache)
+    @Query("SELECT w.product.id FROM Wishlist w WHERE w.user.id = :userId AND w.deletedAt IS NULL")
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
     // Lấy wishlist theo user và product (để check tồn tại)
     Optional<Wishlist> findByUserIdAndProductId(Long userId, Long productId);
 
@@ -27,4 +55,14 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
 
     // Đếm số lượng wishlist của user
     long countByUserId(Long userId);
+
+    interface WishlistCardRow {
+        Long getWishlistId();
+        LocalDateTime getAddedAt();
+        Long getProductId();
+        String getName();
+        String getSlug();
+        BigDecimal getBasePrice();
+        Boolean getVisible();
+    }
 }
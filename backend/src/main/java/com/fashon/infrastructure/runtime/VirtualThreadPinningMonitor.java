@@ -0,0 +1,173 @@
+package com.fashon.infrastructure.runtime;
+
+import com.fashon.infrastructure.config.VirtualThreadConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Theo dõi virtual thread bị ghim vào carrier thread (block trong synchronized, native frame,
+ * monitor của JDBC driver...) bằng event JFR jdk.VirtualThreadPinned, đọc trực tiếp trong process.
+ *
+ * - Mỗi vị trí ghim (stack rút gọn) được gom lại: số lần, tổng và max thời gian; lần đầu gặp thì log WARN kèm stack.
+ * - Metric jvm.threads.virtual.pinned (timer) để theo dõi trên dashboard.
+ * - snapshot() dùng cho API admin, vị trí tốn nhiều thời gian nhất đứng đầu.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "spring.threads.virtual", name = "enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final VirtualThreadConfig config;
+    private final Timer pinnedTimer;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private final LongAdder droppedSites = new LongAdder();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(VirtualThreadConfig config, MeterRegistry registry) {
+        this.config = config;
+        this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isMonitor()) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT)
+                .withThreshold(Duration.ofMillis(config.getThresholdMs()))
+                .withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", config.getThresholdMs());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    public List<SiteSnapshot> snapshot() {
+        return sites.values().stream()
+                .map(Site::snapshot)
+                .sorted(Comparator.comparingDouble(SiteSnapshot::totalMs).reversed())
+                .toList();
+    }
+
+    public long getDroppedSites() {
+        return droppedSites.sum();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        Duration duration = event.getDuration();
+        pinnedTimer.record(duration);
+
+        List<String> frames = frames(event.getStackTrace());
+        String key = String.join("\n", frames);
+        Site site = sites.get(key);
+        if (site == null) {
+            if (sites.size() >= config.getMaxSites()) {
+                droppedSites.increment();
+                return;
+            }
+            Site created = new Site(frames);
+            site = sites.putIfAbsent(key, created);
+            if (site == null) {
+                site = created;
+                log.warn("Virtual thread {} pinned for {} ms\n\tat {}",
+                        threadName(event.getThread("eventThread")), duration.toMillis(), String.join("\n\tat ", frames));
+            }
+        }
+        site.record(duration);
+    }
+
+    private List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of("<no stack trace>");
+        }
+        return stackTrace.getFrames().stream()
+                .limit(config.getMaxStackFrames())
+                .map(VirtualThreadPinningMonitor::describe)
+                .toList();
+    }
+
+    private static String threadName(RecordedThread thread) {
+        if (thread == null) {
+            return "unknown";
+        }
+        // Virtual thread thường không có tên
+        String name = thread.getJavaName();
+        return name != null && !name.isEmpty() ? name : "#" + thread.getJavaThreadId();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+
+    private static final class Site {
+
+        private final List<String> frames;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLong lastSeenMillis = new AtomicLong();
+
+        private Site(List<String> frames) {
+            this.frames = frames;
+        }
+
+        private void record(Duration duration) {
+            count.increment();
+            totalNanos.add(duration.toNanos());
+            maxNanos.accumulate(duration.toNanos());
+            lastSeenMillis.set(System.currentTimeMillis());
+        }
+
+        private SiteSnapshot snapshot() {
+            return new SiteSnapshot(
+                    frames,
+                    count.sum(),
+                    totalNanos.sum() / 1_000_000.0,
+                    maxNanos.get() / 1_000_000.0,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(lastSeenMillis.get()),
+                            ZoneId.systemDefault()));
+        }
+    }
+
+    public record SiteSnapshot(List<String> stack, long count, double totalMs, double maxMs, LocalDateTime lastSeen) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.fashon.infrastructure.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Khóa theo tên trên bảng scheduler_locks để job @Scheduled chỉ chạy trên một node tại một thời điểm.
+ *
+ * - Lấy khóa = UPDATE có điều kiện locked_until đã qua (hoặc INSERT lần đầu), nên chỉ một node thắng.
+ * - Khóa có hạn lockAtMost: node chết khi đang giữ khóa thì node khác lấy lại được sau thời gian này.
+ *   Job chạy lâu gọi extend() sau mỗi batch thay vì đặt lockAtMost thật dài.
+ * - So sánh bằng giờ của DB server nên không phụ thuộc lệch đồng hồ giữa các node.
+ * - Chạy ngoài transaction của job (auto-commit), khóa có hiệu lực ngay với các node khác.
+ */
+@Slf4j
+@Component
+public class SchedulerLock {
+
+    private static final String ACQUIRE_SQL =
+            "UPDATE scheduler_locks SET locked_until = DATEADD(SECOND, ?, SYSDATETIME()), " +
+            "locked_at = SYSDATETIME(), locked_by = ? WHERE name = ? AND locked_until <= SYSDATETIME()";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO scheduler_locks (name, locked_until, locked_at, locked_by) " +
+            "VALUES (?, DATEADD(SECOND, ?, SYSDATETIME()), SYSDATETIME(), ?)";
+
+    // Chỉ gia hạn khóa mình đang giữ và chưa hết hạn (hết hạn thì node khác có thể đã lấy)
+    private static final String EXTEND_SQL =
+            "UPDATE scheduler_locks SET locked_until = DATEADD(SECOND, ?, SYSDATETIME()) " +
+            "WHERE name = ? AND locked_by = ? AND locked_until > SYSDATETIME()";
+
+    private static final String RELEASE_SQL =
+            "UPDATE scheduler_locks SET locked_until = SYSDATETIME() WHERE name = ? AND locked_by = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName(); // pid@host
+
+    public SchedulerLock(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public boolean tryAcquire(String name, Duration lockAtMost) {
+        long seconds = Math.max(1, lockAtMost.toSeconds());
+        if (jdbcTemplate.update(ACQUIRE_SQL, seconds, owner, name) > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(INSERT_SQL, name, seconds, owner) > 0;
+        } catch (DuplicateKeyException e) {
+            return false; // Khóa đã tồn tại và đang được node khác giữ
+        }
+    }
+
+    /**
+     * Gia hạn khóa đang giữ thêm lockAtMost tính từ bây giờ.
+     *
+     * @return false nếu khóa đã hết hạn hoặc không còn thuộc node này, job phải dừng
+     */
+    public boolean extend(String name, Duration lockAtMost) {
+        long seconds = Math.max(1, lockAtMost.toSeconds());
+        return jdbcTemplate.update(EXTEND_SQL, seconds, name, owner) > 0;
+    }
+
+    public void release(String name) {
+        try {
+            jdbcTemplate.update(RELEASE_SQL, name, owner);
+        } catch (RuntimeException e) {
+            // Khóa vẫn tự hết hạn sau lockAtMost
+            log.warn("Failed to release scheduler lock {}: {}", name, e.getMessage());
+        }
+    }
+}
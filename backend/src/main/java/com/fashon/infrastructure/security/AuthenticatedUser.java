@@ -0,0 +1,16 @@
+package com.fashon.infrastructure.security;
+
+import java.security.Principal;
+
+/**
+ * Principal của request đã xác thực. Controller nhận qua @AuthenticationPrincipal
+ * để lấy thẳng user id, không phải tra lại user theo email.
+ * getName() vẫn trả về email nên authentication.getName() giữ nguyên ý nghĩa cũ.
+ */
+public record AuthenticatedUser(Long id, String email, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
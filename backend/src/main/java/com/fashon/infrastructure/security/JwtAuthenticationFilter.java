@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -13,13 +14,21 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final UserIdentityCache identityCache;
+    private final TokenRevocationList revocationList;
+
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+    private final Map<String, List<GrantedAuthority>> authoritiesByRole = new ConcurrentHashMap<>();
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,21 +43,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String token = authHeader.substring(7);
 
-        if (!jwtUtil.validateToken(token)) {
+        // Parse + verify đúng 1 lần cho mỗi request
+        Optional<TokenClaims> claims = jwtUtil.parseToken(token);
+        if (claims.isEmpty() || claims.get().email() == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        final String email = jwtUtil.extractEmail(token);
-        final String role = jwtUtil.extractRole(token);
+        // User đã bị xóa, đổi email hoặc token đã bị thu hồi thì không xác thực
+        final AuthenticatedUser principal = identityCache.resolve(claims.get());
+        if (principal == null || revocationList.isRevoked(principal.id(), claims.get().issuedAt())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                email,
+                principal,
                 null,
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                authoritiesByRole.computeIfAbsent(principal.role(),
+                        r -> List.of(new SimpleGrantedAuthority("ROLE_" + r)))
         );
 
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        authentication.setDetails(detailsSource.buildDetails(request));
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         filterChain.doFilter(request, response);
@@ -2,66 +2,96 @@ package com.fashon.infrastructure.security;
 
 import com.fashon.infrastructure.config.JwtConfig;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
-@RequiredArgsConstructor
 public class JwtUtil {
 
+    private static final String USER_ID_CLAIM = "uid";
+
     private final JwtConfig jwtConfig;
+    private final VerifiedTokenCache tokenCache;
+
+    // Key và parser đều thread-safe nên chỉ tạo một lần
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+    public JwtUtil(JwtConfig jwtConfig, VerifiedTokenCache tokenCache) {
+        this.jwtConfig = jwtConfig;
+        this.tokenCache = tokenCache;
+        this.signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public String generateToken(String email, String role) {
+    public String generateToken(Long userId, String email, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtConfig.getExpiration());
 
         return Jwts.builder()
                 .subject(email)
+                .claim(USER_ID_CLAIM, userId)
                 .claim("role", role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return extractClaims(token).getSubject();
-    }
+    /**
+     * Parse và verify token đúng một lần (chữ ký + hạn dùng), kết quả được cache theo hash của token.
+     *
+     * @return claims nếu token hợp lệ, empty nếu sai chữ ký/hết hạn/sai định dạng
+     */
+    public Optional<TokenClaims> parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
 
-    public String extractRole(String token) {
-        return extractClaims(token).get("role", String.class);
-    }
+        String key = tokenCache.keyOf(token);
+        TokenClaims cached = tokenCache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-    public boolean validateToken(String token) {
         try {
-            extractClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            TokenClaims verified = new TokenClaims(
+                    claims.get(USER_ID_CLAIM, Long.class),
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+            tokenCache.put(key, verified);
+            return Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
-    private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public Long extractUserId(String token) {
+        return parseToken(token).map(TokenClaims::userId).orElse(null);
+    }
+
+    public String extractEmail(String token) {
+        return parseToken(token).map(TokenClaims::email).orElse(null);
+    }
+
+    public String extractRole(String token) {
+        return parseToken(token).map(TokenClaims::role).orElse(null);
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = extractClaims(token).getExpiration();
-        return expiration.before(new Date());
+    public boolean validateToken(String token) {
+        return parseToken(token).isPresent();
     }
 }
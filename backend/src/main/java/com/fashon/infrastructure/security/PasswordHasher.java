@@ -0,0 +1,154 @@
+package com.fashon.infrastructure.security;
+
+import com.fashon.infrastructure.config.PasswordHashingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Chạy BCrypt trên một pool riêng có giới hạn, không chiếm thread Tomcat.
+ *
+ * - Pool cố định app.security.password.threads, hàng đợi app.security.password.queue-capacity.
+ * - Hàng đợi đầy hoặc chờ quá max-wait-ms thì ném PasswordHashingBusyException (503) ngay,
+ *   các API khác như duyệt sản phẩm không bị ảnh hưởng khi có đợt login dồn dập.
+ * - Metrics: auth.password.hashing.queue/active (gauge), .wait/.duration (timer), .rejected (counter).
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder, PasswordHashingConfig config, MeterRegistry registry) {
+        this.passwordEncoder = passwordEncoder;
+        this.maxWaitMs = config.getMaxWaitMs();
+
+        int threads = config.getThreads() > 0 ? config.getThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(registry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(registry);
+        this.waitTimer = Timer.builder("auth.password.hashing.wait")
+                .description("Time a hashing task spent queued")
+                .register(registry);
+        this.encodeTimer = Timer.builder("auth.password.hashing.duration")
+                .tag("operation", "encode")
+                .register(registry);
+        this.matchesTimer = Timer.builder("auth.password.hashing.duration")
+                .tag("operation", "matches")
+                .register(registry);
+        this.rejectedQueueFull = Counter.builder("auth.password.hashing.rejected")
+                .tag("reason", "queue_full")
+                .register(registry);
+        this.rejectedTimeout = Counter.builder("auth.password.hashing.rejected")
+                .tag("reason", "timeout")
+                .register(registry);
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(encodeTimer, () -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Hash được tạo với work factor thấp hơn cấu hình hiện tại thì nên hash lại.
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hash lại mật khẩu ở nền, không chờ kết quả. Pool đang bận thì bỏ qua,
+     * lần đăng nhập sau sẽ thử lại.
+     */
+    public void upgradeInBackground(String rawPassword, Consumer<String> onEncoded) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onEncoded.accept(encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to upgrade password hash: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Skipped password hash upgrade, hashing pool is busy");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> Future<T> submit(Timer timer, Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            throw new PasswordHashingBusyException("Server is busy, please try again shortly");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Task chưa chạy thì bỏ khỏi hàng đợi, đang chạy thì để chạy nốt
+            future.cancel(false);
+            rejectedTimeout.increment();
+            throw new PasswordHashingBusyException("Server is busy, please try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new PasswordHashingBusyException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.fashon.infrastructure.security;
+
+/**
+ * Executor hash mật khẩu đã đầy hàng đợi hoặc quá thời gian chờ, client nên thử lại sau.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
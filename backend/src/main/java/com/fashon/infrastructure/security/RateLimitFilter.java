@@ -0,0 +1,95 @@
+package com.fashon.infrastructure.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fashon.interfaces.rest.GlobalExceptionHandler;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Giới hạn tần suất theo route và theo client, chạy sau JwtAuthenticationFilter
+ * để request đã đăng nhập được tính theo user id, còn lại theo IP.
+ * Trả header RateLimit-Limit/Remaining/Reset, vượt giới hạn thì 429 kèm Retry-After.
+ *
+ * Không đăng ký làm bean để Spring Boot không tự gắn thêm vào servlet filter chain.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<RateLimitRule> rules;
+    private final RateLimiter limiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(List<RateLimitRule> rules, RateLimiter limiter, ObjectMapper objectMapper) {
+        this.rules = rules;
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RateLimitRule rule = findRule(request);
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RateLimiter.Decision decision = limiter.tryAcquire(rule.name() + ":" + clientKey(request), rule);
+        response.setHeader("RateLimit-Limit", Integer.toString(decision.limit()));
+        response.setHeader("RateLimit-Remaining", Integer.toString(decision.remaining()));
+        response.setHeader("RateLimit-Reset", Long.toString(decision.resetSeconds()));
+
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+                    HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Bạn thao tác quá nhanh, vui lòng thử lại sau",
+                    null,
+                    LocalDateTime.now()));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitRule findRule(HttpServletRequest request) {
+        // Chỉ parse path khi có rule cùng method, phần lớn request không phải trả chi phí này
+        PathContainer path = null;
+        for (RateLimitRule rule : rules) {
+            if (!rule.method().matches(request.getMethod())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            if (rule.matches(request, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return "u" + user.id();
+        }
+        return "ip" + request.getRemoteAddr();
+    }
+}
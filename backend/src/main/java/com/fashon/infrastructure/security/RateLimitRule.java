@@ -0,0 +1,41 @@
+package com.fashon.infrastructure.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Giới hạn cho một route: tối đa capacity request dồn dập, hồi lại đều capacity request mỗi period.
+ * Khai báo trong SecurityConfig.
+ */
+public record RateLimitRule(String name,
+                            HttpMethod method,
+                            PathPattern pattern,
+                            Predicate<HttpServletRequest> condition,
+                            int capacity,
+                            Duration period) {
+
+    public static RateLimitRule of(String name, HttpMethod method, String pattern, int capacity, Duration period) {
+        return new RateLimitRule(name, method, PathPatternParser.defaultInstance.parse(pattern),
+                request -> true, capacity, period);
+    }
+
+    // Chỉ áp dụng khi request có query param này (vd. search)
+    public RateLimitRule whenParameterPresent(String parameter) {
+        return new RateLimitRule(name, method, pattern,
+                condition.and(request -> {
+                    String value = request.getParameter(parameter);
+                    return value != null && !value.isEmpty();
+                }),
+                capacity, period);
+    }
+
+    boolean matches(HttpServletRequest request, PathContainer path) {
+        return pattern.matches(path) && condition.test(request);
+    }
+}
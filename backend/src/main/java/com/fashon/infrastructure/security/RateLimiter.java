@@ -0,0 +1,89 @@
+package com.fashon.infrastructure.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket không khóa, cài đặt theo GCRA: mỗi bucket chỉ là một AtomicLong
+ * lưu "theoretical arrival time" (TAT), mỗi request là một lần CAS.
+ *
+ * Bucket đầy (TAT <= now) tương đương bucket mới tạo nên có thể bỏ đi bất cứ lúc nào;
+ * khi map vượt maxClients thì dọn các bucket đầy, vẫn còn vượt thì bỏ bớt tùy ý.
+ */
+public class RateLimiter {
+
+    private final int maxClients;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final long origin = System.nanoTime();
+
+    public RateLimiter(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public Decision tryAcquire(String key, RateLimitRule rule) {
+        long interval = rule.period().toNanos() / rule.capacity();
+        long tolerance = interval * rule.capacity();
+        long now = System.nanoTime() - origin;
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+            if (buckets.size() > maxClients) {
+                sweep(now);
+            }
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + interval;
+            long backlog = newTat - now;
+            if (backlog > tolerance) {
+                return new Decision(false, rule.capacity(), 0,
+                        toSeconds(Math.max(tat, now) - now), toSeconds(backlog - tolerance));
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                int remaining = (int) ((tolerance - backlog) / interval);
+                return new Decision(true, rule.capacity(), remaining, toSeconds(backlog), 0);
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+            int overflow = buckets.size() - maxClients;
+            if (overflow > 0) {
+                // Bỏ thêm 10% để không phải quét lại ở mỗi request
+                int toRemove = overflow + Math.max(1, maxClients / 10);
+                var iterator = buckets.keySet().iterator();
+                while (toRemove-- > 0 && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    /**
+     * @param resetSeconds      thời gian tới khi bucket đầy lại
+     * @param retryAfterSeconds thời gian tới khi được gửi request tiếp (chỉ khi bị từ chối)
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long resetSeconds, long retryAfterSeconds) {
+    }
+}
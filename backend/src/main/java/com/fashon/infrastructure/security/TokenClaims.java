@@ -0,0 +1,14 @@
+package com.fashon.infrastructure.security;
+
+import java.time.Instant;
+
+/**
+ * Thông tin đã xác thực từ một JWT, bất biến nên có thể cache và dùng chung giữa các request.
+ * userId có thể null với token cũ được phát hành trước khi có claim "uid".
+ */
+public record TokenClaims(Long userId, String email, String role, Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,209 @@
+package com.fashon.infrastructure.security;
+
+import com.fashon.domain.entity.TokenRevocation;
+import com.fashon.infrastructure.config.JwtConfig;
+import com.fashon.infrastructure.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Danh sách thu hồi JWT theo user: user id -> mọi token có iat trước thời điểm này đều bị từ chối.
+ *
+ * - Nguồn dữ liệu là bảng token_revocations (append-only). Lần nạp đầu chạy lúc khởi tạo bean, trước khi
+ *   web server nhận request (lỗi thì app không khởi động), sau đó mỗi node poll các dòng mới theo created_at
+ *   (lùi lại jwt.revocation-lookback-seconds để không sót dòng commit trễ hoặc lệch đồng hồ giữa các node).
+ * - Kiểm tra trong filter không chạm DB: bloom filter loại nhanh user chưa từng bị thu hồi,
+ *   chỉ khi bloom báo "có thể" mới tra tập chính xác.
+ * - Thu hồi cũ hơn thời hạn token thì vô nghĩa (token đã hết hạn), được dọn và dựng lại bloom filter.
+ * - iat của JWT chỉ chính xác tới giây nên revoked_before được làm tròn lên giây kế tiếp:
+ *   token phát hành cùng giây với lúc thu hồi cũng bị từ chối, user đăng nhập lại là được.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long PRUNE_INTERVAL_SECONDS = 3600;
+
+    private final TokenRevocationRepository repository;
+    private final UserIdentityCache identityCache;
+    private final long tokenLifetimeSeconds;
+    private final long lookbackSeconds;
+    private final int expectedEntries;
+
+    // Không dùng synchronized: refresh giữ lock trong lúc query DB, với virtual thread sẽ ghim carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile State state;
+    private LocalDateTime lastPollStartedAt;
+    private long lastPruneEpochSecond;
+
+    public TokenRevocationList(TokenRevocationRepository repository,
+                               UserIdentityCache identityCache,
+                               JwtConfig jwtConfig) {
+        this.repository = repository;
+        this.identityCache = identityCache;
+        this.tokenLifetimeSeconds = Math.max(1, jwtConfig.getExpiration() / 1000);
+        this.lookbackSeconds = jwtConfig.getRevocationLookbackSeconds();
+        this.expectedEntries = jwtConfig.getRevocationExpectedEntries();
+        this.state = new State(new LongBloomFilter(expectedEntries, FALSE_POSITIVE_RATE), new ConcurrentHashMap<>());
+        this.lastPruneEpochSecond = Instant.now().getEpochSecond();
+    }
+
+    /**
+     * Thu hồi mọi token hiện có của user. Ghi trong transaction của caller,
+     * node hiện tại áp dụng ngay sau khi commit, các node khác nhận được ở lần poll kế tiếp.
+     */
+    public void revoke(Long userId, String reason) {
+        Instant now = Instant.now();
+        repository.save(new TokenRevocation(userId, LocalDateTime.ofInstant(now, ZoneId.systemDefault()), reason));
+
+        long revokedBefore = now.getEpochSecond() + 1;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(userId, revokedBefore);
+                }
+            });
+        } else {
+            apply(userId, revokedBefore);
+        }
+    }
+
+    public boolean isRevoked(Long userId, Instant issuedAt) {
+        State current = state;
+        if (userId == null || !current.bloom.mightContain(userId)) {
+            return false;
+        }
+        Long revokedBefore = current.revokedBefore.get(userId);
+        if (revokedBefore == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getEpochSecond() < revokedBefore;
+    }
+
+    public int size() {
+        return state.revokedBefore.size();
+    }
+
+    /**
+     * Nạp mọi thu hồi còn hiệu lực trước khi filter nhận request, nếu không token đã bị thu hồi
+     * vẫn được chấp nhận cho tới lần poll đầu tiên.
+     */
+    @PostConstruct
+    public void loadInitial() {
+        lock.lock();
+        try {
+            if (!refreshLocked()) {
+                throw new IllegalStateException("Could not load token revocations");
+            }
+            log.info("Loaded {} token revocations", size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lần đầu nạp mọi thu hồi còn hiệu lực, các lần sau chỉ đọc dòng mới.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-poll-interval-ms:5000}")
+    public void refresh() {
+        lock.lock();
+        try {
+            refreshLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return false nếu không đọc được DB, lần sau đọc lại từ cùng mốc
+     */
+    private boolean refreshLocked() {
+        LocalDateTime pollStartedAt = LocalDateTime.now();
+        LocalDateTime since = lastPollStartedAt == null
+                ? pollStartedAt.minusSeconds(tokenLifetimeSeconds)
+                : lastPollStartedAt.minusSeconds(lookbackSeconds);
+
+        List<TokenRevocation> rows;
+        try {
+            rows = repository.findCreatedSince(since);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh token revocations, will retry: {}", e.getMessage());
+            return false;
+        }
+
+        pruneIfDue();
+        int applied = 0;
+        for (TokenRevocation row : rows) {
+            long revokedBefore = row.getRevokedBefore().atZone(ZoneId.systemDefault()).toEpochSecond() + 1;
+            if (apply(row.getUserId(), revokedBefore)) {
+                applied++;
+            }
+        }
+        if (applied > 0) {
+            log.debug("Applied {} token revocations", applied);
+        }
+        lastPollStartedAt = pollStartedAt;
+        return true;
+    }
+
+    /**
+     * @return true nếu thu hồi này mới với node hiện tại
+     */
+    private boolean apply(Long userId, long revokedBefore) {
+        lock.lock();
+        try {
+            return applyLocked(userId, revokedBefore);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean applyLocked(Long userId, long revokedBefore) {
+        State current = state;
+        Long previous = current.revokedBefore.get(userId);
+        if (previous != null && previous >= revokedBefore) {
+            return false;
+        }
+        current.bloom.put(userId);
+        current.revokedBefore.put(userId, revokedBefore);
+        // Role/trạng thái user có thể vừa đổi ở node khác
+        identityCache.evict(userId);
+        return true;
+    }
+
+    private void pruneIfDue() {
+        long now = Instant.now().getEpochSecond();
+        if (now - lastPruneEpochSecond < PRUNE_INTERVAL_SECONDS) {
+            return;
+        }
+        lastPruneEpochSecond = now;
+
+        long expiredBefore = now - tokenLifetimeSeconds;
+        Map<Long, Long> live = new ConcurrentHashMap<>();
+        state.revokedBefore.forEach((userId, revokedBefore) -> {
+            if (revokedBefore > expiredBefore) {
+                live.put(userId, revokedBefore);
+            }
+        });
+        LongBloomFilter bloom = new LongBloomFilter(Math.max(expectedEntries, live.size() * 2), FALSE_POSITIVE_RATE);
+        live.keySet().forEach(bloom::put);
+        state = new State(bloom, live);
+    }
+
+    private record State(LongBloomFilter bloom, Map<Long, Long> revokedBefore) {
+    }
+}
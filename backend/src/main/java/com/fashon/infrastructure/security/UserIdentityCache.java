@@ -0,0 +1,135 @@
+package com.fashon.infrastructure.security;
+
+import com.fashon.domain.entity.User;
+import com.fashon.infrastructure.config.JwtConfig;
+import com.fashon.infrastructure.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache danh tính user (id, email, role) cho các request đã xác thực: user id -> AuthenticatedUser.
+ *
+ * - Miss thì đọc users theo id (hoặc theo email với token cũ chưa có uid), user đã xóa mềm không được cache.
+ * - Role lấy từ DB chứ không tin role trong token, nên đổi role/xóa user có hiệu lực ngay sau khi evict.
+ * - Service sửa user phải gọi evict(userId); entry còn tự hết hạn sau jwt.identity-cache-ttl-seconds.
+ */
+@Component
+public class UserIdentityCache {
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByEmail = new ConcurrentHashMap<>();
+
+    public UserIdentityCache(UserRepository userRepository, JwtConfig jwtConfig) {
+        this.userRepository = userRepository;
+        this.maxEntries = jwtConfig.getIdentityCacheMaxEntries();
+        this.ttlNanos = jwtConfig.getIdentityCacheTtlSeconds() * 1_000_000_000L;
+    }
+
+    /**
+     * Tìm danh tính từ claims của token. Trả về null nếu user không còn tồn tại
+     * hoặc email trong token không còn khớp với user (đã đổi email).
+     */
+    public AuthenticatedUser resolve(TokenClaims claims) {
+        Long userId = claims.userId() != null ? claims.userId() : idByEmail.get(claims.email());
+        AuthenticatedUser identity = userId != null ? get(userId) : null;
+        if (identity == null && claims.userId() == null) {
+            identity = userRepository.findByEmail(claims.email())
+                    .map(this::cache)
+                    .orElse(null);
+        }
+        if (identity == null || !identity.email().equals(claims.email())) {
+            return null;
+        }
+        return identity;
+    }
+
+    public AuthenticatedUser get(Long userId) {
+        Entry entry = byId.get(userId);
+        if (entry != null && !entry.isExpired(System.nanoTime())) {
+            return entry.identity;
+        }
+        return userRepository.findById(userId)
+                .map(this::cache)
+                .orElse(null);
+    }
+
+    /**
+     * Bỏ user khỏi cache ngay, và bỏ lần nữa sau khi transaction hiện tại kết thúc
+     * để request song song không nạp lại state cũ trước khi commit.
+     */
+    public void evict(Long userId) {
+        remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        byId.clear();
+        idByEmail.clear();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    private AuthenticatedUser cache(User user) {
+        AuthenticatedUser identity = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole().name());
+        if (maxEntries <= 0) {
+            return identity;
+        }
+        if (byId.size() >= maxEntries) {
+            evictOverflow();
+        }
+        byId.put(user.getId(), new Entry(identity, System.nanoTime() + ttlNanos));
+        idByEmail.put(user.getEmail(), user.getId());
+        return identity;
+    }
+
+    private void remove(Long userId) {
+        Entry entry = byId.remove(userId);
+        if (entry != null) {
+            idByEmail.remove(entry.identity.email(), userId);
+        }
+    }
+
+    // Bỏ các entry hết hạn trước, nếu vẫn đầy thì bỏ bớt khoảng 10%
+    private void evictOverflow() {
+        long now = System.nanoTime();
+        byId.entrySet().removeIf(e -> {
+            if (e.getValue().isExpired(now)) {
+                idByEmail.remove(e.getValue().identity.email(), e.getKey());
+                return true;
+            }
+            return false;
+        });
+
+        int toRemove = byId.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Map.Entry<Long, Entry>> iterator = byId.entrySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            Map.Entry<Long, Entry> e = iterator.next();
+            idByEmail.remove(e.getValue().identity.email(), e.getKey());
+            iterator.remove();
+        }
+    }
+
+    private record Entry(AuthenticatedUser identity, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
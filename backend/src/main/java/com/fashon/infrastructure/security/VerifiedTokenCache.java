@@ -0,0 +1,81 @@
+package com.fashon.infrastructure.security;
+
+import com.fashon.infrastructure.config.JwtConfig;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache các token đã verify gần đây: SHA-256(token) -> claims.
+ * Không lưu token gốc trong bộ nhớ. Entry hết hạn theo exp của chính token.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final Map<String, TokenClaims> entries = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    public VerifiedTokenCache(JwtConfig jwtConfig) {
+        this.maxEntries = jwtConfig.getCacheMaxEntries();
+    }
+
+    public String keyOf(String token) {
+        byte[] digest = sha256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    public TokenClaims get(String key) {
+        TokenClaims claims = entries.get(key);
+        if (claims != null && claims.isExpired(Instant.now())) {
+            entries.remove(key, claims);
+            return null;
+        }
+        return claims;
+    }
+
+    public void put(String key, TokenClaims claims) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(key, claims);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Bỏ các entry hết hạn trước, nếu vẫn đầy thì bỏ bớt khoảng 10%
+    private void evict() {
+        Instant now = Instant.now();
+        entries.values().removeIf(claims -> claims.isExpired(now));
+
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
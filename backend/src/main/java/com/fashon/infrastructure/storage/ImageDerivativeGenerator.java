@@ -0,0 +1,217 @@
+package com.fashon.infrastructure.storage;
+
+import com.fashon.infrastructure.config.ImageDerivativeConfig;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Sinh ảnh thu nhỏ của một file upload, đặt cạnh file gốc với tên {@code <tên gốc>_w<width>.<ext>}.
+ *
+ * - Ảnh có kênh alpha giữ PNG, còn lại mã hóa lại JPEG progressive theo jpeg-quality.
+ * - Thêm bản WebP nếu ImageIO có writer (cần plugin, JDK mặc định không có).
+ * - Không phóng to: ảnh gốc hẹp hơn width thì chỉ mã hóa lại ở kích thước gốc, mọi width đều có file.
+ * - Ghi ra file tạm rồi move atomic, resource handler không bao giờ đọc phải file đang ghi dở.
+ */
+@Component
+public class ImageDerivativeGenerator {
+
+    public static final String WEBP = "webp";
+    private static final List<String> PRIMARY_FORMATS = List.of("jpg", "png");
+    private static final Pattern DERIVATIVE_NAME = Pattern.compile(".+_w\\d+\\.[A-Za-z0-9]+$");
+
+    private final float jpegQuality;
+    private final long maxSourcePixels;
+    private final boolean webpAvailable = ImageIO.getImageWritersByFormatName(WEBP).hasNext();
+
+    public ImageDerivativeGenerator(ImageDerivativeConfig config) {
+        this.jpegQuality = config.getJpegQuality();
+        this.maxSourcePixels = config.getMaxSourcePixels();
+    }
+
+    public boolean isWebpAvailable() {
+        return webpAvailable;
+    }
+
+    /**
+     * File gốc nằm thẳng trong thư mục upload (không có thư mục con) và không phải là một bản thu nhỏ.
+     */
+    public static boolean isOriginalName(String filename) {
+        return filename != null && !filename.isEmpty() && filename.indexOf('/') < 0
+                && filename.lastIndexOf('.') > 0 && !DERIVATIVE_NAME.matcher(filename).matches();
+    }
+
+    public static String derivativeName(String original, int width, String extension) {
+        return baseName(original) + "_w" + width + "." + extension;
+    }
+
+    public static List<String> primaryFormats() {
+        return PRIMARY_FORMATS;
+    }
+
+    /**
+     * @return width -> tên file bản thu nhỏ, null nếu còn thiếu width nào đó
+     */
+    public Map<Integer, String> findExisting(Path original, List<Integer> widths) {
+        Map<Integer, String> result = new LinkedHashMap<>();
+        String name = original.getFileName().toString();
+        for (int width : widths) {
+            String found = null;
+            for (String format : PRIMARY_FORMATS) {
+                String candidate = derivativeName(name, width, format);
+                if (Files.exists(original.resolveSibling(candidate))) {
+                    found = candidate;
+                    break;
+                }
+            }
+            if (found == null) {
+                return null;
+            }
+            result.put(width, found);
+        }
+        return result;
+    }
+
+    /**
+     * @return width -> tên file bản thu nhỏ; rỗng nếu định dạng không hỗ trợ (GIF động, WebP không có reader)
+     */
+    public Map<Integer, String> generate(Path original, List<Integer> widths) throws IOException {
+        String name = original.getFileName().toString();
+        if (name.toLowerCase(Locale.ROOT).endsWith(".gif")) {
+            return Map.of(); // Giữ nguyên ảnh động
+        }
+        int maxWidth = widths.stream().mapToInt(Integer::intValue).max().orElse(0);
+        BufferedImage source = read(original, maxWidth);
+        if (source == null) {
+            return Map.of();
+        }
+
+        boolean alpha = source.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpg";
+        Map<Integer, String> result = new LinkedHashMap<>();
+        for (int width : widths) {
+            BufferedImage resized = resize(source, Math.min(width, source.getWidth()), alpha);
+            String derivative = derivativeName(name, width, format);
+            write(original.resolveSibling(derivative), resized, format);
+            if (webpAvailable) {
+                write(original.resolveSibling(derivativeName(name, width, WEBP)), resized, WEBP);
+            }
+            result.put(width, derivative);
+        }
+        return result;
+    }
+
+    // Đọc kích thước trước khi giải mã; ảnh lớn hơn nhiều so với width cần dùng thì giải mã có subsampling
+    private BufferedImage read(Path original, int maxWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    throw new IOException("Image too large: " + width + "x" + height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, width / Math.max(1, maxWidth * 2));
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Thu nhỏ từng bước một nửa với bilinear, nét hơn so với thu một lần từ ảnh lớn
+    private static BufferedImage resize(BufferedImage source, int targetWidth, boolean alpha) {
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (!alpha) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void write(Path target, BufferedImage image, String format) throws IOException {
+        // Không dùng Files.createTempFile: file tạo ra chỉ có quyền 600
+        Path temp = target.resolveSibling(".derivative-" + UUID.randomUUID() + ".tmp");
+        try {
+            if ("jpg".equals(format)) {
+                writeJpeg(temp, image);
+            } else if (!ImageIO.write(image, format, temp.toFile())) {
+                throw new IOException("No ImageIO writer for " + format);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeJpeg(Path target, BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String baseName(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot > 0 ? filename.substring(0, dot) : filename;
+    }
+}
@@ -0,0 +1,74 @@
+package com.fashon.infrastructure.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * /uploads/{file}?w=400 dùng bản thu nhỏ nhỏ nhất có width >= 400 (không có thì bản lớn nhất),
+ * ưu tiên WebP khi client gửi Accept: image/webp và bản WebP đã được sinh.
+ */
+public class ImageDerivativeResolver {
+
+    public static final String WIDTH_PARAM = "w";
+
+    private final List<Integer> widths;
+
+    public ImageDerivativeResolver(List<Integer> widths) {
+        this.widths = widths;
+    }
+
+    /**
+     * @return file bản thu nhỏ, null nếu request không có ?w= hoặc chưa có bản thu nhỏ
+     *         (đang xử lý, định dạng không hỗ trợ) thì dùng ảnh gốc
+     */
+    public Path resolve(HttpServletRequest request, Path directory, String filename) {
+        Integer width = bestWidth(request.getParameter(WIDTH_PARAM));
+        if (width == null || !ImageDerivativeGenerator.isOriginalName(filename)) {
+            return null;
+        }
+        for (String format : candidateFormats(request)) {
+            Path candidate = directory.resolve(ImageDerivativeGenerator.derivativeName(filename, width, format));
+            if (Files.isRegularFile(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Integer bestWidth(String value) {
+        if (value == null || widths.isEmpty()) {
+            return null;
+        }
+        int requested;
+        try {
+            requested = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (requested <= 0) {
+            return null;
+        }
+        for (int width : widths) {
+            if (width >= requested) {
+                return width;
+            }
+        }
+        return widths.get(widths.size() - 1);
+    }
+
+    private static List<String> candidateFormats(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || !accept.contains("image/webp")) {
+            return ImageDerivativeGenerator.primaryFormats();
+        }
+        List<String> formats = new ArrayList<>();
+        formats.add(ImageDerivativeGenerator.WEBP);
+        formats.addAll(ImageDerivativeGenerator.primaryFormats());
+        return formats;
+    }
+}
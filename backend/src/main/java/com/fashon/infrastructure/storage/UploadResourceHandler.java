@@ -0,0 +1,220 @@
+package com.fashon.infrastructure.storage;
+
+import com.fashon.infrastructure.config.ImageDerivativeConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Phục vụ /uploads/** (GET, HEAD) thay cho resource handler mặc định.
+ *
+ * - Tên file theo hash nội dung (FileStorageService) không bao giờ đổi nội dung:
+ *   Cache-Control immutable 1 năm, ETag lấy thẳng từ tên file, không cần đọc file.
+ *   File tên cũ (UUID) và ảnh gốc trả thay cho ?w= khi bản thu nhỏ chưa xong: no-cache, ETag size-mtime.
+ * - If-None-Match / If-Modified-Since trả 304; Range một đoạn trả 206 (có If-Range),
+ *   nhiều đoạn thì trả cả file (RFC 9110 cho phép).
+ * - Body gửi bằng sendfile của Tomcat (connector NIO dùng FileChannel.transferTo, không copy qua heap);
+ *   connector không hỗ trợ (TLS, file nhỏ) thì copy sang output stream theo khối 64KB.
+ */
+@Slf4j
+@Component
+public class UploadResourceHandler implements HttpRequestHandler {
+
+    // Request attribute của Tomcat (org.apache.tomcat.util.net.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024; // Giống DefaultServlet: file nhỏ ghi thẳng nhanh hơn
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final Pattern CONTENT_HASHED = Pattern.compile("^[0-9a-f]{32}(_w\\d+)?\\.[a-z0-9]+$");
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+    private final Path uploadPath;
+    private final ImageDerivativeResolver derivativeResolver;
+    private final boolean varyAccept;
+
+    public UploadResourceHandler(ImageDerivativeConfig derivativeConfig,
+                                 ImageDerivativeGenerator derivativeGenerator,
+                                 @Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.derivativeResolver = new ImageDerivativeResolver(derivativeConfig.getWidths());
+        this.varyAccept = derivativeGenerator.isWebpAvailable();
+    }
+
+    public static boolean isContentHashed(String filename) {
+        return CONTENT_HASHED.matcher(filename).matches();
+    }
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean head = "HEAD".equals(request.getMethod());
+        if (!head && !"GET".equals(request.getMethod())) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+
+        // Chỉ file nằm thẳng trong thư mục upload
+        String filename = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        if (filename == null || filename.isEmpty() || filename.contains("/") || filename.contains("\\")
+                || filename.startsWith(".")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        boolean widthRequested = request.getParameter(ImageDerivativeResolver.WIDTH_PARAM) != null;
+        Path file = derivativeResolver.resolve(request, uploadPath, filename);
+        boolean fallback = widthRequested && file == null;
+        if (file == null) {
+            file = uploadPath.resolve(filename).normalize();
+            if (!uploadPath.equals(file.getParent())) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String name = file.getFileName().toString();
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        // Ảnh gốc trả thay cho ?w= sẽ được thay bằng bản thu nhỏ, không được cache vĩnh viễn
+        boolean immutable = !fallback && isContentHashed(name);
+        String etag = immutable
+                ? "\"" + name + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        if (varyAccept && widthRequested) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        boolean partial = false;
+        if (rangeHeader != null && length > 0 && ifRangeMatches(request, etag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // Range sai cú pháp thì bỏ qua
+            }
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                partial = true;
+            }
+        }
+
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(count);
+        if (head || count == 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        transfer(file, start, count, response);
+    }
+
+    private void transfer(Path file, long start, long count, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            // Đọc theo khối lớn rồi ghi cả mảng: transferTo sang stream chỉ đi từng khối 8KB qua 2 lần copy
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER_SIZE, count));
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                try {
+                    out.write(buffer.array(), 0, read);
+                } catch (IOException e) {
+                    // Thường là client đóng kết nối giữa chừng; response đã commit nên không trả lỗi được nữa
+                    log.debug("Stopped sending {}: {}", file.getFileName(), e.getMessage());
+                    return;
+                }
+                position += read;
+                remaining -= read;
+            }
+        }
+    }
+
+    // If-Range khác phiên bản hiện tại thì trả cả file thay vì một đoạn
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag); // So sánh strong, ETag yếu không bao giờ khớp
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date >= 0 && lastModified / 1000 == date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
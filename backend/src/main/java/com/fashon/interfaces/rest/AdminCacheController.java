@@ -0,0 +1,57 @@
+package com.fashon.interfaces.rest;
+
+import com.fashon.infrastructure.cache.SecondLevelCacheManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/cache")
+@RequiredArgsConstructor
+@Tag(name = "Admin - Cache", description = "Second-level cache statistics and eviction for administrators")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final SecondLevelCacheManager cacheManager;
+
+    @GetMapping("/regions")
+    @Operation(summary = "Get cache region stats", description = "Hit/miss/put counts and hit ratio per second-level cache region")
+    public ResponseEntity<Map<String, Object>> getRegions() {
+        List<SecondLevelCacheManager.RegionStats> regions = cacheManager.getRegionStats();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", regions,
+                "count", regions.size()
+        ));
+    }
+
+    @DeleteMapping("/regions/{region}")
+    @Operation(summary = "Evict cache region", description = "Remove every entry of one second-level cache region")
+    public ResponseEntity<Map<String, Object>> evictRegion(@PathVariable String region) {
+        if (!cacheManager.evictRegion(region)) {
+            throw new RuntimeException("Cache region not found: " + region);
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Cache region evicted"
+        ));
+    }
+
+    @DeleteMapping("/regions")
+    @Operation(summary = "Evict all cache regions", description = "Clear the whole second-level cache")
+    public ResponseEntity<Map<String, Object>> evictAll() {
+        cacheManager.evictAll();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "All cache regions evicted"
+        ));
+    }
+}
@@ -0,0 +1,46 @@
+package com.fashon.interfaces.rest;
+
+import com.fashon.infrastructure.datasource.AdaptivePoolSizer;
+import com.fashon.infrastructure.datasource.ConnectionPoolMonitor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/datasource")
+@RequiredArgsConstructor
+@Tag(name = "Admin - Database", description = "Connection pool diagnostics for administrators")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminDataSourceController {
+
+    private final ConnectionPoolMonitor poolMonitor;
+    private final ObjectProvider<AdaptivePoolSizer> poolSizer;
+
+    @GetMapping("/pools")
+    @Operation(summary = "Get connection pool stats",
+            description = "Pool usage, acquire/hold time per service method, suspected leaks and adaptive sizing history")
+    public ResponseEntity<Map<String, Object>> getPools() {
+        AdaptivePoolSizer sizer = poolSizer.getIfAvailable();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", Map.of(
+                        "pools", poolMonitor.snapshot(),
+                        "adaptive", Map.of(
+                                "enabled", sizer != null,
+                                "history", sizer != null ? sizer.getHistory() : List.of()
+                        )
+                )
+        ));
+    }
+}
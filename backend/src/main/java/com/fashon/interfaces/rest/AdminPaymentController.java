@@ -1,22 +1,24 @@
 package com.fashon.interfaces.rest;
 
 import com.fashon.application.dto.*;
+import com.fashon.application.service.PaymentNotificationService;
 import com.fashon.application.service.PaymentService;
 import com.fashon.domain.enums.PaymentMethod;
 import com.fashon.domain.enums.PaymentStatus;
+import com.fashon.infrastructure.repository.KeysetCursor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -28,17 +30,24 @@ import java.util.Map;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminPaymentController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final PaymentService paymentService;
+    private final PaymentNotificationService paymentNotificationService;
 
     @GetMapping
-    @Operation(summary = "Get all payments", description = "Get all payment transactions with pagination and optional filters")
+    @Operation(summary = "Get all payments",
+            description = "Get payment transactions with optional filters, newest first, paginated by cursor")
     public ResponseEntity<Map<String, Object>> getAllPayments(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String method) {
-        
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+            @RequestParam(required = false) String method,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String orderCode) {
         
         PaymentStatus paymentStatus = null;
         PaymentMethod paymentMethod = null;
@@ -64,18 +73,56 @@ public class AdminPaymentController {
                 ));
             }
         }
+
+        PaymentSearchFilter filter = PaymentSearchFilter.builder()
+                .status(paymentStatus)
+                .method(paymentMethod)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .createdFrom(from)
+                .createdTo(to)
+                .orderCodePrefix(orderCode)
+                .build();
+
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Invalid cursor"
+            ));
+        }
+
+        CursorPage<PaymentDTO> payments = paymentService.searchPayments(
+                filter, after, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
         
-        Page<PaymentDTO> payments = paymentService.getAllPayments(paymentStatus, paymentMethod, pageable);
-        
         return ResponseEntity.ok(Map.of(
                 "success", true,
-                "data", Map.of(
-                        "content", payments.getContent(),
-                        "totalElements", payments.getTotalElements(),
-                        "totalPages", payments.getTotalPages(),
-                        "currentPage", payments.getNumber(),
-                        "size", payments.getSize()
-                )
+                "data", payments
+        ));
+    }
+
+    @PostMapping("/notifications")
+    @Operation(summary = "Ingest payment notifications",
+            description = "Accept a batch of bank transfer notifications; they are applied asynchronously")
+    public ResponseEntity<Map<String, Object>> ingestNotifications(
+            @Valid @RequestBody PaymentNotificationBatchRequest request) {
+        PaymentNotificationBatchDTO batch = paymentNotificationService.ingest(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "success", true,
+                "data", batch,
+                "message", "Notifications accepted for processing"
+        ));
+    }
+
+    @GetMapping("/notifications/{batchId}")
+    @Operation(summary = "Get notification batch result", description = "Batch status and the result of each notification")
+    public ResponseEntity<Map<String, Object>> getNotificationBatch(@PathVariable Long batchId) {
+        PaymentNotificationBatchDTO batch = paymentNotificationService.getBatch(batchId);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", batch
         ));
     }
 
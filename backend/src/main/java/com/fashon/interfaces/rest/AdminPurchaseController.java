@@ -0,0 +1,48 @@
+package com.fashon.interfaces.rest;
+
+import com.fashon.application.service.PurchaseBackfillService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/purchases")
+@RequiredArgsConstructor
+@Tag(name = "Admin - Purchases", description = "Verified purchase index maintenance for administrators")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminPurchaseController {
+
+    private final PurchaseBackfillService backfillService;
+
+    @PostMapping("/backfill")
+    @Operation(summary = "Backfill verified purchases",
+            description = "Record purchases of all delivered / completed orders in the background. Safe to run again")
+    public ResponseEntity<Map<String, Object>> startBackfill() {
+        backfillService.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "success", true,
+                "data", backfillService.getStatus(),
+                "message", "Purchase backfill started"
+        ));
+    }
+
+    @GetMapping("/backfill")
+    @Operation(summary = "Get backfill progress")
+    public ResponseEntity<Map<String, Object>> getBackfill() {
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", backfillService.getStatus()
+        ));
+    }
+}
@@ -0,0 +1,74 @@
+package com.fashon.interfaces.rest;
+
+import com.fashon.application.dto.CursorPage;
+import com.fashon.application.dto.ReconciliationDiscrepancyDTO;
+import com.fashon.application.dto.ReconciliationRunDTO;
+import com.fashon.application.service.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/reconciliation")
+@RequiredArgsConstructor
+@Tag(name = "Admin - Reconciliation", description = "Payment / order reconciliation for administrators")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @PostMapping("/runs")
+    @Operation(summary = "Start reconciliation",
+            description = "Resume the last unfinished run from its checkpoint, or start a new one. Runs in the background")
+    public ResponseEntity<Map<String, Object>> startRun() {
+        ReconciliationRunDTO run = reconciliationService.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "success", true,
+                "data", run,
+                "message", "Reconciliation started"
+        ));
+    }
+
+    @GetMapping("/runs")
+    @Operation(summary = "Get recent reconciliation runs")
+    public ResponseEntity<Map<String, Object>> getRuns() {
+        List<ReconciliationRunDTO> runs = reconciliationService.getRecentRuns();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", runs
+        ));
+    }
+
+    @GetMapping("/runs/{id}")
+    @Operation(summary = "Get reconciliation run progress")
+    public ResponseEntity<Map<String, Object>> getRun(@PathVariable Long id) {
+        ReconciliationRunDTO run = reconciliationService.getRun(id);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", run
+        ));
+    }
+
+    @GetMapping("/runs/{id}/discrepancies")
+    @Operation(summary = "Get discrepancies of a run",
+            description = "Cursor paginated in detection order; pass nextCursor as afterId to get the next page")
+    public ResponseEntity<Map<String, Object>> getDiscrepancies(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size) {
+        CursorPage<ReconciliationDiscrepancyDTO> page = reconciliationService.getDiscrepancies(id, afterId, size);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", page
+        ));
+    }
+}
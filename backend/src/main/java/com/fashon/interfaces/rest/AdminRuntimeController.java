@@ -0,0 +1,47 @@
+package com.fashon.interfaces.rest;
+
+import com.fashon.infrastructure.runtime.VirtualThreadPinningMonitor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/runtime")
+@RequiredArgsConstructor
+@Tag(name = "Admin - Runtime", description = "Thread execution diagnostics for administrators")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminRuntimeController {
+
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @GetMapping("/threads")
+    @Operation(summary = "Get thread execution diagnostics",
+            description = "Whether requests run on virtual threads, and where virtual threads got pinned to their carrier")
+    public ResponseEntity<Map<String, Object>> getThreads() {
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", Map.of(
+                        "virtualThreads", virtualThreads,
+                        "pinningMonitor", monitor != null && monitor.isRunning(),
+                        "pinnedSites", monitor != null ? monitor.snapshot() : List.of(),
+                        "droppedSites", monitor != null ? monitor.getDroppedSites() : 0L
+                )
+        ));
+    }
+}
@@ -2,13 +2,15 @@ package com.fashon.interfaces.rest;
 
 import com.fashon.application.dto.*;
 import com.fashon.application.service.CartService;
+import com.fashon.infrastructure.query.QueryBudget;
+import com.fashon.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -22,11 +24,11 @@ public class CartController {
 
     private final CartService cartService;
 
+    @QueryBudget(4)
     @GetMapping
     @Operation(summary = "Get my cart", description = "Get the current user's shopping cart with all items")
-    public ResponseEntity<Map<String, Object>> getCart(Authentication authentication) {
-        String email = authentication.getName();
-        CartDTO cart = cartService.getCart(email);
+    public ResponseEntity<Map<String, Object>> getCart(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        CartDTO cart = cartService.getCart(currentUser.id());
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", cart
@@ -36,10 +38,9 @@ public class CartController {
     @PostMapping("/items")
     @Operation(summary = "Add item to cart", description = "Add a product variant to the shopping cart")
     public ResponseEntity<Map<String, Object>> addToCart(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @Valid @RequestBody AddToCartRequest request) {
-        String email = authentication.getName();
-        CartDTO cart = cartService.addToCart(email, request);
+        CartDTO cart = cartService.addToCart(currentUser.id(), request);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", cart,
@@ -50,11 +51,10 @@ public class CartController {
     @PutMapping("/items/{id}")
     @Operation(summary = "Update cart item quantity", description = "Update the quantity of a cart item")
     public ResponseEntity<Map<String, Object>> updateCartItem(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long id,
             @Valid @RequestBody UpdateCartItemRequest request) {
-        String email = authentication.getName();
-        CartDTO cart = cartService.updateCartItem(email, id, request);
+        CartDTO cart = cartService.updateCartItem(currentUser.id(), id, request);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", cart,
@@ -65,14 +65,26 @@ public class CartController {
     @DeleteMapping("/items/{id}")
     @Operation(summary = "Remove item from cart", description = "Remove a specific item from the shopping cart")
     public ResponseEntity<Map<String, Object>> removeCartItem(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long id) {
-        String email = authentication.getName();
-        CartDTO cart = cartService.removeCartItem(email, id);
+        CartDTO cart = cartService.removeCartItem(currentUser.id(), id);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", cart,
                 "message", "Item removed from cart successfully"
         ));
     }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Apply cart operations", description = "Apply a list of add/update/remove operations atomically")
+    public ResponseEntity<Map<String, Object>> applyBatch(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @Valid @RequestBody BatchCartRequest request) {
+        CartDTO cart = cartService.applyBatch(currentUser.id(), request);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", cart,
+                "message", "Cart updated successfully"
+        ));
+    }
 }
@@ -1,7 +1,10 @@
 package com.fashon.interfaces.rest;
 
+import com.fashon.infrastructure.payment.PaymentNotificationQueueFullException;
+import com.fashon.infrastructure.security.PasswordHashingBusyException;
 import jakarta.validation.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -92,6 +95,30 @@ public class GlobalExceptionHandler {
         return null;
     }
 
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Hệ thống đang bận, vui lòng thử lại sau giây lát",
+                null,
+                LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    @ExceptionHandler(PaymentNotificationQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentNotificationQueueFull(PaymentNotificationQueueFullException ex) {
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage(),
+                null,
+                LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(response);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException ex) {
         String message = ex.getMessage();
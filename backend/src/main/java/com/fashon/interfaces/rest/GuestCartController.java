@@ -0,0 +1,43 @@
+package com.fashon.interfaces.rest;
+
+import com.fashon.application.dto.GuestCartDTO;
+import com.fashon.application.dto.GuestCartRequest;
+import com.fashon.application.service.CartService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/public/guest-cart")
+@RequiredArgsConstructor
+@Tag(name = "Public - Guest Cart", description = "Stateless cart for visitors who are not logged in")
+public class GuestCartController {
+
+    private final CartService cartService;
+
+    @GetMapping
+    @Operation(summary = "Get guest cart", description = "Decode and price a signed guest cart token")
+    public ResponseEntity<Map<String, Object>> getGuestCart(@RequestParam(required = false) String token) {
+        GuestCartDTO cart = cartService.getGuestCart(token);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", cart
+        ));
+    }
+
+    @PostMapping
+    @Operation(summary = "Update guest cart", description = "Apply add/update/remove operations and return a new signed token")
+    public ResponseEntity<Map<String, Object>> updateGuestCart(@Valid @RequestBody GuestCartRequest request) {
+        GuestCartDTO cart = cartService.applyGuestOperations(request);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", cart,
+                "message", "Guest cart updated successfully"
+        ));
+    }
+}
@@ -2,6 +2,7 @@ package com.fashon.interfaces.rest;
 
 import com.fashon.application.dto.*;
 import com.fashon.application.service.OrderService;
+import com.fashon.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,7 +13,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -29,10 +30,9 @@ public class OrderController {
     @PostMapping
     @Operation(summary = "Create order from cart", description = "Create a new order from the current shopping cart")
     public ResponseEntity<Map<String, Object>> createOrder(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @Valid @RequestBody CreateOrderRequest request) {
-        String email = authentication.getName();
-        OrderDTO order = orderService.createOrderFromCart(email, request);
+        OrderDTO order = orderService.createOrderFromCart(currentUser.id(), request);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", order,
@@ -44,12 +44,11 @@ public class OrderController {
     @GetMapping
     @Operation(summary = "Get my orders", description = "Get order history for the current user with pagination")
     public ResponseEntity<Map<String, Object>> getMyOrders(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        String email = authentication.getName();
         Pageable pageable = PageRequest.of(page, size);
-        Page<OrderDTO> orders = orderService.getMyOrders(email, pageable);
+        Page<OrderDTO> orders = orderService.getMyOrders(currentUser.id(), pageable);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", Map.of(
@@ -65,10 +64,9 @@ public class OrderController {
     @GetMapping("/{orderCode}")
     @Operation(summary = "Get order details", description = "Get detailed information about a specific order")
     public ResponseEntity<Map<String, Object>> getOrderByCode(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable String orderCode) {
-        String email = authentication.getName();
-        OrderDTO order = orderService.getOrderByCode(email, orderCode);
+        OrderDTO order = orderService.getOrderByCode(currentUser.id(), orderCode);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", order
@@ -78,10 +76,9 @@ public class OrderController {
     @PostMapping("/{orderCode}/cancel")
     @Operation(summary = "Cancel order", description = "Cancel an order if it hasn't been shipped yet")
     public ResponseEntity<Map<String, Object>> cancelOrder(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable String orderCode) {
-        String email = authentication.getName();
-        OrderDTO order = orderService.cancelOrder(email, orderCode);
+        OrderDTO order = orderService.cancelOrder(currentUser.id(), orderCode);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", order,
@@ -2,13 +2,13 @@ package com.fashon.interfaces.rest;
 
 import com.fashon.application.dto.PaymentDTO;
 import com.fashon.application.service.PaymentService;
+import com.fashon.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -26,9 +26,9 @@ public class PaymentController {
     @GetMapping("/{orderCode}/payments")
     @Operation(summary = "Get payment history", description = "View payment history for a specific order")
     public ResponseEntity<Map<String, Object>> getPaymentsByOrderCode(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable String orderCode) {
-        List<PaymentDTO> payments = paymentService.getPaymentsByOrderCode(userDetails.getUsername(), orderCode);
+        List<PaymentDTO> payments = paymentService.getPaymentsByOrderCode(currentUser.id(), orderCode);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", payments,
@@ -4,6 +4,9 @@ import com.fashon.application.dto.CategoryDTO;
 import com.fashon.application.dto.ProductDTO;
 import com.fashon.application.service.CategoryService;
 import com.fashon.application.service.ProductService;
+import com.fashon.application.service.WishlistService;
+import com.fashon.infrastructure.query.QueryBudget;
+import com.fashon.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,6 +16,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -27,7 +31,9 @@ public class PublicProductController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final WishlistService wishlistService;
 
+    @QueryBudget(8)
     @GetMapping("/products")
     @Operation(summary = "List products", description = "Get paginated list of visible products with optional filters")
     public ResponseEntity<Map<String, Object>> listProducts(
@@ -38,7 +44,8 @@ public class PublicProductController {
             @Parameter(description = "Filter by category ID") @RequestParam(required = false) Long categoryId,
             @Parameter(description = "Minimum price") @RequestParam(required = false) BigDecimal minPrice,
             @Parameter(description = "Maximum price") @RequestParam(required = false) BigDecimal maxPrice,
-            @Parameter(description = "Search by name or description") @RequestParam(required = false) String search) {
+            @Parameter(description = "Search by name or description") @RequestParam(required = false) String search,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
 
         Sort sort = Sort.by(sortDir.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC, sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
@@ -56,6 +63,8 @@ public class PublicProductController {
         } else {
             productPage = productService.getAllProducts(pageable);
         }
+        // Đánh dấu sản phẩm trong wishlist khi đã đăng nhập (1 lần tra cache cho cả trang)
+        wishlistService.annotate(userId(currentUser), productPage.getContent());
 
         return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -69,10 +78,14 @@ public class PublicProductController {
         ));
     }
 
+    @QueryBudget(8)
     @GetMapping("/products/{slug}")
     @Operation(summary = "Get product detail", description = "Get detailed product information by slug including variants and images")
-    public ResponseEntity<Map<String, Object>> getProductDetail(@PathVariable String slug) {
+    public ResponseEntity<Map<String, Object>> getProductDetail(
+            @PathVariable String slug,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         ProductDTO product = productService.getProductBySlug(slug);
+        wishlistService.annotate(userId(currentUser), List.of(product));
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", product
@@ -102,8 +115,10 @@ public class PublicProductController {
     @GetMapping("/products/top-selling")
     @Operation(summary = "Get top selling products", description = "Get top selling products for homepage display")
     public ResponseEntity<Map<String, Object>> getTopSellingProducts(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         List<ProductDTO> products = productService.getTopSellingProducts(limit);
+        wishlistService.annotate(userId(currentUser), products);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", products
@@ -113,11 +128,18 @@ public class PublicProductController {
     @GetMapping("/products/newest")
     @Operation(summary = "Get newest products", description = "Get newest products for homepage display")
     public ResponseEntity<Map<String, Object>> getNewestProducts(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         List<ProductDTO> products = productService.getNewestProducts(limit);
+        wishlistService.annotate(userId(currentUser), products);
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "data", products
         ));
     }
+
+    // Principal là null với request chưa đăng nhập
+    private Long userId(AuthenticatedUser currentUser) {
+        return currentUser != null ? currentUser.id() : null;
+    }
 }
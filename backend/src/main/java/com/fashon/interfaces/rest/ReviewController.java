@@ -1,11 +1,13 @@
 package com.fashon.interfaces.rest;
 
+import com.fashon.application.dto.CursorPage;
 import com.fashon.application.dto.ProductReviewStats;
 import com.fashon.application.dto.ReviewDTO;
 import com.fashon.application.dto.ReviewRequest;
 import com.fashon.application.service.ReviewService;
-import com.fashon.domain.entity.User;
-import com.fashon.infrastructure.repository.UserRepository;
+import com.fashon.infrastructure.query.QueryBudget;
+import com.fashon.infrastructure.repository.KeysetCursor;
+import com.fashon.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,6 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,18 +31,23 @@ import java.util.Map;
 public class ReviewController {
 
     private final ReviewService reviewService;
-    private final UserRepository userRepository;
 
-    // Public endpoint - Lấy reviews của sản phẩm (KHÔNG yêu cầu authentication)
+    private static final int MAX_PAGE_SIZE = 50;
+
+    // Public endpoint - Lấy trang review đầu + rating summary của sản phẩm (KHÔNG yêu cầu authentication)
+    @QueryBudget(6)
     @GetMapping("/public/products/{productId}/reviews")
-    @Operation(summary = "Get product reviews", description = "Get all reviews for a product (public - no authentication required)")
+    @Operation(summary = "Get product reviews",
+            description = "First page of reviews with average rating and star histogram (public - no authentication required)")
     public ResponseEntity<Map<String, Object>> getProductReviews(
-            @PathVariable Long productId) {
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "10") int size) {
         
         // Lấy currentUserId nếu user đã đăng nhập, null nếu chưa đăng nhập
         Long currentUserId = getCurrentUserIdSafely();
         
-        ProductReviewStats stats = reviewService.getProductReviews(productId, currentUserId);
+        ProductReviewStats stats = reviewService.getProductReviews(
+                productId, currentUserId, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -48,16 +56,46 @@ public class ReviewController {
         return ResponseEntity.ok(response);
     }
 
+    // Public endpoint - Các trang review tiếp theo theo cursor
+    @QueryBudget(3)
+    @GetMapping("/public/products/{productId}/reviews/feed")
+    @Operation(summary = "Get next review page",
+            description = "Cursor paginated reviews, newest first. Pass nextCursor from the previous page")
+    public ResponseEntity<Map<String, Object>> getReviewFeed(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Invalid cursor"
+            ));
+        }
+
+        CursorPage<ReviewDTO> page = reviewService.getReviewFeed(
+                productId, after, Math.max(1, Math.min(size, MAX_PAGE_SIZE)), getCurrentUserIdSafely());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", page);
+
+        return ResponseEntity.ok(response);
+    }
+
     // Authenticated endpoint - Tạo review
     @PostMapping("/reviews")
     @Operation(summary = "Create review", description = "Create a new product review")
     @SecurityRequirement(name = "bearerAuth")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Map<String, Object>> createReview(
-            @org.springframework.security.core.annotation.AuthenticationPrincipal String email,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @Valid @RequestBody ReviewRequest request) {
         
-        Long userId = getUserIdFromEmail(email);
+        Long userId = currentUser.id();
         ReviewDTO review = reviewService.createReview(userId, request);
         
         Map<String, Object> response = new HashMap<>();
@@ -74,10 +112,10 @@ public class ReviewController {
     @SecurityRequirement(name = "bearerAuth")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Map<String, Object>> deleteReview(
-            @org.springframework.security.core.annotation.AuthenticationPrincipal String email,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long reviewId) {
         
-        Long userId = getUserIdFromEmail(email);
+        Long userId = currentUser.id();
         reviewService.deleteReview(reviewId, userId);
         
         Map<String, Object> response = new HashMap<>();
@@ -90,44 +128,11 @@ public class ReviewController {
     // Helper method để lấy userId an toàn (null nếu chưa đăng nhập)
     private Long getCurrentUserIdSafely() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        
-        // Check nếu không có authentication hoặc là anonymous
-        if (authentication == null || 
-            !authentication.isAuthenticated() || 
-            "anonymousUser".equals(authentication.getPrincipal())) {
-            return null;
-        }
-        
-        // Lấy email từ principal
-        String email = null;
-        if (authentication.getPrincipal() instanceof String) {
-            email = (String) authentication.getPrincipal();
-        } else if (authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.User) {
-            email = ((org.springframework.security.core.userdetails.User) authentication.getPrincipal()).getUsername();
-        }
-        
-        if (email == null || email.isEmpty()) {
-            return null;
-        }
-        
-        // Tìm user và trả về id
-        try {
-            return userRepository.findByEmail(email)
-                    .map(User::getId)
-                    .orElse(null);
-        } catch (Exception e) {
-            // Nếu có lỗi khi tìm user, trả về null (coi như chưa đăng nhập)
-            return null;
-        }
-    }
 
-    // Helper method để lấy userId từ email (chỉ dùng cho authenticated endpoints)
-    private Long getUserIdFromEmail(String email) {
-        if (email == null || email.isEmpty()) {
-            throw new RuntimeException("Unauthorized - Please login");
+        // Principal là AuthenticatedUser khi request có JWT hợp lệ, còn lại là anonymous
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser currentUser) {
+            return currentUser.id();
         }
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        return null;
     }
 }
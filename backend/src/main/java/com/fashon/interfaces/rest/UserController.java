@@ -3,13 +3,14 @@ package com.fashon.interfaces.rest;
 import com.fashon.application.dto.UpdateProfileRequest;
 import com.fashon.application.dto.UserResponse;
 import com.fashon.application.service.UserService;
+import com.fashon.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -25,9 +26,8 @@ public class UserController {
 
     @GetMapping("/me")
     @Operation(summary = "Get current user profile", description = "Retrieve the profile of the currently authenticated user")
-    public ResponseEntity<Map<String, Object>> getProfile(Authentication authentication) {
-        String email = authentication.getName();
-        UserResponse response = userService.getProfile(email);
+    public ResponseEntity<Map<String, Object>> getProfile(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        UserResponse response = userService.getProfile(currentUser.id());
         return ResponseEntity.ok(Map.of(
             "success", true,
             "data", response,
@@ -38,10 +38,9 @@ public class UserController {
     @PutMapping("/me")
     @Operation(summary = "Update current user profile", description = "Update the profile of the currently authenticated user")
     public ResponseEntity<Map<String, Object>> updateProfile(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @Valid @RequestBody UpdateProfileRequest request) {
-        String email = authentication.getName();
-        UserResponse response = userService.updateProfile(email, request);
+        UserResponse response = userService.updateProfile(currentUser.id(), request);
         return ResponseEntity.ok(Map.of(
             "success", true,
             "data", response,
@@ -51,9 +50,8 @@ public class UserController {
 
     @DeleteMapping("/me")
     @Operation(summary = "Delete current user account", description = "Soft delete the currently authenticated user account")
-    public ResponseEntity<Map<String, Object>> deleteAccount(Authentication authentication) {
-        String email = authentication.getName();
-        userService.softDeleteAccount(email);
+    public ResponseEntity<Map<String, Object>> deleteAccount(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        userService.softDeleteAccount(currentUser.id());
         return ResponseEntity.ok(Map.of(
             "success", true,
             "data", null,
@@ -1,10 +1,14 @@
 package com.fashon.interfaces.rest;
 
+import com.fashon.application.dto.CursorPage;
 import com.fashon.application.dto.ProductDTO;
 import com.fashon.application.dto.WishlistDTO;
+import com.fashon.application.dto.WishlistItemDTO;
 import com.fashon.application.service.WishlistService;
-import com.fashon.domain.entity.User;
-import com.fashon.infrastructure.repository.UserRepository;
+import com.fashon.infrastructure.config.WishlistConfig;
+import com.fashon.infrastructure.query.QueryBudget;
+import com.fashon.infrastructure.repository.KeysetCursor;
+import com.fashon.infrastructure.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,14 +31,54 @@ import java.util.Map;
 @PreAuthorize("isAuthenticated()")
 public class WishlistController {
 
+    private static final int MAX_PAGE_SIZE = 50;
+
     private final WishlistService wishlistService;
-    private final UserRepository userRepository;
+    private final WishlistConfig wishlistConfig;
+
+    // Lấy wishlist dạng card theo cursor
+    @QueryBudget(4)
+    @GetMapping("/items")
+    @Operation(summary = "Get wishlist cards",
+            description = "Cursor paginated wishlist with card data only (name, image, price range, stock, rating)")
+    public ResponseEntity<Map<String, Object>> getWishlistItems(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "Invalid cursor");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        CursorPage<WishlistItemDTO> items = wishlistService.getWishlistItems(
+                currentUser.id(), after, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", items);
+
+        return ResponseEntity.ok(response);
+    }
 
-    // Lấy danh sách wishlist của user
+    /**
+     * Lấy danh sách wishlist của user.
+     * Số query tăng theo số sản phẩm (1 + 1 query rating mỗi sản phẩm, variants nạp theo lô) nên không có budget cố định:
+     * dùng app.query.default-budget, wishlist lớn sẽ bị interceptor cảnh báo.
+     *
+     * @deprecated trả ProductDTO đầy đủ cho mọi sản phẩm, không phân trang; dùng GET /items
+     */
+    @Deprecated
     @GetMapping
-    @Operation(summary = "Get user wishlist", description = "Get all products in user's wishlist")
-    public ResponseEntity<Map<String, Object>> getWishlist(@AuthenticationPrincipal String email) {
-        Long userId = getUserIdFromEmail(email);
+    @Operation(summary = "Get user wishlist", description = "Get all products in user's wishlist. Deprecated: use /items",
+            deprecated = true)
+    public ResponseEntity<Map<String, Object>> getWishlist(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        Long userId = currentUser.id();
         List<ProductDTO> products = wishlistService.getUserWishlist(userId);
         
         Map<String, Object> response = new HashMap<>();
@@ -49,10 +93,10 @@ public class WishlistController {
     @PostMapping
     @Operation(summary = "Add to wishlist", description = "Add a product to user's wishlist")
     public ResponseEntity<Map<String, Object>> addToWishlist(
-            @AuthenticationPrincipal String email,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @RequestBody Map<String, Long> request) {
         
-        Long userId = getUserIdFromEmail(email);
+        Long userId = currentUser.id();
         Long productId = request.get("productId");
         
         if (productId == null) {
@@ -76,10 +120,10 @@ public class WishlistController {
     @DeleteMapping("/{productId}")
     @Operation(summary = "Remove from wishlist", description = "Remove a product from user's wishlist")
     public ResponseEntity<Map<String, Object>> removeFromWishlist(
-            @AuthenticationPrincipal String email,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long productId) {
         
-        Long userId = getUserIdFromEmail(email);
+        Long userId = currentUser.id();
         wishlistService.removeFromWishlist(userId, productId);
         
         Map<String, Object> response = new HashMap<>();
@@ -93,10 +137,10 @@ public class WishlistController {
     @GetMapping("/check/{productId}")
     @Operation(summary = "Check wishlist status", description = "Check if a product is in user's wishlist")
     public ResponseEntity<Map<String, Object>> checkWishlistStatus(
-            @AuthenticationPrincipal String email,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
             @PathVariable Long productId) {
         
-        Long userId = getUserIdFromEmail(email);
+        Long userId = currentUser.id();
         boolean isInWishlist = wishlistService.isInWishlist(userId, productId);
         long count = wishlistService.getWishlistCount(userId);
         
@@ -108,13 +152,36 @@ public class WishlistController {
         return ResponseEntity.ok(response);
     }
 
+    // Kiểm tra nhiều sản phẩm cùng lúc (vẽ icon tim trên lưới sản phẩm), 1 lần tra cache
+    @QueryBudget(1)
+    @GetMapping("/contains")
+    @Operation(summary = "Check wishlist status in batch",
+            description = "Return which of the given product ids are in user's wishlist")
+    public ResponseEntity<Map<String, Object>> containsInWishlist(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam List<Long> productIds) {
+
+        if (productIds.size() > wishlistConfig.getMaxBatchSize()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "At most " + wishlistConfig.getMaxBatchSize() + " productIds per request");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", Map.of("productIds", wishlistService.filterInWishlist(currentUser.id(), productIds)));
+
+        return ResponseEntity.ok(response);
+    }
+
     // Lấy số lượng wishlist
     @GetMapping("/count")
     @Operation(summary = "Get wishlist count", description = "Get total number of items in wishlist")
     public ResponseEntity<Map<String, Object>> getWishlistCount(
-            @AuthenticationPrincipal String email) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         
-        Long userId = getUserIdFromEmail(email);
+        Long userId = currentUser.id();
         long count = wishlistService.getWishlistCount(userId);
         
         Map<String, Object> response = new HashMap<>();
@@ -124,13 +191,4 @@ public class WishlistController {
         return ResponseEntity.ok(response);
     }
 
-    // Helper method để lấy userId từ email (principal là email string)
-    private Long getUserIdFromEmail(String email) {
-        if (email == null || email.isEmpty()) {
-            throw new RuntimeException("Unauthorized - Please login");
-        }
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
-    }
 }
@@ -0,0 +1,39 @@
+-- =============================================
+-- USER PRODUCT PURCHASES
+-- order_items lưu product / variant lúc đặt hàng; user_product_purchases ghi lại sản phẩm user đã nhận
+-- để kiểm tra quyền đánh giá bằng 1 index seek. Dữ liệu cũ dựng bằng POST /api/v1/admin/purchases/backfill.
+-- =============================================
+
+IF COL_LENGTH('order_items', 'product_id') IS NULL
+    ALTER TABLE order_items ADD product_id INT NULL;
+
+IF COL_LENGTH('order_items', 'variant_id') IS NULL
+    ALTER TABLE order_items ADD variant_id INT NULL;
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'user_product_purchases')
+BEGIN
+    CREATE TABLE user_product_purchases (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        user_id INT NOT NULL,
+        product_id INT NOT NULL,
+        variant_id INT NOT NULL,
+        order_id INT NOT NULL,
+        created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        deleted_at DATETIME2 NULL,
+
+        CONSTRAINT uk_user_product_purchases_order_variant UNIQUE (order_id, variant_id),
+        CONSTRAINT fk_user_product_purchases_user FOREIGN KEY (user_id) REFERENCES users(id),
+        CONSTRAINT fk_user_product_purchases_order FOREIGN KEY (order_id) REFERENCES orders(id)
+    );
+END;
+
+-- existsByUserIdAndProductId
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_user_product_purchases_user_product' AND object_id = OBJECT_ID('user_product_purchases'))
+    CREATE INDEX ix_user_product_purchases_user_product ON user_product_purchases (user_id, product_id)
+        WHERE deleted_at IS NULL;
+
+-- Backfill lấy đơn đã giao theo id
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_orders_delivered_id' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX ix_orders_delivered_id ON orders (id)
+        WHERE status IN ('delivered', 'completed') AND deleted_at IS NULL;
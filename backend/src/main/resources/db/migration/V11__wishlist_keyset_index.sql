@@ -0,0 +1,9 @@
+-- =============================================
+-- WISHLIST KEYSET INDEX
+-- Phân trang wishlist theo (created_at DESC, id DESC) của từng user (WishlistRepository.findCards*)
+-- =============================================
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_wishlists_user_created' AND object_id = OBJECT_ID('wishlists'))
+    CREATE INDEX ix_wishlists_user_created ON wishlists (user_id, created_at DESC, id DESC)
+        INCLUDE (product_id)
+        WHERE deleted_at IS NULL;
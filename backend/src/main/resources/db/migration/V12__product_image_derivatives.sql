@@ -0,0 +1,18 @@
+-- =============================================
+-- PRODUCT IMAGE DERIVATIVES
+-- URL bản thu nhỏ (thumbnail / card / detail) sinh nền sau khi upload (ImageDerivativeService)
+-- =============================================
+
+IF COL_LENGTH('product_images', 'thumbnail_url') IS NULL
+    ALTER TABLE product_images ADD thumbnail_url NVARCHAR(500) NULL;
+
+IF COL_LENGTH('product_images', 'card_url') IS NULL
+    ALTER TABLE product_images ADD card_url NVARCHAR(500) NULL;
+
+IF COL_LENGTH('product_images', 'detail_url') IS NULL
+    ALTER TABLE product_images ADD detail_url NVARCHAR(500) NULL;
+
+-- ProductImageRepository.updateDerivativeUrls ghi theo image_url khi xử lý xong
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_product_images_image_url' AND object_id = OBJECT_ID('product_images'))
+    CREATE INDEX ix_product_images_image_url ON product_images (image_url)
+        WHERE deleted_at IS NULL;
@@ -0,0 +1,12 @@
+-- =============================================
+-- Khôi phục index chỉ lọc status cho danh sách payment của admin (view "pending payments").
+-- V5 đã bỏ ix_payments_status_created vì cho rằng nó là tiền tố của ix_payments_status_method_created,
+-- nhưng key của index đó là (status, method, created_at, id): lọc riêng status thì phải sort
+-- toàn bộ payment cùng status cho mỗi trang. Dựng lại theo đúng shape keyset như index chỉ lọc method.
+-- Không sửa V5 vì Flyway kiểm tra checksum các migration đã chạy.
+-- =============================================
+
+DROP INDEX IF EXISTS ix_payments_status_created ON payments;
+CREATE INDEX ix_payments_status_created ON payments (status, created_at DESC, id DESC)
+    INCLUDE (method, order_id, amount)
+    WHERE deleted_at IS NULL;
@@ -0,0 +1,8 @@
+-- =============================================
+-- Đối soát báo payment PAID của đơn đã hủy (chuyển khoản đến sau khi đơn hết hạn) để hoàn tiền.
+-- Không sửa V7 vì Flyway kiểm tra checksum các migration đã chạy.
+-- =============================================
+
+ALTER TABLE reconciliation_discrepancies DROP CONSTRAINT IF EXISTS chk_reconciliation_discrepancies_type;
+ALTER TABLE reconciliation_discrepancies ADD CONSTRAINT chk_reconciliation_discrepancies_type
+    CHECK (type IN ('AMOUNT_MISMATCH', 'ORDER_WITHOUT_PAYMENT', 'CONFIRMED_UNPAID', 'ORPHAN_PAYMENT', 'CANCELLED_PAID'));
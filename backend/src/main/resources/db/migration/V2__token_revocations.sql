@@ -0,0 +1,21 @@
+-- =============================================
+-- TOKEN REVOCATIONS
+-- Append-only: mỗi dòng thu hồi mọi JWT của user phát hành trước revoked_before.
+-- Các node đọc dòng mới theo created_at để cập nhật danh sách thu hồi trong bộ nhớ.
+-- =============================================
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'token_revocations')
+BEGIN
+    CREATE TABLE token_revocations (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        user_id BIGINT NOT NULL,
+        revoked_before DATETIME2 NOT NULL,
+        reason NVARCHAR(50) NOT NULL,
+        created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        deleted_at DATETIME2 NULL,
+
+        INDEX idx_token_revocations_created (created_at),
+        INDEX idx_token_revocations_user (user_id)
+    );
+END;
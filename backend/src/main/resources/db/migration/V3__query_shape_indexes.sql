@@ -0,0 +1,94 @@
+-- =============================================
+-- INDEX PACK theo đúng shape của các query trong repository
+-- Mọi entity có @Where(deleted_at IS NULL) nên index đều lọc WHERE deleted_at IS NULL:
+-- nhỏ hơn, và cột lọc + cột sort nằm chung một index nên không cần sort/lookup thêm.
+-- Tìm kiếm LIKE '%term%' (searchByNameOrDescription) không dùng được B-tree, không xử lý ở đây.
+-- =============================================
+
+-- ---------- products ----------
+-- findByIsVisibleTrue / findNewestProducts (sort createdAt mặc định ở trang danh sách)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_products_visible_created' AND object_id = OBJECT_ID('products'))
+    CREATE INDEX ix_products_visible_created ON products (is_visible, created_at DESC)
+        INCLUDE (category_id, base_price, sold_count)
+        WHERE deleted_at IS NULL;
+
+-- findTopSellingProducts
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_products_visible_sold' AND object_id = OBJECT_ID('products'))
+    CREATE INDEX ix_products_visible_sold ON products (is_visible, sold_count DESC)
+        WHERE deleted_at IS NULL;
+
+-- findByCategoryIdAndIsVisibleTrue / findByCategoryIdsAndIsVisibleTrue / findByCategoryAndPriceRange
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_products_category_visible_created' AND object_id = OBJECT_ID('products'))
+    CREATE INDEX ix_products_category_visible_created ON products (category_id, is_visible, created_at DESC)
+        INCLUDE (base_price, sold_count)
+        WHERE deleted_at IS NULL;
+
+-- findByPriceRangeAndIsVisibleTrue
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_products_visible_price' AND object_id = OBJECT_ID('products'))
+    CREATE INDEX ix_products_visible_price ON products (is_visible, base_price)
+        INCLUDE (category_id, created_at)
+        WHERE deleted_at IS NULL;
+
+-- ---------- orders ----------
+-- findByUserIdWithItems / findAllByUserId / findOrderIdsForAdmin(userId)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_orders_user_created' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX ix_orders_user_created ON orders (user_id, created_at DESC)
+        INCLUDE (status)
+        WHERE deleted_at IS NULL;
+
+-- findByStatusWithItems / findOrderIdsForAdmin(status)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_orders_status_created' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX ix_orders_status_created ON orders (status, created_at DESC)
+        INCLUDE (user_id)
+        WHERE deleted_at IS NULL;
+
+-- findAllWithItems / findOrderIdsForAdmin không lọc
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_orders_created' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX ix_orders_created ON orders (created_at DESC)
+        INCLUDE (status, user_id)
+        WHERE deleted_at IS NULL;
+
+-- ---------- payments ----------
+-- findByOrderIdOrderByCreatedAtDesc / findFirstByOrderOrderCodeOrderByCreatedAtDesc / existsByOrderIdAndStatus
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_payments_order_created' AND object_id = OBJECT_ID('payments'))
+    CREATE INDEX ix_payments_order_created ON payments (order_id, created_at DESC)
+        INCLUDE (status)
+        WHERE deleted_at IS NULL;
+
+-- findByStatusWithOrder / findByStatusAndMethodWithOrder
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_payments_status_created' AND object_id = OBJECT_ID('payments'))
+    CREATE INDEX ix_payments_status_created ON payments (status, created_at DESC)
+        INCLUDE (method, order_id)
+        WHERE deleted_at IS NULL;
+
+-- findByMethodWithOrder
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_payments_method_created' AND object_id = OBJECT_ID('payments'))
+    CREATE INDEX ix_payments_method_created ON payments (method, created_at DESC)
+        INCLUDE (status, order_id)
+        WHERE deleted_at IS NULL;
+
+-- findAllWithOrder
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_payments_created' AND object_id = OBJECT_ID('payments'))
+    CREATE INDEX ix_payments_created ON payments (created_at DESC)
+        INCLUDE (status, method, order_id)
+        WHERE deleted_at IS NULL;
+
+-- ---------- product_reviews ----------
+-- findByProductIdOrderByCreatedAtDesc, calculateAverageRating, countByProductId (covering)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_reviews_product_created' AND object_id = OBJECT_ID('product_reviews'))
+    CREATE INDEX ix_reviews_product_created ON product_reviews (product_id, created_at DESC)
+        INCLUDE (rating, user_id)
+        WHERE deleted_at IS NULL;
+
+-- ---------- bỏ index đơn cột đã bị các index trên thay thế ----------
+-- Giữ lại idx_orders_user, idx_payments_order, idx_reviews_product (không lọc) cho kiểm tra FK.
+DROP INDEX IF EXISTS idx_products_visible ON products;
+DROP INDEX IF EXISTS idx_products_sold ON products;
+DROP INDEX IF EXISTS idx_products_deleted ON products;
+DROP INDEX IF EXISTS idx_orders_status ON orders;
+DROP INDEX IF EXISTS idx_orders_deleted ON orders;
+DROP INDEX IF EXISTS idx_payments_status ON payments;
+DROP INDEX IF EXISTS idx_payments_method ON payments;
+DROP INDEX IF EXISTS idx_payments_deleted ON payments;
+DROP INDEX IF EXISTS idx_reviews_rating ON product_reviews;
+DROP INDEX IF EXISTS idx_reviews_deleted ON product_reviews;
@@ -0,0 +1,15 @@
+-- =============================================
+-- REPLICATION HEARTBEAT
+-- Primary cập nhật beat_at mỗi giây, replica đọc lại để đo độ trễ đồng bộ.
+-- =============================================
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'replication_heartbeat')
+BEGIN
+    CREATE TABLE replication_heartbeat (
+        id INT NOT NULL PRIMARY KEY,
+        beat_at DATETIME2 NOT NULL
+    );
+END;
+
+IF NOT EXISTS (SELECT * FROM replication_heartbeat WHERE id = 1)
+    INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, SYSUTCDATETIME());
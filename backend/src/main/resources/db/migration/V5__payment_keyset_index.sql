@@ -0,0 +1,26 @@
+-- =============================================
+-- Danh sách payment của admin: một query lọc tùy chọn status / method / created_at,
+-- sắp xếp (created_at DESC, id DESC) và phân trang theo cursor.
+-- id nằm trong key để seek theo cursor và đọc theo đúng thứ tự không cần sort.
+-- =============================================
+
+-- status (+ method) + khoảng created_at, covering cho các cột hiển thị trong danh sách
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_payments_status_method_created' AND object_id = OBJECT_ID('payments'))
+    CREATE INDEX ix_payments_status_method_created ON payments (status, method, created_at DESC, id DESC)
+        INCLUDE (order_id, amount)
+        WHERE deleted_at IS NULL;
+
+-- Chỉ lọc method
+DROP INDEX IF EXISTS ix_payments_method_created ON payments;
+CREATE INDEX ix_payments_method_created ON payments (method, created_at DESC, id DESC)
+    INCLUDE (status, order_id, amount)
+    WHERE deleted_at IS NULL;
+
+-- Không lọc
+DROP INDEX IF EXISTS ix_payments_created ON payments;
+CREATE INDEX ix_payments_created ON payments (created_at DESC, id DESC)
+    INCLUDE (status, method, order_id, amount)
+    WHERE deleted_at IS NULL;
+
+-- ix_payments_status_created là tiền tố của index mới
+DROP INDEX IF EXISTS ix_payments_status_created ON payments;
@@ -0,0 +1,60 @@
+-- =============================================
+-- PAYMENT NOTIFICATIONS
+-- Thông báo chuyển khoản nhận theo batch, xử lý bất đồng bộ; kết quả từng dòng được giữ lại để tra cứu.
+-- =============================================
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'payment_notification_batches')
+BEGIN
+    CREATE TABLE payment_notification_batches (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        status NVARCHAR(30) NOT NULL DEFAULT 'RECEIVED',
+        total_items INT NOT NULL,
+        applied_items INT NOT NULL DEFAULT 0,
+        attempts INT NOT NULL DEFAULT 0,
+        last_error NVARCHAR(500) NULL,
+        completed_at DATETIME2 NULL,
+        created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        deleted_at DATETIME2 NULL,
+
+        CONSTRAINT chk_payment_notification_batches_status
+            CHECK (status IN ('RECEIVED', 'PROCESSING', 'COMPLETED', 'FAILED'))
+    );
+END;
+
+-- Quét batch chưa xử lý xong (khởi động lại / worker chết giữa chừng)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_payment_notification_batches_pending' AND object_id = OBJECT_ID('payment_notification_batches'))
+    CREATE INDEX ix_payment_notification_batches_pending ON payment_notification_batches (status, updated_at)
+        WHERE status IN ('RECEIVED', 'PROCESSING') AND deleted_at IS NULL;
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'payment_notifications')
+BEGIN
+    CREATE TABLE payment_notifications (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        batch_id BIGINT NOT NULL,
+        order_code NVARCHAR(50) NOT NULL,
+        transaction_code NVARCHAR(100) NOT NULL,
+        amount DECIMAL(19,4) NULL,
+        notes NVARCHAR(500) NULL,
+        status NVARCHAR(30) NOT NULL DEFAULT 'RECEIVED',
+        message NVARCHAR(255) NULL,
+        payment_id BIGINT NULL,
+        processed_at DATETIME2 NULL,
+        created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        deleted_at DATETIME2 NULL,
+
+        CONSTRAINT fk_payment_notifications_batch FOREIGN KEY (batch_id) REFERENCES payment_notification_batches(id),
+        INDEX idx_payment_notifications_batch (batch_id)
+    );
+END;
+
+-- Mỗi mã giao dịch chỉ được áp dụng một lần, kể cả khi 2 batch chứa cùng mã được xử lý song song
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ux_payment_notifications_applied_transaction' AND object_id = OBJECT_ID('payment_notifications'))
+    CREATE UNIQUE INDEX ux_payment_notifications_applied_transaction ON payment_notifications (transaction_code)
+        WHERE status = 'APPLIED';
+
+-- Kiểm tra trùng transaction_code với các payment đã xác nhận
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_payments_transaction_code' AND object_id = OBJECT_ID('payments'))
+    CREATE INDEX ix_payments_transaction_code ON payments (transaction_code)
+        WHERE transaction_code IS NOT NULL AND deleted_at IS NULL;
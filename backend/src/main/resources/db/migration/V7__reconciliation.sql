@@ -0,0 +1,62 @@
+-- =============================================
+-- RECONCILIATION
+-- Đối soát payment / order theo từng đoạn; checkpoint nằm trên dòng run để chạy tiếp sau khi lỗi.
+-- =============================================
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'reconciliation_runs')
+BEGIN
+    CREATE TABLE reconciliation_runs (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        status NVARCHAR(30) NOT NULL DEFAULT 'RUNNING',
+        last_order_id BIGINT NOT NULL DEFAULT 0,
+        orders_checked BIGINT NOT NULL DEFAULT 0,
+        payments_checked BIGINT NOT NULL DEFAULT 0,
+        discrepancies BIGINT NOT NULL DEFAULT 0,
+        last_error NVARCHAR(500) NULL,
+        completed_at DATETIME2 NULL,
+        created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        deleted_at DATETIME2 NULL,
+
+        CONSTRAINT chk_reconciliation_runs_status
+            CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED'))
+    );
+END;
+
+-- Tại một thời điểm chỉ có một lần chạy RUNNING, kể cả khi nhiều node cùng bắt đầu
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ux_reconciliation_runs_running' AND object_id = OBJECT_ID('reconciliation_runs'))
+    CREATE UNIQUE INDEX ux_reconciliation_runs_running ON reconciliation_runs (status)
+        WHERE status = 'RUNNING' AND deleted_at IS NULL;
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'reconciliation_discrepancies')
+BEGIN
+    CREATE TABLE reconciliation_discrepancies (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        run_id BIGINT NOT NULL,
+        type NVARCHAR(30) NOT NULL,
+        order_id BIGINT NULL,
+        order_code NVARCHAR(50) NULL,
+        payment_id BIGINT NULL,
+        expected_amount DECIMAL(19,4) NULL,
+        actual_amount DECIMAL(19,4) NULL,
+        details NVARCHAR(255) NULL,
+        created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        deleted_at DATETIME2 NULL,
+
+        CONSTRAINT fk_reconciliation_discrepancies_run FOREIGN KEY (run_id) REFERENCES reconciliation_runs(id),
+        CONSTRAINT chk_reconciliation_discrepancies_type
+            CHECK (type IN ('AMOUNT_MISMATCH', 'ORDER_WITHOUT_PAYMENT', 'CONFIRMED_UNPAID', 'ORPHAN_PAYMENT'))
+    );
+END;
+
+-- Phân trang sai lệch theo run (findByRunIdAndIdGreaterThanOrderByIdAsc)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_reconciliation_discrepancies_run' AND object_id = OBJECT_ID('reconciliation_discrepancies'))
+    CREATE INDEX ix_reconciliation_discrepancies_run ON reconciliation_discrepancies (run_id, id)
+        WHERE deleted_at IS NULL;
+
+-- Đọc payments theo keyset (order_id, id) không cần sort hay lookup
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_payments_order_id' AND object_id = OBJECT_ID('payments'))
+    CREATE INDEX ix_payments_order_id ON payments (order_id, id)
+        INCLUDE (method, amount, status)
+        WHERE deleted_at IS NULL;
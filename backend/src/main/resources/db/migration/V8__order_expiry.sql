@@ -0,0 +1,25 @@
+-- =============================================
+-- ORDER EXPIRY
+-- Khóa cho job định kỳ chỉ chạy trên một node + index cho truy vấn chọn đơn chuyển khoản quá hạn.
+-- =============================================
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'scheduler_locks')
+BEGIN
+    CREATE TABLE scheduler_locks (
+        name NVARCHAR(100) NOT NULL PRIMARY KEY,
+        locked_until DATETIME2 NOT NULL,
+        locked_at DATETIME2 NOT NULL,
+        locked_by NVARCHAR(255) NOT NULL
+    );
+END;
+
+-- Đơn pending theo thứ tự tạo (keyset created_at, id của OrderExpiryJdbcRepository)
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_orders_pending_created' AND object_id = OBJECT_ID('orders'))
+    CREATE INDEX ix_orders_pending_created ON orders (created_at, id)
+        WHERE status = 'pending' AND deleted_at IS NULL;
+
+-- Tổng qty_change theo đơn khi hoàn tồn kho
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'ix_inventory_order_variant' AND object_id = OBJECT_ID('inventory_transactions'))
+    CREATE INDEX ix_inventory_order_variant ON inventory_transactions (order_id, variant_id)
+        INCLUDE (qty_change)
+        WHERE order_id IS NOT NULL AND deleted_at IS NULL;
@@ -0,0 +1,40 @@
+-- =============================================
+-- PRODUCT RATING SUMMARIES
+-- Histogram 1..5 sao + tổng / số review của từng sản phẩm, ReviewService cộng dồn khi review thay đổi.
+-- =============================================
+
+IF NOT EXISTS (SELECT * FROM sys.tables WHERE name = 'product_rating_summaries')
+BEGIN
+    CREATE TABLE product_rating_summaries (
+        id BIGINT IDENTITY(1,1) PRIMARY KEY,
+        product_id INT NOT NULL,
+        rating_count BIGINT NOT NULL DEFAULT 0,
+        rating_sum BIGINT NOT NULL DEFAULT 0,
+        star_1 BIGINT NOT NULL DEFAULT 0,
+        star_2 BIGINT NOT NULL DEFAULT 0,
+        star_3 BIGINT NOT NULL DEFAULT 0,
+        star_4 BIGINT NOT NULL DEFAULT 0,
+        star_5 BIGINT NOT NULL DEFAULT 0,
+        created_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        updated_at DATETIME2 NOT NULL DEFAULT GETDATE(),
+        deleted_at DATETIME2 NULL,
+
+        CONSTRAINT uk_product_rating_summaries_product UNIQUE (product_id),
+        CONSTRAINT fk_product_rating_summaries_product FOREIGN KEY (product_id) REFERENCES products(id)
+    );
+END;
+
+-- Dựng tổng hợp từ các review hiện có
+INSERT INTO product_rating_summaries (product_id, rating_count, rating_sum, star_1, star_2, star_3, star_4, star_5)
+SELECT r.product_id,
+       COUNT(*),
+       SUM(r.rating),
+       SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END),
+       SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END)
+FROM product_reviews r
+WHERE r.deleted_at IS NULL
+  AND NOT EXISTS (SELECT 1 FROM product_rating_summaries s WHERE s.product_id = r.product_id)
+GROUP BY r.product_id;
@@ -0,0 +1,354 @@
+package com.fashon.application.service;
+
+import com.fashon.domain.entity.ReconciliationRun;
+import com.fashon.domain.enums.OrderStatus;
+import com.fashon.domain.enums.PaymentMethod;
+import com.fashon.domain.enums.PaymentStatus;
+import com.fashon.domain.enums.ReconciliationRunStatus;
+import com.fashon.infrastructure.config.ReconciliationConfig;
+import com.fashon.infrastructure.repository.ReconciliationDiscrepancyRepository;
+import com.fashon.infrastructure.repository.ReconciliationJdbcRepository;
+import com.fashon.infrastructure.repository.ReconciliationRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * merge-join của ReconciliationService trên orders / payments trong bộ nhớ.
+ * InMemoryJdbcRepository đọc keyset đúng như SQL thật; ReconciliationRunRepository giữ một lần chạy duy nhất.
+ */
+class ReconciliationServiceTest {
+
+    private static final BigDecimal TOTAL = new BigDecimal("100000");
+
+    private final InMemoryJdbcRepository jdbcRepository = new InMemoryJdbcRepository();
+    private final ReconciliationRunRepository runRepository = mock(ReconciliationRunRepository.class);
+    private final ReconciliationConfig config = new ReconciliationConfig();
+    private final List<Long> checkpoints = new ArrayList<>();
+    private final Semaphore finished = new Semaphore(0);
+    private ReconciliationRun run;
+    private ReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        when(runRepository.findFirstByOrderByIdDesc()).thenAnswer(invocation -> Optional.ofNullable(run));
+        when(runRepository.saveAndFlush(any(ReconciliationRun.class))).thenAnswer(invocation -> {
+            run = invocation.getArgument(0);
+            run.setId(1L);
+            return run;
+        });
+        when(runRepository.findById(1L)).thenAnswer(invocation -> Optional.ofNullable(run));
+        when(runRepository.claim(any(), any(), any())).thenAnswer(invocation -> {
+            if (run.getStatus() != ReconciliationRunStatus.FAILED) {
+                return 0;
+            }
+            run.setStatus(ReconciliationRunStatus.RUNNING);
+            run.setLastError(null);
+            return 1;
+        });
+        when(runRepository.checkpoint(any(), any(), anyLong(), anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            Long lastOrderId = invocation.getArgument(1);
+            checkpoints.add(lastOrderId);
+            run.setLastOrderId(lastOrderId);
+            run.setOrdersChecked(run.getOrdersChecked() + invocation.<Long>getArgument(2));
+            run.setPaymentsChecked(run.getPaymentsChecked() + invocation.<Long>getArgument(3));
+            run.setDiscrepancies(run.getDiscrepancies() + invocation.<Long>getArgument(4));
+            return 1;
+        });
+        when(runRepository.complete(any(), any())).thenAnswer(invocation -> {
+            run.setStatus(ReconciliationRunStatus.COMPLETED);
+            finished.release();
+            return 1;
+        });
+        when(runRepository.fail(any(), anyString(), any())).thenAnswer(invocation -> {
+            run.setStatus(ReconciliationRunStatus.FAILED);
+            run.setLastError(invocation.getArgument(1));
+            finished.release();
+            return 1;
+        });
+
+        service = new ReconciliationService(runRepository, mock(ReconciliationDiscrepancyRepository.class),
+                jdbcRepository, config, mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void classifiesOrdersAndPayments() throws Exception {
+        jdbcRepository.order(1, OrderStatus.CONFIRMED).payment(1, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        jdbcRepository.order(2, OrderStatus.CANCELLED).payment(2, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        jdbcRepository.order(3, OrderStatus.CONFIRMED).payment(3, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PENDING);
+        jdbcRepository.order(4, OrderStatus.CONFIRMED).payment(4, PaymentMethod.COD, TOTAL, PaymentStatus.PENDING);
+        jdbcRepository.order(5, OrderStatus.CONFIRMED);
+        jdbcRepository.order(6, OrderStatus.CONFIRMED).payment(6, PaymentMethod.BANK_TRANSFER, new BigDecimal("90000"), PaymentStatus.PAID);
+        jdbcRepository.order(7, OrderStatus.PENDING);
+        // Chuyển khoản lỗi rồi đổi sang COD: payment mới nhất là COD nên chưa thu tiền vẫn hợp lệ
+        jdbcRepository.order(8, OrderStatus.CONFIRMED)
+                .payment(8, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.FAILED)
+                .payment(8, PaymentMethod.COD, TOTAL, PaymentStatus.PENDING);
+        // COD rồi đổi sang chuyển khoản chưa trả: báo theo payment mới nhất
+        jdbcRepository.order(9, OrderStatus.CONFIRMED)
+                .payment(9, PaymentMethod.COD, TOTAL, PaymentStatus.PENDING)
+                .payment(9, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PENDING);
+        jdbcRepository.payment(10, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        jdbcRepository.payment(11, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PENDING);
+
+        runToEnd();
+
+        assertEquals(ReconciliationRunStatus.COMPLETED, run.getStatus());
+        assertEquals(List.of(
+                "CANCELLED_PAID order=2 payment=2",
+                "CONFIRMED_UNPAID order=3 payment=3",
+                "ORDER_WITHOUT_PAYMENT order=5 payment=null",
+                "AMOUNT_MISMATCH order=6 payment=5",
+                "CONFIRMED_UNPAID order=9 payment=9",
+                "ORPHAN_PAYMENT order=10 payment=10"), jdbcRepository.describeInserted());
+        assertEquals(9L, run.getOrdersChecked());
+        assertEquals(11L, run.getPaymentsChecked());
+        assertEquals(6L, run.getDiscrepancies());
+        assertEquals(11L, run.getLastOrderId());
+    }
+
+    @Test
+    void chunkSizeOneGivesTheSameResultAsOneChunk() throws Exception {
+        generate(60);
+        config.setChunkSize(10_000);
+        runToEnd();
+        List<String> expected = jdbcRepository.describeInserted();
+        ReconciliationRun oneChunk = run;
+        assertEquals(List.of(oneChunk.getLastOrderId()), checkpoints);
+
+        reset();
+        config.setChunkSize(1);
+        runToEnd();
+
+        assertEquals(ReconciliationRunStatus.COMPLETED, run.getStatus());
+        assertEquals(expected, jdbcRepository.describeInserted());
+        assertEquals(oneChunk.getOrdersChecked(), run.getOrdersChecked());
+        assertEquals(oneChunk.getPaymentsChecked(), run.getPaymentsChecked());
+        assertEquals(oneChunk.getDiscrepancies(), run.getDiscrepancies());
+        assertTrue(jdbcRepository.limits.stream().allMatch(limit -> limit == 1));
+        // Mỗi order_id (có đơn hoặc chỉ có payment) một checkpoint
+        assertEquals(60, checkpoints.size());
+        assertNonDecreasing(checkpoints);
+    }
+
+    @Test
+    void orphanPaymentsOfOneOrderAreCheckpointedTogether() throws Exception {
+        jdbcRepository.order(1, OrderStatus.CONFIRMED).payment(1, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        // 3 payment mồ côi của đơn 5 trải qua 2 đoạn đọc payment (chunk-size 2)
+        for (int i = 0; i < 3; i++) {
+            jdbcRepository.payment(5, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        }
+        jdbcRepository.order(10, OrderStatus.CONFIRMED).payment(10, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        config.setChunkSize(2);
+
+        runToEnd();
+
+        assertEquals(List.of(
+                "ORPHAN_PAYMENT order=5 payment=2",
+                "ORPHAN_PAYMENT order=5 payment=3",
+                "ORPHAN_PAYMENT order=5 payment=4"), jdbcRepository.describeInserted());
+        // Không checkpoint giữa các payment của đơn 5 dù đoạn đã đủ 2 dòng
+        assertEquals(List.of(1L, 5L, 10L), checkpoints);
+        assertEquals(5L, run.getPaymentsChecked());
+    }
+
+    @Test
+    void failureInsideAnOrphanRunResumesWithoutDuplicates() throws Exception {
+        jdbcRepository.order(1, OrderStatus.CONFIRMED).payment(1, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        for (int i = 0; i < 3; i++) {
+            jdbcRepository.payment(5, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        }
+        jdbcRepository.order(10, OrderStatus.CONFIRMED).payment(10, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PAID);
+        config.setChunkSize(2);
+        // Lần đọc payment thứ 3 lỗi: đã xử lý cả 3 payment của đơn 5 nhưng chưa biết đơn 5 đã hết payment chưa
+        jdbcRepository.failPaymentsCall = 3;
+
+        runToEnd();
+
+        assertEquals(ReconciliationRunStatus.FAILED, run.getStatus());
+        assertEquals(1L, run.getLastOrderId());
+        assertTrue(jdbcRepository.describeInserted().isEmpty());
+
+        runToEnd();
+
+        assertEquals(ReconciliationRunStatus.COMPLETED, run.getStatus());
+        assertEquals(List.of(
+                "ORPHAN_PAYMENT order=5 payment=2",
+                "ORPHAN_PAYMENT order=5 payment=3",
+                "ORPHAN_PAYMENT order=5 payment=4"), jdbcRepository.describeInserted());
+        assertEquals(2L, run.getOrdersChecked());
+        assertEquals(5L, run.getPaymentsChecked());
+        assertEquals(3L, run.getDiscrepancies());
+    }
+
+    @Test
+    void resumesFromLastOrderIdWithoutDuplicateDiscrepancies() throws Exception {
+        generate(60);
+        config.setChunkSize(10_000);
+        runToEnd();
+        List<String> expected = jdbcRepository.describeInserted();
+        ReconciliationRun clean = run;
+
+        reset();
+        config.setChunkSize(3);
+        jdbcRepository.failOrdersCall = 8;
+        runToEnd();
+
+        assertEquals(ReconciliationRunStatus.FAILED, run.getStatus());
+        long checkpoint = run.getLastOrderId();
+        assertTrue(checkpoint > 0 && checkpoint < 60, "checkpoint: " + checkpoint);
+        int written = jdbcRepository.inserted.size();
+
+        jdbcRepository.orderReads.clear();
+        runToEnd();
+
+        assertEquals(ReconciliationRunStatus.COMPLETED, run.getStatus());
+        assertEquals(checkpoint, jdbcRepository.orderReads.get(0));
+        assertTrue(jdbcRepository.describeInserted().size() > written);
+        assertEquals(expected, jdbcRepository.describeInserted());
+        assertEquals(clean.getOrdersChecked(), run.getOrdersChecked());
+        assertEquals(clean.getPaymentsChecked(), run.getPaymentsChecked());
+        assertEquals(clean.getDiscrepancies(), run.getDiscrepancies());
+        assertNonDecreasing(checkpoints);
+    }
+
+    /**
+     * Đơn 1..count; id chia hết cho 7 chỉ có payment (mồ côi). Đủ mọi loại sai lệch và đơn không có payment.
+     */
+    private void generate(int count) {
+        OrderStatus[] statuses = {OrderStatus.CONFIRMED, OrderStatus.CANCELLED, OrderStatus.PENDING, OrderStatus.CONFIRMED};
+        for (long id = 1; id <= count; id++) {
+            if (id % 7 == 0) {
+                for (int i = 0; i <= id % 3; i++) {
+                    jdbcRepository.payment(id, PaymentMethod.BANK_TRANSFER, TOTAL, i == 0 ? PaymentStatus.PAID : PaymentStatus.FAILED);
+                }
+                continue;
+            }
+            jdbcRepository.order(id, statuses[(int) (id % statuses.length)]);
+            if (id % 3 == 1) {
+                jdbcRepository.payment(id, PaymentMethod.BANK_TRANSFER, id % 5 == 0 ? new BigDecimal("90000") : TOTAL,
+                        PaymentStatus.PAID);
+            } else if (id % 3 == 2) {
+                jdbcRepository.payment(id, PaymentMethod.COD, TOTAL, PaymentStatus.PENDING);
+                jdbcRepository.payment(id, PaymentMethod.BANK_TRANSFER, TOTAL, PaymentStatus.PENDING);
+            }
+        }
+    }
+
+    // Xóa lần chạy và sai lệch đã ghi, giữ nguyên dữ liệu orders / payments
+    private void reset() {
+        run = null;
+        checkpoints.clear();
+        jdbcRepository.inserted.clear();
+        jdbcRepository.limits.clear();
+    }
+
+    private void runToEnd() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                service.start();
+                break;
+            } catch (RuntimeException e) {
+                // Lần chạy trước vừa báo xong nhưng worker chưa nhả cờ running
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(5);
+            }
+        }
+        assertTrue(finished.tryAcquire(5, TimeUnit.SECONDS), "Reconciliation run did not finish");
+    }
+
+    private static void assertNonDecreasing(List<Long> values) {
+        for (int i = 1; i < values.size(); i++) {
+            assertTrue(values.get(i) >= values.get(i - 1), "checkpoint went back: " + values);
+        }
+    }
+
+    private static final class InMemoryJdbcRepository extends ReconciliationJdbcRepository {
+
+        private final List<OrderRow> orders = new ArrayList<>();
+        private final List<PaymentRow> payments = new ArrayList<>();
+        private final List<DiscrepancyRow> inserted = new ArrayList<>();
+        private final List<Integer> limits = new ArrayList<>();
+        private final List<Long> orderReads = new ArrayList<>();
+        private long nextPaymentId = 1;
+        private int ordersCalls;
+        private int paymentsCalls;
+        private int failOrdersCall;
+        private int failPaymentsCall;
+
+        private InMemoryJdbcRepository() {
+            super(mock(DataSource.class));
+        }
+
+        private InMemoryJdbcRepository order(long id, OrderStatus status) {
+            orders.add(new OrderRow(id, "ORD" + id, TOTAL, status));
+            orders.sort(Comparator.comparingLong(OrderRow::id));
+            return this;
+        }
+
+        private InMemoryJdbcRepository payment(long orderId, PaymentMethod method, BigDecimal amount, PaymentStatus status) {
+            payments.add(new PaymentRow(nextPaymentId++, orderId, method, amount, status));
+            payments.sort(Comparator.comparingLong(PaymentRow::orderId).thenComparingLong(PaymentRow::id));
+            return this;
+        }
+
+        @Override
+        public List<OrderRow> findOrdersAfter(long orderId, int limit) {
+            if (++ordersCalls == failOrdersCall) {
+                throw new IllegalStateException("Connection reset");
+            }
+            limits.add(limit);
+            orderReads.add(orderId);
+            return orders.stream().filter(order -> order.id() > orderId).limit(limit).toList();
+        }
+
+        @Override
+        public List<PaymentRow> findPaymentsAfter(long orderId, long paymentId, int limit) {
+            if (++paymentsCalls == failPaymentsCall) {
+                throw new IllegalStateException("Connection reset");
+            }
+            limits.add(limit);
+            return payments.stream()
+                    .filter(payment -> payment.orderId() > orderId || (payment.orderId() == orderId && payment.id() > paymentId))
+                    .limit(limit)
+                    .toList();
+        }
+
+        @Override
+        public void insertDiscrepancies(Long runId, List<DiscrepancyRow> discrepancies) {
+            inserted.addAll(discrepancies);
+        }
+
+        private List<String> describeInserted() {
+            return inserted.stream()
+                    .map(row -> row.type() + " order=" + row.orderId() + " payment=" + row.paymentId())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.fashon.infrastructure.cart;
+
+import com.fashon.infrastructure.config.CartStoreConfig;
+import com.fashon.infrastructure.config.JwtConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuestCartCodecTest {
+
+    private static final String SECRET = "guest-cart-test-secret";
+    private static final int MAX_LINES = 5;
+    private static final int MAX_QUANTITY = 10;
+
+    private GuestCartCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        CartStoreConfig cartConfig = new CartStoreConfig();
+        cartConfig.getGuest().setSecret(SECRET);
+        cartConfig.getGuest().setMaxLines(MAX_LINES);
+        cartConfig.getGuest().setMaxQuantity(MAX_QUANTITY);
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret("jwt-secret");
+        codec = new GuestCartCodec(cartConfig, jwtConfig);
+    }
+
+    @Test
+    void roundTrip() {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        lines.put(1L, 2);
+        lines.put(Long.MAX_VALUE, 3);
+
+        assertEquals(lines, codec.decode(codec.encode(lines)));
+    }
+
+    @Test
+    void fullCartFitsTheTokenLimit() {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        for (long i = 0; i < MAX_LINES; i++) {
+            lines.put(Long.MAX_VALUE - i, MAX_QUANTITY);
+        }
+
+        assertEquals(lines, codec.decode(codec.encode(lines)));
+    }
+
+    @Test
+    void tamperedSignatureIsRejected() {
+        String token = codec.encode(Map.of(1L, 2));
+        int dot = token.indexOf('.');
+        // Đổi ký tự đầu của chữ ký (ký tự cuối chỉ mang vài bit, có thể decode ra cùng byte)
+        char first = token.charAt(dot + 1);
+        String tampered = token.substring(0, dot + 1) + (first == 'A' ? 'B' : 'A') + token.substring(dot + 2);
+
+        assertTrue(codec.decode(tampered).isEmpty());
+        assertTrue(codec.decode(token.substring(0, dot + 1)).isEmpty());
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String token = codec.encode(Map.of(1L, 2));
+        String signature = token.substring(token.indexOf('.') + 1);
+        String otherPayload = codec.encode(Map.of(1L, 9));
+        String forged = otherPayload.substring(0, otherPayload.indexOf('.')) + "." + signature;
+
+        assertTrue(codec.decode(forged).isEmpty());
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        String token = sign("another-secret", payload(1, future(), 1, 1L, 2L));
+
+        assertTrue(codec.decode(token).isEmpty());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        long expiredAt = Instant.now().getEpochSecond() - 1;
+
+        assertTrue(codec.decode(sign(SECRET, payload(1, expiredAt, 1, 1L, 2L))).isEmpty());
+        assertEquals(Map.of(1L, 2), codec.decode(sign(SECRET, payload(1, future(), 1, 1L, 2L))));
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        assertTrue(codec.decode(sign(SECRET, payload(2, future(), 1, 1L, 2L))).isEmpty());
+    }
+
+    @Test
+    void signedPayloadOverLineLimitIsRejected() {
+        long[] pairs = new long[(MAX_LINES + 1) * 2];
+        for (int i = 0; i < MAX_LINES + 1; i++) {
+            pairs[2 * i] = i + 1;
+            pairs[2 * i + 1] = 1;
+        }
+
+        assertTrue(codec.decode(sign(SECRET, payload(1, future(), MAX_LINES + 1, pairs))).isEmpty());
+    }
+
+    @Test
+    void quantitiesAreClampedAndEmptyLinesDropped() {
+        Map<Long, Integer> lines = codec.decode(sign(SECRET, payload(1, future(), 3,
+                1L, 1_000_000L, 2L, 0L, 3L, 4L)));
+
+        assertEquals(Map.of(1L, MAX_QUANTITY, 3L, 4), lines);
+    }
+
+    @Test
+    void truncatedPayloadIsRejected() {
+        // Khai báo 3 dòng nhưng chỉ có 1
+        assertTrue(codec.decode(sign(SECRET, payload(1, future(), 3, 1L, 2L))).isEmpty());
+    }
+
+    @Test
+    void garbageIsRejected() {
+        for (String token : new String[]{null, "", ".", "abc", ".abc", "abc.", "%%%.$$$", "a.b.c",
+                "AAAA.AAAA", "////////.////////"}) {
+            assertTrue(codec.decode(token).isEmpty(), "token: " + token);
+        }
+    }
+
+    @Test
+    void oversizedTokenIsRejectedBeforeDecoding() {
+        String valid = codec.encode(Map.of(1L, 2));
+        String padded = valid.substring(0, valid.indexOf('.')) + "A".repeat(100_000)
+                + valid.substring(valid.indexOf('.'));
+
+        assertTrue(codec.decode(padded).isEmpty());
+        assertTrue(codec.decode("A".repeat(1_000_000) + ".AAAA").isEmpty());
+    }
+
+    @Test
+    void encodingTooManyLinesFails() {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        for (long i = 0; i <= MAX_LINES; i++) {
+            lines.put(i + 1, 1);
+        }
+
+        assertThrows(RuntimeException.class, () -> codec.encode(lines));
+    }
+
+    private static long future() {
+        return Instant.now().getEpochSecond() + 3600;
+    }
+
+    private static byte[] payload(long version, long expiresAt, long count, long... pairs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarLong(out, version);
+        writeVarLong(out, expiresAt);
+        writeVarLong(out, count);
+        for (long value : pairs) {
+            writeVarLong(out, value);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sign(String secret, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] signature = Arrays.copyOf(mac.doFinal(payload), 16);
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            return encoder.encodeToString(payload) + "." + encoder.encodeToString(signature);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,40 @@
+package com.fashon.infrastructure.query;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Assertion cho test: fail khi request vượt budget SQL của endpoint hoặc có câu SQL lặp lại (N+1).
+ *
+ * <pre>
+ * QueryBudgetAssertions queryBudgetAssertions = new QueryBudgetAssertions(queryBudgetInterceptor);
+ * MvcResult result = mockMvc.perform(get("/api/v1/cart")).andReturn();
+ * queryBudgetAssertions.assertWithinBudget(result.getRequest());
+ * </pre>
+ */
+public class QueryBudgetAssertions {
+
+    private final QueryBudgetInterceptor interceptor;
+
+    public QueryBudgetAssertions(QueryBudgetInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    public void assertWithinBudget(HttpServletRequest request) {
+        QueryStats stats = (QueryStats) request.getAttribute(QueryBudgetInterceptor.STATS_ATTRIBUTE);
+        if (stats == null) {
+            throw new AssertionError("Request was not tracked; is app.query.tracking enabled?");
+        }
+        assertWithinBudget(stats, (Integer) request.getAttribute(QueryBudgetInterceptor.BUDGET_ATTRIBUTE));
+    }
+
+    public void assertWithinBudget(QueryStats stats, int budget) {
+        assertWithinBudget(stats, Integer.valueOf(budget));
+    }
+
+    private void assertWithinBudget(QueryStats stats, Integer budget) {
+        QueryBudgetInterceptor.Violation violation = interceptor.check(stats, budget);
+        if (violation != null) {
+            throw new AssertionError("Query budget exceeded: " + violation.describe());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.fashon.infrastructure.query;
+
+import com.fashon.infrastructure.config.QueryBudgetConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryBudgetInterceptorTest {
+
+    private static final String PRODUCT_PAGE = "select p.id, p.name from products p order by p.id offset ? rows fetch next ? rows only";
+    private static final String RATING_BY_PRODUCT = "select avg(r.rating) from product_reviews r where r.product_id = ?";
+
+    private final SqlStatementInspector inspector = new SqlStatementInspector();
+    private QueryBudgetInterceptor interceptor;
+    private QueryBudgetAssertions assertions;
+
+    @BeforeEach
+    void setUp() {
+        QueryBudgetConfig config = new QueryBudgetConfig();
+        config.setDefaultBudget(20);
+        config.setNPlusOneThreshold(5);
+        interceptor = new QueryBudgetInterceptor(new SimpleMeterRegistry(), config);
+        assertions = new QueryBudgetAssertions(interceptor);
+    }
+
+    @Test
+    void batchedPageIsWithinBudget() {
+        QueryStats stats = QueryTracker.count(() -> {
+            inspector.inspect(PRODUCT_PAGE);
+            inspector.inspect("select count(p.id) from products p");
+            inspector.inspect("select s.product_id, s.rating_count from product_rating_summaries s where s.product_id in (?,?,?)");
+        });
+
+        assertNull(interceptor.check(stats, 8));
+        assertDoesNotThrow(() -> assertions.assertWithinBudget(stats, 8));
+    }
+
+    @Test
+    void perProductQueryIsReportedAsNPlusOne() {
+        QueryStats stats = QueryTracker.count(() -> {
+            inspector.inspect(PRODUCT_PAGE);
+            for (int i = 0; i < 5; i++) {
+                // Khoảng trắng khác nhau vẫn là cùng một câu
+                inspector.inspect(i % 2 == 0 ? RATING_BY_PRODUCT : "  " + RATING_BY_PRODUCT.replace(" ", "\n  "));
+            }
+        });
+
+        List<QueryStats.RepeatedStatement> repeated = stats.repeatedStatements(5);
+        assertEquals(List.of(new QueryStats.RepeatedStatement(RATING_BY_PRODUCT, 5)), repeated);
+
+        // Tổng 6 câu vẫn dưới budget nhưng câu lặp lại đủ để vi phạm
+        QueryBudgetInterceptor.Violation violation = interceptor.check(stats, 8);
+        assertNotNull(violation);
+        assertEquals(6, violation.statements());
+        assertEquals(repeated, violation.repeated());
+        assertTrue(violation.describe().contains("N+1 suspect x5: " + RATING_BY_PRODUCT));
+
+        AssertionError error = assertThrows(AssertionError.class, () -> assertions.assertWithinBudget(stats, 8));
+        assertTrue(error.getMessage().contains("6 statements (budget 8)"));
+    }
+
+    @Test
+    void overBudgetWithoutRepeatsIsAViolation() {
+        QueryStats stats = QueryTracker.count(() -> {
+            for (int i = 0; i < 9; i++) {
+                inspector.inspect("select * from table_" + i);
+            }
+        });
+
+        QueryBudgetInterceptor.Violation violation = interceptor.check(stats, 8);
+        assertNotNull(violation);
+        assertEquals(9, violation.statements());
+        assertEquals(8, violation.budget());
+        assertTrue(violation.repeated().isEmpty());
+        // Không khai báo @QueryBudget thì dùng default-budget
+        assertNull(interceptor.check(stats, null));
+    }
+
+    @Test
+    void requestAttributesCarryStatsAndBudget() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/public/products");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handler = new HandlerMethod(new BudgetedController(), "list");
+
+        interceptor.preHandle(request, response, handler);
+        for (int i = 0; i < 5; i++) {
+            inspector.inspect(RATING_BY_PRODUCT);
+        }
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertEquals(8, request.getAttribute(QueryBudgetInterceptor.BUDGET_ATTRIBUTE));
+        assertNull(QueryTracker.current());
+        AssertionError error = assertThrows(AssertionError.class, () -> assertions.assertWithinBudget(request));
+        assertTrue(error.getMessage().contains("N+1 suspect x5"));
+    }
+
+    @Test
+    void untrackedRequestFailsTheAssertion() {
+        assertThrows(AssertionError.class, () -> assertions.assertWithinBudget(new MockHttpServletRequest()));
+    }
+
+    static class BudgetedController {
+
+        @QueryBudget(8)
+        public void list() {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.fashon.infrastructure.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Native query ghi dữ liệu (@Modifying) phải khai báo bảng bị ghi qua HINT_NATIVE_SPACES.
+ * Không khai báo thì Hibernate coi như ghi mọi bảng và xóa toàn bộ second-level cache sau mỗi lần chạy.
+ */
+class NativeQuerySpacesTest {
+
+    @Test
+    void nativeModifyingQueriesDeclareTheirSpaces() {
+        List<String> missing = new ArrayList<>();
+        int checked = 0;
+        for (Class<?> repository : repositories()) {
+            for (Method method : repository.getDeclaredMethods()) {
+                Query query = method.getAnnotation(Query.class);
+                if (query == null || !query.nativeQuery() || !method.isAnnotationPresent(Modifying.class)) {
+                    continue;
+                }
+                checked++;
+                QueryHints hints = method.getAnnotation(QueryHints.class);
+                boolean declared = hints != null && Arrays.stream(hints.value())
+                        .filter(hint -> HibernateHints.HINT_NATIVE_SPACES.equals(hint.name()))
+                        .map(QueryHint::value)
+                        .anyMatch(value -> !value.isBlank());
+                if (!declared) {
+                    missing.add(repository.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+        assertTrue(checked > 0, "No native @Modifying query found, scan is broken");
+        assertTrue(missing.isEmpty(), "Native @Modifying queries without " + HibernateHints.HINT_NATIVE_SPACES + ": " + missing);
+    }
+
+    private static List<Class<?>> repositories() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+        List<Class<?>> repositories = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(NativeQuerySpacesTest.class.getPackageName())) {
+            repositories.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), null));
+        }
+        assertFalse(repositories.isEmpty());
+        return repositories;
+    }
+}
@@ -0,0 +1,158 @@
+package com.fashon.infrastructure.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Chạy lại các CREATE / DROP INDEX trong db/migration theo thứ tự version rồi kiểm tra mỗi shape query
+ * trong repository vẫn còn index seek được theo cột lọc và đọc sẵn theo thứ tự sort.
+ * Không cần SQL Server: migration sau lỡ bỏ hoặc đổi key một index (như V5 với ix_payments_status_created)
+ * thì test này đỏ.
+ */
+class QueryShapeIndexTest {
+
+    private static final Pattern MIGRATION = Pattern.compile("V(\\d+)__.+\\.sql");
+    private static final Pattern STATEMENT = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?(?:NONCLUSTERED\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(([^)]*)\\)"
+                    + "\\s*(?:INCLUDE\\s*\\(([^)]*)\\))?\\s*(?:WHERE\\s+([^;]*))?"
+                    + "|DROP\\s+INDEX\\s+(?:IF\\s+EXISTS\\s+)?(\\w+)\\s+ON\\s+(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Map<String, Index> indexes = new LinkedHashMap<>();
+
+    @BeforeAll
+    static void replayMigrations() throws IOException, URISyntaxException {
+        Path directory = Paths.get(QueryShapeIndexTest.class.getResource("/db/migration").toURI());
+        List<Path> migrations;
+        try (Stream<Path> files = Files.list(directory)) {
+            migrations = files.filter(p -> MIGRATION.matcher(p.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingInt(QueryShapeIndexTest::version))
+                    .toList();
+        }
+        for (Path migration : migrations) {
+            String sql = Files.readString(migration).replaceAll("--[^\\n]*", " ");
+            Matcher matcher = STATEMENT.matcher(sql);
+            while (matcher.find()) {
+                if (matcher.group(1) != null) {
+                    Index index = new Index(matcher.group(2), columns(matcher.group(3)), columns(matcher.group(4)),
+                            normalize(matcher.group(5)));
+                    indexes.put(key(matcher.group(2), matcher.group(1)), index);
+                } else {
+                    indexes.remove(key(matcher.group(7), matcher.group(6)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void productListings() {
+        // findByIsVisibleTrue, findNewestProducts
+        assertSeek("products", List.of("is_visible", "created_at DESC"));
+        // findTopSellingProducts
+        assertSeek("products", List.of("is_visible", "sold_count DESC"));
+        // findByCategoryIdAndIsVisibleTrue, findByCategoryIdsAndIsVisibleTrue
+        assertSeek("products", List.of("category_id", "is_visible", "created_at DESC"));
+        // findByPriceRangeAndIsVisibleTrue
+        assertSeek("products", List.of("is_visible", "base_price"));
+    }
+
+    @Test
+    void orderLists() {
+        // findByUserIdWithItems, findOrderIdsForAdmin(userId)
+        assertSeek("orders", List.of("user_id", "created_at DESC"));
+        // findByStatusWithItems, findOrderIdsForAdmin(status)
+        assertSeek("orders", List.of("status", "created_at DESC"));
+        // findAllWithItems
+        assertSeek("orders", List.of("created_at DESC"));
+    }
+
+    @Test
+    void adminPaymentKeysetPages() {
+        // PaymentSpecifications: mỗi tổ hợp lọc phải seek rồi đọc theo (created_at DESC, id DESC), covering
+        List<String> listed = List.of("status", "method", "order_id", "amount");
+        assertCovering("payments", List.of("status", "created_at DESC", "id DESC"), listed);
+        assertCovering("payments", List.of("method", "created_at DESC", "id DESC"), listed);
+        assertCovering("payments", List.of("status", "method", "created_at DESC", "id DESC"), listed);
+        assertCovering("payments", List.of("created_at DESC", "id DESC"), listed);
+        // findByOrderIdOrderByCreatedAtDesc
+        assertSeek("payments", List.of("order_id", "created_at DESC"));
+    }
+
+    @Test
+    void reviewAndWishlistFeeds() {
+        // ReviewRepository.findFeedByProductId*
+        assertSeek("product_reviews", List.of("product_id", "created_at DESC"));
+        // WishlistRepository.findCards*
+        assertSeek("wishlists", List.of("user_id", "created_at DESC", "id DESC"));
+    }
+
+    private static void assertSeek(String table, List<String> keyPrefix) {
+        assertCovering(table, keyPrefix, List.of());
+    }
+
+    private static void assertCovering(String table, List<String> keyPrefix, List<String> columns) {
+        List<String> prefix = keyPrefix.stream().map(QueryShapeIndexTest::normalize).toList();
+        for (Index index : indexes.values()) {
+            if (index.table().equalsIgnoreCase(table)
+                    && index.key().size() >= prefix.size()
+                    && index.key().subList(0, prefix.size()).equals(prefix)
+                    && "deleted_at is null".equals(index.filter())
+                    && columns.stream().allMatch(index::covers)) {
+                return;
+            }
+        }
+        fail("No index on " + table + " with key prefix " + prefix + " covering " + columns
+                + " filtered on deleted_at IS NULL; indexes: " + indexes.values().stream()
+                .filter(i -> i.table().equalsIgnoreCase(table)).toList());
+    }
+
+    private static int version(Path migration) {
+        Matcher matcher = MIGRATION.matcher(migration.getFileName().toString());
+        assertTrue(matcher.matches());
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static String key(String table, String name) {
+        return table.toLowerCase(Locale.ROOT) + "." + name.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> columns(String list) {
+        if (list == null) {
+            return List.of();
+        }
+        return Arrays.stream(list.split(","))
+                .map(QueryShapeIndexTest::normalize)
+                .map(c -> c.endsWith(" asc") ? c.substring(0, c.length() - 4) : c)
+                .toList();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? null : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Index(String table, List<String> key, List<String> include, String filter) {
+
+        boolean covers(String column) {
+            String name = normalize(column);
+            return include.contains(name) || key.stream().anyMatch(k -> k.equals(name) || k.startsWith(name + " "));
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.fashon.infrastructure.runtime;
+
+import com.fashon.application.dto.ProductDTO;
+import com.fashon.application.dto.ProductImageDTO;
+import com.fashon.application.dto.ProductVariantDTO;
+import com.fashon.application.service.CategoryService;
+import com.fashon.application.service.ProductService;
+import com.fashon.application.service.WishlistService;
+import com.fashon.infrastructure.config.MetricsScrapeConfig;
+import com.fashon.infrastructure.config.PasswordHashingConfig;
+import com.fashon.infrastructure.config.QueryBudgetConfig;
+import com.fashon.infrastructure.config.QueryTrackingConfig;
+import com.fashon.infrastructure.config.RateLimitConfig;
+import com.fashon.infrastructure.config.SecurityConfig;
+import com.fashon.infrastructure.security.JwtAuthenticationFilter;
+import com.fashon.infrastructure.security.JwtUtil;
+import com.fashon.infrastructure.security.TokenRevocationList;
+import com.fashon.infrastructure.security.UserIdentityCache;
+import com.fashon.interfaces.rest.PublicProductController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 2.000 client HttpClient cùng gọi GET /api/v1/public/products trên Tomcat thật (cổng ngẫu nhiên),
+ * với spring.threads.virtual.enabled tắt / bật. Đo thời gian tới khi cả 2.000 response về (≈ độ trễ của
+ * request chờ lâu nhất).
+ *
+ * Request đi qua toàn bộ đường thật: Tomcat, Spring Security (SecurityConfig, JwtAuthenticationFilter,
+ * RateLimitFilter), QueryBudgetInterceptor, PublicProductController và Jackson với trang 20 sản phẩm.
+ * Sandbox không có SQL Server nên ProductService là stub: giữ một "connection" và chờ sqlLatencyMs như
+ * một round trip JDBC, rồi trả trang dựng sẵn.
+ *
+ * - virtualThreads: false = pool 200 thread của Tomcat, true = mỗi request một virtual thread.
+ * - sqlLatencyMs: 20 = query bình thường, 1000 = query chậm (replica quá tải, lock).
+ * - connections: 0 = không giới hạn; -p connections=20 = Hikari maximum-pool-size của replica.
+ * server.tomcat.accept-count được nâng lên 2.000: với mặc định 100, kernel bỏ SYN khi 2.000 client
+ * cùng kết nối và client chờ gửi lại SYN 1s, lấn át phần cần đo.
+ *
+ * Chạy: mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ *       java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+ *            com.fashon.infrastructure.runtime.VirtualThreadBrowseBenchmark
+ *
+ * Kết quả đo (JDK 21.0.1, 1 vCPU dùng chung cho client và server, ms cho 2.000 request, 5 lần đo):
+ *   sqlLatencyMs  connections  platform        virtual
+ *   20            0             5.866 ± 1.330   5.197 ± 1.862
+ *   20            20            7.596 ± 5.872   6.027 ± 2.416
+ *   1000          0            10.724 ±   319   5.356 ± 3.695
+ * Với query 20ms, 200 thread đã đủ cho 10.000 request/s, cao hơn nhiều mức CPU chịu được (~350-400
+ * request/s ở đây) nên hai chế độ như nhau. Với query 1s, pool 200 thread chỉ được 200 request/s và
+ * 2.000 request xếp thành 10 đợt; virtual thread cho mọi request chờ cùng lúc, còn lại là thời gian CPU.
+ * Pool 20 connection giới hạn ở 20 / sqlLatencyMs với cả hai chế độ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadBrowseBenchmark {
+
+    private static final int CLIENTS = 2000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"20", "1000"})
+    private long sqlLatencyMs;
+
+    @Param({"0"})
+    private int connections;
+
+    private ServletWebServerApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        // Tham số dòng lệnh để đè lên application.yml (server.port, VIRTUAL_THREADS)
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(BrowseApplication.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.accept-count=" + CLIENTS,
+                        "--spring.main.banner-mode=off",
+                        "--spring.devtools.restart.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--benchmark.sql-latency-ms=" + sqlLatencyMs,
+                        "--benchmark.connections=" + connections);
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + context.getWebServer().getPort()
+                + "/api/v1/public/products?page=0&size=" + PAGE_SIZE)).GET().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        clientExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void browse() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            int status = response.join().statusCode();
+            if (status != 200) {
+                throw new IllegalStateException("Browse request failed with status " + status);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VirtualThreadBrowseBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // Chỉ phần web và security của ứng dụng, không có DataSource / JPA / Flyway
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            DataSourceAutoConfiguration.class,
+            DataSourceTransactionManagerAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            FlywayAutoConfiguration.class})
+    @Import({
+            PublicProductController.class,
+            SecurityConfig.class,
+            JwtAuthenticationFilter.class,
+            PasswordHashingConfig.class,
+            RateLimitConfig.class,
+            MetricsScrapeConfig.class,
+            QueryTrackingConfig.class,
+            QueryBudgetConfig.class})
+    static class BrowseApplication {
+
+        @Bean
+        ProductService productService(@Value("${benchmark.sql-latency-ms}") long sqlLatencyMs,
+                                      @Value("${benchmark.connections}") int connections) {
+            Semaphore pool = connections > 0 ? new Semaphore(connections, true) : null;
+            List<ProductDTO> products = products();
+            ProductService productService = mock(ProductService.class, withSettings().stubOnly());
+            when(productService.getAllProducts(any())).thenAnswer(invocation -> {
+                if (pool != null) {
+                    pool.acquire();
+                }
+                try {
+                    Thread.sleep(sqlLatencyMs);
+                } finally {
+                    if (pool != null) {
+                        pool.release();
+                    }
+                }
+                return new PageImpl<>(products, invocation.<Pageable>getArgument(0), 500);
+            });
+            return productService;
+        }
+
+        @Bean
+        CategoryService categoryService() {
+            return mock(CategoryService.class, withSettings().stubOnly());
+        }
+
+        @Bean
+        WishlistService wishlistService() {
+            return mock(WishlistService.class, withSettings().stubOnly());
+        }
+
+        // Request ẩn danh không có header Authorization nên filter không gọi tới các bean này
+        @Bean
+        JwtUtil jwtUtil() {
+            return mock(JwtUtil.class, withSettings().stubOnly());
+        }
+
+        @Bean
+        UserIdentityCache userIdentityCache() {
+            return mock(UserIdentityCache.class, withSettings().stubOnly());
+        }
+
+        @Bean
+        TokenRevocationList tokenRevocationList() {
+            return mock(TokenRevocationList.class, withSettings().stubOnly());
+        }
+
+        private static List<ProductDTO> products() {
+            List<ProductDTO> products = new ArrayList<>();
+            for (long id = 1; id <= PAGE_SIZE; id++) {
+                String hash = String.format("%032x", id);
+                products.add(ProductDTO.builder()
+                        .id(id)
+                        .name("Áo thun basic " + id)
+                        .slug("ao-thun-basic-" + id)
+                        .description("Áo thun cotton 100%, form regular")
+                        .basePrice(new BigDecimal("199000"))
+                        .categoryId(3L)
+                        .categoryName("Áo thun")
+                        .isVisible(true)
+                        .soldCount(120L)
+                        .createdAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                        .updatedAt(LocalDateTime.of(2026, 1, 2, 0, 0))
+                        .images(List.of(ProductImageDTO.builder()
+                                .id(id)
+                                .imageUrl("/uploads/" + hash + ".jpg")
+                                .thumbnailUrl("/uploads/" + hash + ".jpg?w=200")
+                                .cardUrl("/uploads/" + hash + ".jpg?w=480")
+                                .detailUrl("/uploads/" + hash + ".jpg?w=1200")
+                                .sortOrder(0)
+                                .isPrimary(true)
+                                .build()))
+                        .variants(List.of(ProductVariantDTO.builder()
+                                .id(id)
+                                .sku("TS-" + id + "-M")
+                                .color("Trắng")
+                                .size("M")
+                                .stockQuantity(50)
+                                .priceAdjustment(BigDecimal.ZERO)
+                                .finalPrice(new BigDecimal("199000"))
+                                .isAvailable(true)
+                                .inStock(true)
+                                .build()))
+                        .averageRating(4.5)
+                        .reviewCount(12L)
+                        .build());
+            }
+            return products;
+        }
+    }
+}
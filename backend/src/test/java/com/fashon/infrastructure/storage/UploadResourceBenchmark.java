@@ -0,0 +1,181 @@
+package com.fashon.infrastructure.storage;
+
+import com.fashon.infrastructure.config.ImageDerivativeConfig;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí phục vụ một request /uploads/** trong JVM (MockHttpServletRequest, không qua socket).
+ *
+ * - upload: UploadResourceHandler.
+ * - spring: ResourceHttpRequestHandler trỏ vào cùng thư mục, như cấu hình /uploads/** trước đây.
+ * - fullGet: GET cả file; conditionalGet: If-Modified-Since khớp, trả 304;
+ *   rangeGet: Range 64KB đầu (hoặc cả file nếu nhỏ hơn), trả 206.
+ * - size: 20KB (ảnh thu nhỏ) và 2MB (ảnh gốc).
+ * Body được ghi vào output stream bỏ qua dữ liệu (stream của MockHttpServletResponse ghi từng byte,
+ * chậm hơn cả handler). Không có sendfile nên cả hai đều copy body qua heap;
+ * qua Tomcat thật, file từ 48KB của UploadResourceHandler còn được gửi bằng sendfile.
+ *
+ * Chạy: mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ *       java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+ *            com.fashon.infrastructure.storage.UploadResourceBenchmark
+ *
+ * Kết quả đo (JDK 21.0.1, 1 vCPU, us/op, 5 lần đo x 2s; sai số lớn với spring do GC):
+ *   size  benchmark        upload          spring
+ *   20KB  conditionalGet    5.3 ±  2.4     11.5 ±   4.5
+ *   20KB  fullGet          16.0 ±  8.7     31.0 ±  37.3
+ *   20KB  rangeGet         20.0 ± 29.6     41.0 ±  44.0
+ *   2MB   conditionalGet    5.0 ±  1.1      9.8 ±   1.5
+ *   2MB   fullGet           266 ±   89      405 ±   283
+ *   2MB   rangeGet         27.1 ±  8.7     65.4 ± 105.6
+ * Chạy lại fullGet 2MB với 2 fork x 10 lần đo: upload 247 ± 13, spring 260 ± 28.
+ * Trước khi đổi sang copy theo khối 64KB, upload (transferTo sang stream) mất 387 ± 69.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadResourceBenchmark {
+
+    private static final String FILENAME = "0123456789abcdef0123456789abcdef.jpg";
+    private static final String RANGE = "bytes=0-65535";
+
+    @Param({"upload", "spring"})
+    private String handler;
+
+    @Param({"20480", "2097152"})
+    private int size;
+
+    private Path uploadDir;
+    private HttpRequestHandler requestHandler;
+    private long lastModified;
+
+    @Setup
+    public void setUp() throws Exception {
+        uploadDir = Files.createTempDirectory("upload-benchmark");
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        Path file = Files.write(uploadDir.resolve(FILENAME), content);
+        lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        if ("upload".equals(handler)) {
+            ImageDerivativeConfig config = new ImageDerivativeConfig();
+            requestHandler = new UploadResourceHandler(config, new ImageDerivativeGenerator(config), uploadDir.toString());
+        } else {
+            ResourceHttpRequestHandler spring = new ResourceHttpRequestHandler();
+            spring.setLocations(List.of(new FileSystemResource(uploadDir.toString() + "/")));
+            spring.setServletContext(new MockServletContext());
+            spring.afterPropertiesSet();
+            requestHandler = spring;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public DiscardingResponse fullGet() throws Exception {
+        return handle(request());
+    }
+
+    @Benchmark
+    public DiscardingResponse conditionalGet() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        return handle(request);
+    }
+
+    @Benchmark
+    public DiscardingResponse rangeGet() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, RANGE);
+        return handle(request);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + FILENAME);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, FILENAME);
+        return request;
+    }
+
+    private DiscardingResponse handle(MockHttpServletRequest request) throws Exception {
+        DiscardingResponse response = new DiscardingResponse();
+        requestHandler.handleRequest(request, response);
+        return response;
+    }
+
+    // Như socket của Tomcat: nhận cả mảng byte mỗi lần ghi, chỉ đếm số byte
+    public static class DiscardingResponse extends MockHttpServletResponse {
+
+        private long written;
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written += len;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+
+        public long getWritten() {
+            return written;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UploadResourceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,251 @@
+package com.fashon.infrastructure.storage;
+
+import com.fashon.infrastructure.config.ImageDerivativeConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadResourceHandlerTest {
+
+    private static final String HASHED = "0123456789abcdef0123456789abcdef.jpg";
+    private static final String LEGACY = "legacy-upload.jpg";
+    private static final Instant MODIFIED = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path uploadDir;
+
+    private UploadResourceHandler handler;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ImageDerivativeConfig config = new ImageDerivativeConfig();
+        handler = new UploadResourceHandler(config, new ImageDerivativeGenerator(config), uploadDir.toString());
+        content = new byte[100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        for (String name : new String[]{HASHED, LEGACY}) {
+            Path file = Files.write(uploadDir.resolve(name), content);
+            Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+        }
+    }
+
+    @Test
+    void fullGet() throws Exception {
+        MockHttpServletResponse response = handle(get(HASHED));
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+        assertEquals("\"" + HASHED + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("max-age=31536000, public, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals("image/jpeg", response.getContentType());
+        assertEquals(100, response.getContentLengthLong());
+    }
+
+    @Test
+    void legacyNameRevalidates() throws Exception {
+        MockHttpServletResponse response = handle(get(LEGACY));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("\"64-" + Long.toHexString(MODIFIED.toEpochMilli()) + "\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void originalServedForMissingDerivativeIsNotImmutable() throws Exception {
+        MockHttpServletRequest request = get(HASHED);
+        request.setParameter(ImageDerivativeResolver.WIDTH_PARAM, "400");
+
+        MockHttpServletResponse response = handle(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void ifNoneMatchReturnsNotModified() throws Exception {
+        MockHttpServletRequest request = get(HASHED);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + HASHED + "\"");
+
+        MockHttpServletResponse response = handle(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void ifModifiedSinceReturnsNotModified() throws Exception {
+        MockHttpServletRequest request = get(LEGACY);
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, MODIFIED.toEpochMilli());
+
+        assertEquals(304, handle(request).getStatus());
+
+        MockHttpServletRequest stale = get(LEGACY);
+        stale.addHeader(HttpHeaders.IF_MODIFIED_SINCE, MODIFIED.minusSeconds(60).toEpochMilli());
+        assertEquals(200, handle(stale).getStatus());
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws Exception {
+        MockHttpServletRequest request = get(HASHED);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+
+        MockHttpServletResponse response = handle(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void suffixAndOpenRangesAreClampedToTheFile() throws Exception {
+        MockHttpServletRequest suffix = get(HASHED);
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-5");
+        MockHttpServletResponse response = handle(suffix);
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 95-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+
+        MockHttpServletRequest open = get(HASHED);
+        open.addHeader(HttpHeaders.RANGE, "bytes=90-500");
+        response = handle(open);
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 90-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 90, 100), response.getContentAsByteArray());
+    }
+
+    @Test
+    void unsatisfiableRangeReturns416() throws Exception {
+        MockHttpServletRequest request = get(HASHED);
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-");
+
+        MockHttpServletResponse response = handle(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void multipleOrMalformedRangesReturnTheWholeFile() throws Exception {
+        for (String range : new String[]{"bytes=0-1,5-6", "bytes=abc", "items=0-1"}) {
+            MockHttpServletRequest request = get(HASHED);
+            request.addHeader(HttpHeaders.RANGE, range);
+
+            MockHttpServletResponse response = handle(request);
+
+            assertEquals(200, response.getStatus(), range);
+            assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+            assertArrayEquals(content, response.getContentAsByteArray(), range);
+        }
+    }
+
+    @Test
+    void ifRangeWithCurrentEtagReturnsPartialContent() throws Exception {
+        assertEquals(206, handle(rangeWithIfRange(HASHED, "\"" + HASHED + "\"")).getStatus());
+    }
+
+    @Test
+    void ifRangeWithOtherOrWeakEtagReturnsTheWholeFile() throws Exception {
+        for (String ifRange : new String[]{"\"other\"", "W/\"" + HASHED + "\""}) {
+            MockHttpServletResponse response = handle(rangeWithIfRange(HASHED, ifRange));
+
+            assertEquals(200, response.getStatus(), ifRange);
+            assertArrayEquals(content, response.getContentAsByteArray(), ifRange);
+        }
+    }
+
+    @Test
+    void ifRangeDateMustMatchLastModified() throws Exception {
+        MockHttpServletRequest current = rangeWithIfRange(LEGACY, null);
+        current.addHeader(HttpHeaders.IF_RANGE, MODIFIED.toEpochMilli());
+        assertEquals(206, handle(current).getStatus());
+
+        MockHttpServletRequest older = rangeWithIfRange(LEGACY, null);
+        older.addHeader(HttpHeaders.IF_RANGE, MODIFIED.minusSeconds(60).toEpochMilli());
+        assertEquals(200, handle(older).getStatus());
+
+        assertEquals(200, handle(rangeWithIfRange(LEGACY, "not a date")).getStatus());
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/uploads/" + HASHED);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, HASHED);
+
+        MockHttpServletResponse response = handle(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(100, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void largeBodyIsHandedToSendfile() throws Exception {
+        byte[] large = new byte[64 * 1024];
+        Files.write(uploadDir.resolve("large.bin"), large);
+        MockHttpServletRequest request = get("large.bin");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=1024-");
+
+        MockHttpServletResponse response = handle(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(uploadDir.resolve("large.bin").toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(1024L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals((long) large.length, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void otherMethodsAndPathsAreRejected() throws Exception {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/uploads/" + HASHED);
+        post.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, HASHED);
+        MockHttpServletResponse response = handle(post);
+        assertEquals(405, response.getStatus());
+        assertEquals("GET, HEAD", response.getHeader(HttpHeaders.ALLOW));
+
+        Files.writeString(uploadDir.resolveSibling("secret.txt"), "secret");
+        for (String path : new String[]{"../secret.txt", "..\\secret.txt", ".hidden", "missing.jpg", ""}) {
+            assertEquals(404, handle(get(path)).getStatus(), path);
+        }
+    }
+
+    private MockHttpServletRequest rangeWithIfRange(String filename, String ifRange) {
+        MockHttpServletRequest request = get(filename);
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        return request;
+    }
+
+    private static MockHttpServletRequest get(String filename) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + filename);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, filename);
+        return request;
+    }
+
+    private MockHttpServletResponse handle(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+        return response;
+    }
+}
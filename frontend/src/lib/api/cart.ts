@@ -37,6 +37,13 @@ export interface UpdateCartItemData {
   quantity: number;
 }
 
+export interface CartOperation {
+  type: 'ADD' | 'UPDATE' | 'REMOVE';
+  variantId?: number;
+  cartItemId?: number;
+  quantity?: number;
+}
+
 /**
  * Get current user's cart
  * GET /api/v1/cart
@@ -92,3 +99,17 @@ export async function removeCartItem(itemId: number): Promise<CartDTO> {
   
   return response.data.data;
 }
+
+/**
+ * Apply several cart operations atomically
+ * POST /api/v1/cart/batch
+ */
+export async function batchUpdateCart(operations: CartOperation[]): Promise<CartDTO> {
+  const response = await apiClient.post<ApiResponse<CartDTO>>('/cart/batch', { operations });
+  
+  if (!response.data.success) {
+    throw new Error(response.data.message || 'Không thể cập nhật giỏ hàng');
+  }
+  
+  return response.data.data;
+}